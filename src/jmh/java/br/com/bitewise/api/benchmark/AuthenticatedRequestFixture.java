@@ -0,0 +1,62 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.filter.JwtAuthFilter;
+import br.com.bitewise.api.service.UserDetailsServiceImpl;
+import br.com.bitewise.api.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * Monta JwtUtil e JwtAuthFilter reais, sem contexto Spring, com um usuário fixo em memória.
+ */
+final class AuthenticatedRequestFixture {
+
+    static final String EMAIL = "bench@bitewise.com";
+    static final String SECRET = Base64.getEncoder()
+            .encodeToString("bitewise-benchmark-secret-key-with-64-bytes-of-entropy-1234567890".getBytes());
+
+    final JwtUtil jwtUtil;
+    final JwtAuthFilter filter;
+    final String token;
+
+    AuthenticatedRequestFixture() {
+        jwtUtil = newJwtUtil();
+        UserDetails user = new User(EMAIL, "{noop}irrelevante", Collections.emptyList());
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl() {
+            @Override
+            public UserDetails loadUserByUsername(String email) {
+                return user;
+            }
+        };
+        filter = new JwtAuthFilter(jwtUtil, userDetailsService);
+        token = jwtUtil.generateToken(EMAIL);
+    }
+
+    static JwtUtil newJwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", 3_600_000L);
+        return jwtUtil;
+    }
+
+    int authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/recipes/generate");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
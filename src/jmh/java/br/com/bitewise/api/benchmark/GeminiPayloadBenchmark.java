@@ -0,0 +1,69 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.service.GeminiMetrics;
+import br.com.bitewise.api.service.GeminiService;
+import br.com.bitewise.api.service.GenerationBudgets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do corpo do generateContent e parsing de respostas gravadas da Gemini
+ * (src/jmh/resources/gemini), sem rede.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeminiPayloadBenchmark {
+
+    @Param({"generate-response", "modify-response"})
+    public String payload;
+
+    private final GenerationBudgets.Budget budget =
+            new GenerationBudgets.Budget(GenerationBudgets.GENERATE, 8192, null, 20, 12, 5);
+    private GeminiService geminiService;
+    private ObjectMapper objectMapper;
+    private String responseBody;
+    private String prompt;
+
+    @Setup
+    public void setUp() throws Exception {
+        geminiService = new GeminiService(new GeminiMetrics(new SimpleMeterRegistry()), null,
+                new GenerationBudgets(budget, new GenerationBudgets.Budget(GenerationBudgets.MODIFY, 8192, null, 20, 12, 5)),
+                null, null, 1, 0);
+        objectMapper = new ObjectMapper();
+        try (InputStream in = getClass().getResourceAsStream("/gemini/" + payload + ".json")) {
+            responseBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        prompt = "Ingredientes principais: " + String.join(", ", List.of("frango", "arroz", "tomate", "cebola", "limão")) + ".";
+    }
+
+    @Benchmark
+    public String buildAndSerializeRequest() throws Exception {
+        return objectMapper.writeValueAsString(geminiService.buildRequestBody(prompt, budget));
+    }
+
+    @Benchmark
+    public RecipeResponse parseResponse() throws Exception {
+        return geminiService.parseRecipe(objectMapper.readTree(responseBody));
+    }
+}
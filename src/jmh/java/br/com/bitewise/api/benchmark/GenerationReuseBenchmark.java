@@ -0,0 +1,81 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.service.GenerationReuseCache;
+import br.com.bitewise.api.service.IngredientDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta ao cache de reaproveitamento de gerações com {@code entries} gerações guardadas. Metade das
+ * consultas repete um pedido guardado trocando um tempero básico (acerto) e metade sorteia ingredientes
+ * novos (erro), para comparar o custo da consulta com a latência de uma chamada à Gemini.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class GenerationReuseBenchmark {
+
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private GenerationReuseCache cache;
+    private List<List<String>> queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+        cache = new GenerationReuseCache(dictionary, new SimpleMeterRegistry(), true, 0.8, entries, 1440);
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<List<String>> stored = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            List<String> ingredients = randomIngredients(dictionary, random);
+            cache.put(ingredients, new RecipeResponse());
+            stored.add(ingredients);
+        }
+        queries = new ArrayList<>(1024);
+        for (int i = 0; i < 1024; i++) {
+            if (i % 2 == 0) {
+                List<String> repeated = new ArrayList<>(stored.get(random.nextInt(stored.size())));
+                repeated.add("sal");
+                queries.add(repeated);
+            } else {
+                queries.add(randomIngredients(dictionary, random));
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<RecipeResponse> find() {
+        return cache.find(queries.get(next++ & (queries.size() - 1)));
+    }
+
+    private static List<String> randomIngredients(IngredientDictionary dictionary, SplittableRandom random) {
+        List<String> ingredients = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ingredients.add(dictionary.name(random.nextInt(dictionary.size())));
+        }
+        return ingredients;
+    }
+}
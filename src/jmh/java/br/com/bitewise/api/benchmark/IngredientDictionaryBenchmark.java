@@ -0,0 +1,53 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.service.IngredientDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete por prefixo e normalização de uma lista de geração (com sinônimo, plural e erro de
+ * digitação) no dicionário de ingredientes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngredientDictionaryBenchmark {
+
+    @Param({"fr", "pimentões", "macax"})
+    public String prefix;
+
+    private IngredientDictionary dictionary;
+    private List<String> ingredients;
+
+    @Setup
+    public void setUp() {
+        dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+        ingredients = List.of("Frango", "tomates", "aipim", "cebola", "frnago", "Limão", "tucupi");
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return dictionary.suggest(prefix, 10);
+    }
+
+    @Benchmark
+    public IngredientDictionary.Normalization normalize() {
+        return dictionary.normalize(ingredients);
+    }
+}
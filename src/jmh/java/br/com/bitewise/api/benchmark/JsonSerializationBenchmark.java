@@ -0,0 +1,77 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.NutritionFacts;
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.dto.SavedRecipeItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int savedRecipes;
+
+    // Mesmo builder usado pelo Spring Boot para os controllers (JavaTimeModule, datas ISO).
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private RecipeResponse recipe;
+    private List<SavedRecipeItem> items;
+
+    @Setup
+    public void setUp() {
+        recipe = new RecipeResponse();
+        recipe.setTitle("Frango ao Limão com Arroz de Tomate");
+        recipe.setPrepTime("40 minutos");
+        recipe.setServings(4);
+        recipe.setDifficulty("Fácil");
+        recipe.setIngredients(List.of("500 g de peito de frango", "2 xícaras de arroz", "3 tomates", "1 cebola",
+                "2 dentes de alho", "Suco de 2 limões", "2 colheres de sopa de azeite", "Sal a gosto"));
+        recipe.setSteps(List.of("Tempere o frango com limão, alho e sal.", "Doure o frango no azeite.",
+                "Refogue a cebola e o tomate.", "Junte o arroz e a água quente.", "Cozinhe por 15 minutos e sirva."));
+        recipe.setTips(List.of("Marine o frango por mais tempo.", "Use tomates bem maduros."));
+        NutritionFacts nutrition = new NutritionFacts();
+        nutrition.setCalories(520.0);
+        nutrition.setProteinGrams(38.0);
+        nutrition.setFatGrams(12.0);
+        nutrition.setCarbsGrams(62.0);
+        recipe.setNutrition(nutrition);
+
+        items = new ArrayList<>(savedRecipes);
+        Instant now = Instant.now();
+        for (int i = 0; i < savedRecipes; i++) {
+            items.add(new SavedRecipeItem((long) i, (long) i * 7, "Receita salva número " + i, i % 3 == 0 ? "Fácil" : "Média", now.minusSeconds(i * 60L)));
+        }
+    }
+
+    @Benchmark
+    public byte[] recipeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(recipe);
+    }
+
+    @Benchmark
+    public byte[] savedRecipeItems() throws Exception {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
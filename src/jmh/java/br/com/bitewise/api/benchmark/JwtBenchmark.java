@@ -0,0 +1,53 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private UserDetails user;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = AuthenticatedRequestFixture.newJwtUtil();
+        token = jwtUtil.generateToken(AuthenticatedRequestFixture.EMAIL);
+        user = new User(AuthenticatedRequestFixture.EMAIL, "irrelevante", Collections.emptyList());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(AuthenticatedRequestFixture.EMAIL);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, user);
+    }
+}
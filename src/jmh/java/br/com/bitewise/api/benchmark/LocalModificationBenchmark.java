@@ -0,0 +1,56 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.LocalModificationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalModificationBenchmark {
+
+    @Param({"para 8 porções", "converter para medidas imperiais", "troque o frango por tofu", "deixe vegana"})
+    public String instruction;
+
+    private LocalModificationEngine engine;
+    private RecipeResponse recipe;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        engine = new LocalModificationEngine(new IngredientDictionary(registry, false), registry);
+        recipe = new RecipeResponse();
+        recipe.setTitle("Frango ao Limão com Arroz de Tomate");
+        recipe.setServings(4);
+        recipe.setIngredients(List.of("500 g de peito de frango", "2 xícaras de arroz", "3 tomates", "1 cebola",
+                "2 dentes de alho", "Suco de 2 limões", "2 colheres de sopa de azeite", "500 ml de caldo de legumes",
+                "Sal a gosto"));
+        recipe.setSteps(List.of("Tempere o frango com limão, alho e sal.", "Doure o frango no azeite.",
+                "Refogue a cebola e o tomate.", "Junte o arroz e o caldo quente.", "Leve ao forno a 200 °C por 15 minutos."));
+        recipe.setTips(List.of("Marine o frango por mais tempo."));
+    }
+
+    @Benchmark
+    public Optional<RecipeResponse> apply() {
+        return engine.apply(recipe, instruction);
+    }
+}
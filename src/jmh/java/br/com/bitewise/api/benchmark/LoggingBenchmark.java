@@ -0,0 +1,113 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.config.LogSamplingTurboFilter;
+import br.com.bitewise.api.filter.JwtAuthFilter;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do caminho autenticado (JwtAuthFilter) com appender síncrono, assíncrono e
+ * assíncrono com amostragem. Com hotPathLevel=DEBUG o filtro volta a emitir uma linha
+ * por etapa, reproduzindo o volume de log anterior.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    @Param({"sync", "async", "async-sampled"})
+    public String pipeline;
+
+    @Param({"INFO", "DEBUG"})
+    public String hotPathLevel;
+
+    private AuthenticatedRequestFixture fixture;
+    private LoggerContext context;
+    private File logFile;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new AuthenticatedRequestFixture();
+        logFile = Files.createTempFile("bitewise-bench", ".log").toFile();
+
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName("FILE");
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (pipeline.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(20);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        if (pipeline.endsWith("sampled")) {
+            LogSamplingTurboFilter sampling = new LogSamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setLoggers(JwtAuthFilter.class.getName());
+            sampling.setMaxEventsPerSecond(50);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger(JwtAuthFilter.class).setLevel(Level.toLevel(hotPathLevel));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        logFile.delete();
+    }
+
+    @Benchmark
+    public int authenticatedPath() throws Exception {
+        return fixture.authenticatedRequest();
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.NutritionFacts;
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.service.NutritionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo nutricional local de uma receita de nove ingredientes, com o cache por hash
+ * (cacheSize=10000) e sem ele (cacheSize=0, toda chamada percorre a tabela).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NutritionBenchmark {
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private NutritionService nutritionService;
+    private RecipeResponse recipe;
+
+    @Setup
+    public void setUp() {
+        nutritionService = new NutritionService(new SimpleMeterRegistry(), NutritionService.SOURCE_LOCAL, cacheSize);
+        recipe = new RecipeResponse();
+        recipe.setServings(4);
+        recipe.setIngredients(List.of("500 g de peito de frango", "2 xícaras de arroz", "3 tomates", "1 cebola",
+                "2 dentes de alho", "Suco de 2 limões", "2 colheres de sopa de azeite", "500 ml de caldo de legumes",
+                "Sal a gosto"));
+    }
+
+    @Benchmark
+    public Optional<NutritionFacts> compute() {
+        return nutritionService.compute(recipe);
+    }
+}
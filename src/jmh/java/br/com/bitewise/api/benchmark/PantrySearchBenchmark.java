@@ -0,0 +1,87 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.PantryMatchItem;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository.IngredientRow;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.PantryIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Busca por despensa de um usuário com {@code recipes} receitas salvas de dez ingredientes sorteados
+ * do dicionário. O índice é montado no setup, como depois da primeira busca.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PantrySearchBenchmark {
+
+    private static final String EMAIL = "bench@bitewise.com";
+
+    private record Row(Long recipeId, String title, String ingredient) implements IngredientRow {
+        public Long getRecipeId() {
+            return recipeId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getIngredient() {
+            return ingredient;
+        }
+    }
+
+    @Param({"1000", "5000"})
+    public int recipes;
+
+    private PantryIndex pantryIndex;
+    private List<String> pantry;
+
+    @Setup
+    public void setUp() {
+        IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+        SplittableRandom random = new SplittableRandom(42);
+        List<IngredientRow> rows = new ArrayList<>();
+        for (long id = 1; id <= recipes; id++) {
+            for (int i = 0; i < 10; i++) {
+                String name = dictionary.name(random.nextInt(dictionary.size()));
+                rows.add(new Row(id, "Receita " + id, (1 + random.nextInt(500)) + " g de " + name));
+            }
+        }
+        SavedRecipeRepository repository = mock(SavedRecipeRepository.class);
+        when(repository.findIngredientRowsByEmail(EMAIL)).thenReturn(rows);
+
+        pantryIndex = new PantryIndex(dictionary, repository, new SimpleMeterRegistry(), 10, 60);
+        pantry = List.of("frango", "arroz", "tomate", "cebola", "alho", "ovos", "leite", "farinha de trigo",
+                "batata", "queijo", "cenoura", "manteiga");
+        pantryIndex.search(EMAIL, pantry, 20, true);
+    }
+
+    @Benchmark
+    public List<PantryMatchItem> search() {
+        return pantryIndex.search(EMAIL, pantry, 20, true);
+    }
+}
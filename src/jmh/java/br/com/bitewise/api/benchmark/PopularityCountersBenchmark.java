@@ -0,0 +1,59 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.PopularityCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Custo de salvar uma receita para os contadores de popularidade, com 8 threads salvando ao mesmo tempo.
+ * Metade dos salvamentos cai nas mesmas 10 receitas (as "populares"), que é onde um UPDATE síncrono
+ * disputaria a linha. O banco é um mock e nunca há flush: mede-se só o caminho de escrita.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PopularityCountersBenchmark {
+
+    private static final List<String> INGREDIENTS = List.of("500 g de peito de frango", "2 xícaras de arroz",
+            "2 tomates", "1 cebola", "Sal a gosto");
+
+    private PopularityCounters counters;
+
+    @Setup
+    public void setUp() {
+        counters = new PopularityCounters(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                new IngredientDictionary(new SimpleMeterRegistry(), false), new SimpleMeterRegistry(),
+                "America/Sao_Paulo", 2, 50);
+    }
+
+    @Benchmark
+    public void save() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String hash = random.nextBoolean() ? "popular-" + random.nextInt(10) : "receita-" + random.nextInt(100_000);
+        counters.onRecipeSaved(new RecipeSavedEvent("bench@bitewise.com", 1L, "Receita", "Fácil", INGREDIENTS, null, hash));
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.util.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        TokenBucketRateLimiter limiter;
+        String[] keys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Capacidade alta para medir o caminho de aceitação, que é o caso comum.
+            limiter = new TokenBucketRateLimiter(1_000_000_000_000_000L, 60_000_000_000L, 100_000);
+            keys = new String[10_000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "user" + i + "@bitewise.com";
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean contendedSingleKey(Limiter state) {
+        return state.limiter.tryAcquire("hot@bitewise.com", 1).allowed();
+    }
+
+    @Benchmark
+    public boolean distributedKeys(Limiter state) {
+        String key = state.keys[ThreadLocalRandom.current().nextInt(state.keys.length)];
+        return state.limiter.tryAcquire(key, 2).allowed();
+    }
+}
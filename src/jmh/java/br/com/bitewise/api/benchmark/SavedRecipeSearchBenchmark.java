@@ -0,0 +1,111 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.SavedRecipeSearchItem;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository.SearchTextRow;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.RecipeTextIndex;
+import br.com.bitewise.api.util.RecipeSearchText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Busca textual em memória ({@link RecipeTextIndex}) sobre {@code recipes} receitas salvas de um usuário,
+ * com dez ingredientes e seis passos sorteados do dicionário. O índice é montado no setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SavedRecipeSearchBenchmark {
+
+    private static final String EMAIL = "bench@bitewise.com";
+    private static final String[] DISHES = {"Risoto", "Torta", "Escondidinho", "Salada", "Ensopado", "Omelete",
+            "Macarrão", "Farofa", "Moqueca", "Sopa"};
+    private static final String[] VERBS = {"Refogue", "Cozinhe", "Asse", "Misture", "Pique", "Tempere", "Frite"};
+
+    private record Row(Long recipeId, String title, String difficulty, String searchText) implements SearchTextRow {
+        public Long getRecipeId() {
+            return recipeId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public String getSearchText() {
+            return searchText;
+        }
+    }
+
+    @Param({"10000", "100000"})
+    public int recipes;
+
+    private RecipeTextIndex index;
+
+    @Setup
+    public void setUp() {
+        IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+        SplittableRandom random = new SplittableRandom(42);
+        List<SearchTextRow> rows = new ArrayList<>(recipes);
+        for (long id = 1; id <= recipes; id++) {
+            String main = dictionary.name(random.nextInt(dictionary.size()));
+            String title = DISHES[random.nextInt(DISHES.length)] + " de " + main;
+            List<String> ingredients = new ArrayList<>();
+            ingredients.add("300 g de " + main);
+            List<String> steps = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                ingredients.add((1 + random.nextInt(500)) + " g de " + dictionary.name(random.nextInt(dictionary.size())));
+            }
+            for (int i = 0; i < 6; i++) {
+                steps.add(VERBS[random.nextInt(VERBS.length)] + " o " + dictionary.name(random.nextInt(dictionary.size()))
+                        + " por alguns minutos até dourar.");
+            }
+            rows.add(new Row(id, title, "Fácil", RecipeSearchText.document(title, ingredients, steps, List.of())));
+        }
+        SavedRecipeRepository repository = mock(SavedRecipeRepository.class);
+        when(repository.findSearchTextRowsByEmail(EMAIL)).thenReturn(rows);
+
+        index = new RecipeTextIndex(repository, new SimpleMeterRegistry(), 10, 60);
+        index.search(EMAIL, List.of("frango"), 0, 1);
+    }
+
+    @Benchmark
+    public List<SavedRecipeSearchItem> commonWord() {
+        return index.search(EMAIL, List.of("frango"), 0, 21);
+    }
+
+    @Benchmark
+    public List<SavedRecipeSearchItem> twoPrefixes() {
+        return index.search(EMAIL, List.of("frang", "tomat"), 0, 21);
+    }
+
+    @Benchmark
+    public List<SavedRecipeSearchItem> titleWordDeepPage() {
+        return index.search(EMAIL, List.of("moqueca"), 980, 21);
+    }
+}
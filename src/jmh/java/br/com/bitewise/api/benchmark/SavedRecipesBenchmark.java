@@ -0,0 +1,117 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.ApiApplication;
+import br.com.bitewise.api.controller.UserController;
+import br.com.bitewise.api.support.DatasetSeeder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/users/me/saved-recipes contra um H2 populado pelo {@link DatasetSeeder}. A transação
+ * somente leitura faz o papel do open-in-view. Ao final imprime quantos statements SQL cada
+ * chamada executou, o que expõe o N+1 da listagem.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SavedRecipesBenchmark {
+
+    @Param({"20000"})
+    public int users;
+
+    @Param({"100000"})
+    public int recipes;
+
+    @Param({"10"})
+    public double savedPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserController userController;
+    private TransactionTemplate readOnly;
+    private Statistics statistics;
+    private Authentication[] authentications;
+    private int next;
+    private long calls;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--jwt.secret=" + AuthenticatedRequestFixture.SECRET,
+                        "--jwt.expiration.time=3600000",
+                        "--google.api.key=bench",
+                        "--google.cloud.project-id=bench",
+                        "--google.cloud.location-id=bench",
+                        "--gemini.api.base-url=http://127.0.0.1:9",
+                        "--logging.level.root=WARN");
+
+        DatasetSeeder.Result seeded = new DatasetSeeder(context.getBean(DataSource.class))
+                .seed(DatasetSeeder.Spec.of(42, users, recipes, savedPerUser));
+
+        userController = context.getBean(UserController.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        SplittableRandom random = new SplittableRandom(7);
+        authentications = new Authentication[1024];
+        for (int i = 0; i < authentications.length; i++) {
+            String email = seeded.userEmail(random.nextInt(users));
+            authentications[i] = new UsernamePasswordAuthenticationToken(
+                    User.withUsername(email).password("").authorities(List.of()).build(), null, List.of());
+        }
+        statistics.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nstatements SQL por chamada: %.1f%n", (double) statistics.getPrepareStatementCount() / calls);
+        context.close();
+    }
+
+    @Benchmark
+    public int savedRecipes() {
+        SecurityContextHolder.getContext().setAuthentication(authentications[next++ & (authentications.length - 1)]);
+        calls++;
+        try {
+            return readOnly.execute(status -> userController.getSavedRecipes().getBody().size());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.bitewise.api.benchmark;
+
+import br.com.bitewise.api.dto.SimilarRecipeItem;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.RecipeSimilarityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Receitas parecidas no índice LSH com {@code recipes} receitas de um mesmo usuário. Cada receita sorteia
+ * seis ingredientes de um de 50 "temas" de doze e dois do dicionário inteiro, para haver grupos de
+ * receitas parecidas como no uso real. Os repositórios são mocks; mede-se a consulta ao índice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SimilarRecipesBenchmark {
+
+    private static final String EMAIL = "bench@bitewise.com";
+
+    @Param({"1000", "100000"})
+    public int recipes;
+
+    private RecipeSimilarityIndex index;
+    private long[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+        User user = new User("Bench", EMAIL, "x");
+        user.setId(1L);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        SavedRecipeRepository savedRecipeRepository = mock(SavedRecipeRepository.class);
+        when(savedRecipeRepository.isOwnedBy(anyLong(), eq(EMAIL))).thenReturn(true);
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.findAllById(any())).thenReturn(List.of());
+
+        index = new RecipeSimilarityIndex(dictionary, userRepository, recipeRepository, savedRecipeRepository,
+                new SimpleMeterRegistry(), 0.2, 1000);
+
+        SplittableRandom random = new SplittableRandom(42);
+        int[][] themes = new int[50][12];
+        for (int[] theme : themes) {
+            for (int i = 0; i < theme.length; i++) {
+                theme[i] = random.nextInt(dictionary.size());
+            }
+        }
+        for (long id = 1; id <= recipes; id++) {
+            int[] theme = themes[random.nextInt(themes.length)];
+            List<String> ingredients = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                ingredients.add("100 g de " + dictionary.name(theme[random.nextInt(theme.length)]));
+            }
+            for (int i = 0; i < 2; i++) {
+                ingredients.add("1 unidade de " + dictionary.name(random.nextInt(dictionary.size())));
+            }
+            index.onRecipeSaved(new RecipeSavedEvent(EMAIL, id, "Receita " + id, "Fácil", ingredients, null, null));
+        }
+        queries = random.longs(1024, 1, recipes + 1).toArray();
+    }
+
+    @Benchmark
+    public List<SimilarRecipeItem> similar() {
+        long recipeId = queries[next++ & (queries.length - 1)];
+        return index.similar(EMAIL, recipeId, 10).orElseThrow();
+    }
+}
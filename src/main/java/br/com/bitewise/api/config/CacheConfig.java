@@ -0,0 +1,28 @@
+package br.com.bitewise.api.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import java.io.IOException;
+
+@Configuration
+public class CacheConfig {
+
+    // CacheManager próprio do contexto (um provider por instância), criado a partir do ehcache.xml
+    // e entregue ao Hibernate. Resolver "classpath:" pelo próprio Hibernate não funciona dentro do jar do Boot.
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        return new EhcacheCachingProvider()
+                .getCacheManager(new ClassPathResource("ehcache.xml").getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.bitewise.api.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita quantos eventos INFO/DEBUG/TRACE por segundo cada logger configurado pode emitir.
+ * WARN e ERROR nunca são amostrados. A decisão acontece antes de o evento ser montado,
+ * então mensagens descartadas não pagam formatação nem enfileiramento no appender.
+ */
+public class LogSamplingTurboFilter extends TurboFilter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Map<String, AtomicLong> windows = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private String loggers = "";
+    private int maxEventsPerSecond = 50;
+
+    @Override
+    public void start() {
+        windows.clear();
+        for (String name : loggers.split(",")) {
+            if (!name.isBlank()) {
+                windows.put(name.trim(), new AtomicLong());
+            }
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null indica uma checagem isXxxEnabled(), que não deve consumir a cota.
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        AtomicLong window = windows.get(logger.getName());
+        if (window == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return tryAcquire(window, System.currentTimeMillis() / 1000) ? FilterReply.NEUTRAL : deny();
+    }
+
+    private boolean tryAcquire(AtomicLong window, long second) {
+        while (true) {
+            long state = window.get();
+            long count = (state >>> COUNT_BITS) == second ? state & COUNT_MASK : 0;
+            if (count >= maxEventsPerSecond) {
+                return false;
+            }
+            if (window.compareAndSet(state, (second << COUNT_BITS) | (count + 1))) {
+                return true;
+            }
+        }
+    }
+
+    private FilterReply deny() {
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = loggers == null ? "" : loggers;
+    }
+
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = (int) Math.min(Math.max(maxEventsPerSecond, 0), COUNT_MASK);
+    }
+}
@@ -0,0 +1,28 @@
+package br.com.bitewise.api.config;
+
+import br.com.bitewise.api.profiling.RepositoryProfilingInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+@Configuration
+public class ProfilingConfig {
+
+    // Adiciona o interceptor JFR em todo repositório Spring Data, sem precisar de AspectJ.
+    @Bean
+    public static BeanPostProcessor repositoryProfilingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, metadata) ->
+                                    proxyFactory.addAdvice(new RepositoryProfilingInterceptor(
+                                            metadata.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
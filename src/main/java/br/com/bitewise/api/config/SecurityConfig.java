@@ -1,9 +1,13 @@
 package br.com.bitewise.api.config;
 
 import br.com.bitewise.api.filter.JwtAuthFilter;
+import br.com.bitewise.api.filter.RateLimitFilter;
+import br.com.bitewise.api.profiling.ProfiledPasswordEncoder;
+import jakarta.servlet.DispatcherType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,6 +32,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -51,25 +61,30 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Segundo dispatch das respostas assíncronas (generate/modify): a requisição já foi autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // ✅ Rotas públicas
                         .requestMatchers("/health").permitAll()
                         .requestMatchers("/api/health").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         // ✅ Rotas que precisam de JWT
                         .requestMatchers("/api/recipes/**").authenticated()
                         .requestMatchers("/api/users/**").authenticated()
+                        .requestMatchers("/api/ingredients/**").authenticated()
                         // ✅ Tudo mais precisa autenticação
                         .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new ProfiledPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength));
     }
 
     @Bean
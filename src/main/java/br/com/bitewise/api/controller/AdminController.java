@@ -0,0 +1,58 @@
+package br.com.bitewise.api.controller;
+
+import br.com.bitewise.api.dto.MessageResponse;
+import br.com.bitewise.api.service.ProfilingService;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final ProfilingService profilingService;
+
+    public AdminController(ProfilingService profilingService) {
+        this.profilingService = profilingService;
+    }
+
+    @PostMapping("/profiling/jfr")
+    public ResponseEntity<?> recordJfr(@RequestParam(defaultValue = "30") long seconds,
+                                       @RequestParam(defaultValue = "profile") String settings) throws Exception {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+        if (!profilingService.isAdmin(email)) {
+            return ResponseEntity.status(403).body(new MessageResponse("Acesso restrito a administradores."));
+        }
+
+        Path recording;
+        try {
+            recording = profilingService.record(profilingService.clampDuration(seconds), settings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(new MessageResponse(e.getMessage()));
+        }
+
+        long size = Files.size(recording);
+        InputStreamResource body = new InputStreamResource(Files.newInputStream(recording, StandardOpenOption.DELETE_ON_CLOSE));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bitewise-" + Instant.now().getEpochSecond() + ".jfr\"")
+                .contentLength(size)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.bitewise.api.controller;
+
+import br.com.bitewise.api.dto.TrendingCombinationItem;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.TrendingCombinations;
+import br.com.bitewise.api.util.IngredientTrie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ingredients")
+public class IngredientController {
+
+    @Autowired
+    private IngredientDictionary ingredientDictionary;
+
+    @Autowired
+    private TrendingCombinations trendingCombinations;
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam(defaultValue = "") String prefix,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        int bounded = Math.max(1, Math.min(limit, IngredientTrie.MAX_SUGGESTIONS));
+        return ResponseEntity.ok(ingredientDictionary.suggest(prefix, bounded));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingCombinationItem>> trending(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingCombinations.popular(Math.max(1, Math.min(limit, 50))));
+    }
+}
@@ -1,30 +1,54 @@
 package br.com.bitewise.api.controller;
 
 import br.com.bitewise.api.dto.GenerateRecipeRequest;
+import br.com.bitewise.api.dto.GenerateVariationsRequest;
 import br.com.bitewise.api.dto.MessageResponse;
 import br.com.bitewise.api.dto.ModifyRecipeRequest;
+import br.com.bitewise.api.dto.RecipeDetailResponse;
 import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.dto.RecipeVariationsResponse;
 import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.dto.TrendingRecipesResponse;
 import br.com.bitewise.api.model.Recipe;
-import br.com.bitewise.api.model.SavedRecipe;
-import br.com.bitewise.api.model.User;
-import br.com.bitewise.api.repository.RecipeRepository;
-import br.com.bitewise.api.repository.SavedRecipeRepository;
-import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.service.GeminiCancelledException;
 import br.com.bitewise.api.service.GeminiService;
+import br.com.bitewise.api.service.GenerationReuseCache;
+import br.com.bitewise.api.service.IdempotencyStore;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.service.NutritionService;
+import br.com.bitewise.api.service.PopularityCounters;
+import br.com.bitewise.api.service.RecipeModificationService;
+import br.com.bitewise.api.service.RecipeSimilarityIndex;
+import br.com.bitewise.api.service.RequestDeadlines;
+import br.com.bitewise.api.service.SavedRecipeService;
+import br.com.bitewise.api.service.TrendingCombinations;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/recipes")
@@ -36,38 +60,108 @@ public class RecipeController {
     private GeminiService geminiService;
 
     @Autowired
-    private UserRepository userRepository;
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private RecipeModificationService recipeModificationService;
+
+    @Autowired
+    private NutritionService nutritionService;
+
+    @Autowired
+    private IngredientDictionary ingredientDictionary;
+
+    @Autowired
+    private RecipeSimilarityIndex recipeSimilarityIndex;
+
+    @Autowired
+    private GenerationReuseCache generationReuseCache;
+
+    @Autowired
+    private TrendingCombinations trendingCombinations;
+
+    @Autowired
+    private PopularityCounters popularityCounters;
 
     @Autowired
-    private RecipeRepository recipeRepository;
+    private IdempotencyStore idempotencyStore;
 
     @Autowired
-    private SavedRecipeRepository savedRecipeRepository;
+    private RequestDeadlines requestDeadlines;
+
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingRecipesResponse> getTrendingRecipes(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(popularityCounters.trending(Math.max(1, Math.min(limit, 50))));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRecipe(@PathVariable Long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        // Receitas de outros usuários respondem 404 para não revelar que o ID existe.
+        return savedRecipeService.findOwnedRecipe(email, id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(new MessageResponse("Receita não encontrada.")));
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarRecipes(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        return recipeSimilarityIndex.similar(email, id, Math.max(1, Math.min(limit, 50)))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(new MessageResponse("Receita não encontrada.")));
+    }
 
     @PostMapping("/generate")
-    public ResponseEntity<?> generateRecipe(@Valid @RequestBody GenerateRecipeRequest request) {
+    public WebAsyncTask<ResponseEntity<?>> generateRecipe(@Valid @RequestBody GenerateRecipeRequest request,
+                                                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                          HttpServletRequest httpRequest) {
+        // Verificar autenticação
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            logger.warn("❌ [RecipeController] Usuário não autenticado!");
+            return new WebAsyncTask<>(() -> ResponseEntity.status(401).body(new MessageResponse("Não autenticado")));
+        }
+
+        String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
+        // Retries com a mesma chave recebem a resposta da primeira execução, sem nova chamada à IA
+        return requestDeadlines.submit(httpRequest, idempotencyKey == null, () -> idempotencyStore.execute(
+                userEmail, "generate", idempotencyKey, request, () -> generate(userEmail, request)));
+    }
+
+    private ResponseEntity<?> generate(String userEmail, GenerateRecipeRequest request) {
         try {
-            logger.info("🚀 [RecipeController] GET /api/recipes/generate");
+            logger.debug("[RecipeController] POST /api/recipes/generate - usuário: {}, ingredientes: {}", userEmail, request.getIngredients());
             
-            // Verificar autenticação
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                logger.warn("❌ [RecipeController] Usuário não autenticado!");
-                return ResponseEntity.status(401).body(new MessageResponse("Não autenticado"));
+            // Sinônimos e plurais viram o nome do dicionário antes de chegar à IA
+            IngredientDictionary.Normalization ingredients = ingredientDictionary.normalize(request.getIngredients());
+            ResponseEntity<?> invalid = invalidIngredients(ingredients);
+            if (invalid != null) {
+                return invalid;
             }
-            
-            String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
-            logger.info("👤 [RecipeController] Usuário autenticado: {}", userEmail);
-            logger.info("📝 [RecipeController] Ingredientes recebidos: {}", request.getIngredients());
-            
+
+            trendingCombinations.record(ingredients.ingredients());
+
+            // Ingredientes quase iguais a um pedido recente reaproveitam a receita já gerada
+            Optional<RecipeResponse> reused = generationReuseCache.find(ingredients.ingredients());
+            if (reused.isPresent()) {
+                logger.info("[RecipeController] Receita reaproveitada para {}: {}", userEmail, reused.get().getTitle());
+                return ResponseEntity.ok(reused.get());
+            }
+
             // Chamada ao serviço Gemini
-            logger.info("🔄 [RecipeController] Chamando GeminiService.generateRecipe()...");
-            RecipeResponse recipe = geminiService.generateRecipe(request.getIngredients());
+            RecipeResponse recipe = nutritionService.apply(geminiService.generateRecipe(ingredients.ingredients(), userEmail));
+            generationReuseCache.put(ingredients.ingredients(), recipe);
             
-            logger.info("✅ [RecipeController] Receita gerada com sucesso!");
-            logger.info("📋 [RecipeController] Título: {}", recipe.getTitle());
+            logger.info("[RecipeController] Receita gerada para {}: {}", userEmail, recipe.getTitle());
             
             return ResponseEntity.ok(recipe);
+        } catch (GeminiCancelledException e) {
+            logger.info("[RecipeController] Geração para {} cancelada: {}", userEmail, e.getReason());
+            return RequestDeadlines.timeoutResponse();
         } catch (HttpClientErrorException e) {
             logger.error("❌ [RecipeController] Erro HTTP Gemini: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             return ResponseEntity.status(500).body(new MessageResponse("Erro ao chamar IA: " + e.getStatusCode()));
@@ -77,42 +171,102 @@ public class RecipeController {
         }
     }
 
-    @PostMapping("/save")
-    public ResponseEntity<MessageResponse> saveRecipe(@Valid @RequestBody SaveRecipeRequest request) {
+    @PostMapping("/generate/variations")
+    public WebAsyncTask<ResponseEntity<?>> generateVariations(@Valid @RequestBody GenerateVariationsRequest request,
+                                                              @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                              HttpServletRequest httpRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+        String userEmail = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+        return requestDeadlines.submit(httpRequest, idempotencyKey == null, () -> idempotencyStore.execute(
+                userEmail, "variations", idempotencyKey, request, () -> variations(userEmail, request)));
+    }
 
-        Recipe newRecipe = new Recipe();
-        newRecipe.setTitle(request.getTitle());
-        newRecipe.setPrepTime(request.getPrepTime());
-        newRecipe.setServings(request.getServings());
-        newRecipe.setDifficulty(request.getDifficulty());
-        newRecipe.setIngredients(request.getIngredients());
-        newRecipe.setSteps(request.getSteps());
-        newRecipe.setTips(request.getTips());
+    private ResponseEntity<?> variations(String userEmail, GenerateVariationsRequest request) {
+        try {
+            IngredientDictionary.Normalization ingredients = ingredientDictionary.normalize(request.getIngredients());
+            ResponseEntity<?> invalid = invalidIngredients(ingredients);
+            if (invalid != null) {
+                return invalid;
+            }
+            trendingCombinations.record(ingredients.ingredients());
 
-        Recipe savedRecipe = recipeRepository.save(newRecipe);
+            List<RecipeResponse> variations = geminiService.generateVariations(ingredients.ingredients(),
+                            Objects.requireNonNullElse(request.getCount(), 3), userEmail)
+                    .stream()
+                    .map(nutritionService::apply)
+                    .toList();
+            logger.info("[RecipeController] {} variações geradas para {}", variations.size(), userEmail);
+            return ResponseEntity.ok(new RecipeVariationsResponse(variations));
+        } catch (GeminiCancelledException e) {
+            logger.info("[RecipeController] Variações para {} canceladas: {}", userEmail, e.getReason());
+            return RequestDeadlines.timeoutResponse();
+        } catch (Exception e) {
+            logger.error("❌ [RecipeController] Erro ao gerar variações: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(new MessageResponse("Erro: " + e.getMessage()));
+        }
+    }
 
-        SavedRecipe savedLink = new SavedRecipe();
-        savedLink.setUser(user);
-        savedLink.setRecipe(savedRecipe);
+    private static ResponseEntity<?> invalidIngredients(IngredientDictionary.Normalization ingredients) {
+        if (!ingredients.rejected().isEmpty()) {
+            String rejected = ingredients.rejected().stream()
+                    .map(input -> ingredients.suggestions().containsKey(input)
+                            ? input + " (você quis dizer \"" + ingredients.suggestions().get(input) + "\"?)"
+                            : input)
+                    .collect(Collectors.joining(", "));
+            return ResponseEntity.badRequest().body(new MessageResponse("Ingredientes não reconhecidos: " + rejected));
+        }
+        if (ingredients.ingredients().size() < 3) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "É necessário fornecer pelo menos 3 ingredientes diferentes."));
+        }
+        return null;
+    }
 
-        savedRecipeRepository.save(savedLink);
+    @PostMapping("/save")
+    public ResponseEntity<?> saveRecipe(@Valid @RequestBody SaveRecipeRequest request,
+                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        return ResponseEntity.ok(new MessageResponse("Receita '" + savedRecipe.getTitle() + "' salva com sucesso!"));
+        // Sem a chave, um retry depois de timeout gravaria a mesma receita duas vezes
+        return idempotencyStore.execute(email, "save", idempotencyKey, request, () -> {
+            Recipe savedRecipe = savedRecipeService.save(email, request);
+            return ResponseEntity.ok(new MessageResponse("Receita '" + savedRecipe.getTitle() + "' salva com sucesso!"));
+        });
     }
 
     @PostMapping("/modify")
-    public ResponseEntity<?> modifyRecipe(@Valid @RequestBody ModifyRecipeRequest request) {
+    public WebAsyncTask<ResponseEntity<?>> modifyRecipe(@Valid @RequestBody ModifyRecipeRequest request,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                                        HttpServletRequest httpRequest) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
+
+        return requestDeadlines.submit(httpRequest, idempotencyKey == null, () -> idempotencyStore.execute(
+                email, "modify", idempotencyKey, request, () -> modify(email, request)));
+    }
+
+    private ResponseEntity<?> modify(String email, ModifyRecipeRequest request) {
         try {
-            RecipeResponse modifiedRecipe = geminiService.modifyRecipe(request.getOriginalRecipeJson(), request.getModificationInstruction());
+            RecipeResponse modifiedRecipe = recipeModificationService.modify(email, request);
             return ResponseEntity.ok(modifiedRecipe);
+        } catch (GeminiCancelledException e) {
+            return RequestDeadlines.timeoutResponse();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(404).body(new MessageResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Erro ao modificar a receita: {}", e.getMessage());
             throw new RuntimeException("Falha ao modificar a receita com a IA.", e);
         }
     }
+
+    // Pool de geração e fila cheios: o WebAsyncTask é recusado antes de começar
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<?> handleSaturated(TaskRejectedException e) {
+        logger.warn("[RecipeController] Requisição recusada, pool de geração cheio");
+        return requestDeadlines.saturatedResponse();
+    }
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package br.com.bitewise.api.controller;
 
 import br.com.bitewise.api.dto.MessageResponse;
+import br.com.bitewise.api.dto.PantryMatchItem;
 import br.com.bitewise.api.dto.SavedRecipeItem;
+import br.com.bitewise.api.dto.SavedRecipeSearchResponse;
 import br.com.bitewise.api.dto.UpdateProfileRequest;
 import br.com.bitewise.api.dto.UserProfileResponse;
 import br.com.bitewise.api.model.SavedRecipe;
 import br.com.bitewise.api.model.User;
 import br.com.bitewise.api.repository.SavedRecipeRepository;
 import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.service.PantryIndex;
+import br.com.bitewise.api.service.SavedRecipeSearchService;
+import br.com.bitewise.api.service.SavedRecipeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +25,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -35,6 +41,15 @@ public class UserController {
     @Autowired
     private SavedRecipeRepository savedRecipeRepository;
 
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private PantryIndex pantryIndex;
+
+    @Autowired
+    private SavedRecipeSearchService savedRecipeSearchService;
+
     @GetMapping("/me")
     public ResponseEntity<UserProfileResponse> getUserProfile() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -95,22 +110,41 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
-    @DeleteMapping("/me/saved-recipes/{id}")
-    public ResponseEntity<MessageResponse> deleteSavedRecipe(@PathVariable Long id) {
+    @GetMapping("/me/saved-recipes/pantry")
+    public ResponseEntity<?> searchPantry(@RequestParam List<String> ingredients,
+                                          @RequestParam(defaultValue = "20") int limit,
+                                          @RequestParam(defaultValue = "true") boolean assumeStaples) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado no banco."));
+        if (ingredients.stream().allMatch(String::isBlank)) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Informe ao menos um ingrediente."));
+        }
+        List<PantryMatchItem> matches = pantryIndex.search(email, ingredients, Math.max(1, Math.min(limit, 100)), assumeStaples);
+        return ResponseEntity.ok(matches);
+    }
 
-        SavedRecipe savedRecipe = savedRecipeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Receita salva não encontrada com ID: " + id));
+    @GetMapping("/me/saved-recipes/search")
+    public ResponseEntity<?> searchSavedRecipes(@RequestParam("q") String query,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        if (!savedRecipe.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Acesso negado. Esta receita não pertence ao usuário logado.");
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Informe o termo da busca."));
         }
+        SavedRecipeSearchResponse response = savedRecipeSearchService.search(email, query, Math.max(0, page),
+                Math.max(1, Math.min(size, 50)));
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/me/saved-recipes/{id}")
+    public ResponseEntity<MessageResponse> deleteSavedRecipe(@PathVariable Long id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = ((UserDetails) authentication.getPrincipal()).getUsername();
 
-        savedRecipeRepository.delete(savedRecipe);
+        savedRecipeService.delete(email, id);
 
         return ResponseEntity.ok(new MessageResponse("Receita salva removida com sucesso."));
     }
@@ -0,0 +1,21 @@
+package br.com.bitewise.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GenerateVariationsRequest {
+
+    @NotEmpty(message = "A lista de ingredientes não pode ser vazia.")
+    @Size(min = 3, message = "É necessário fornecer pelo menos 3 ingredientes.")
+    private List<String> ingredients;
+
+    @Min(value = 2, message = "Peça pelo menos 2 variações.")
+    @Max(value = 4, message = "Peça no máximo 4 variações.")
+    private Integer count = 3;
+}
@@ -5,6 +5,11 @@ import lombok.Data;
 
 @Data
 public class ModifyRecipeRequest {
+    // Informe um dos três: id de uma receita salva, o contentHash dela ou o JSON completo
+    private Long recipeId;
+
+    private String recipeHash;
+
     private String originalRecipeJson;
 
     @NotBlank(message = "A instrução de modificação é obrigatória.")
@@ -8,4 +8,6 @@ public class NutritionFacts {
     private Double proteinGrams;
     private Double fatGrams;
     private Double carbsGrams;
+    /** Fração (0 a 1) das linhas com quantidade reconhecidas no cálculo local; {@code null} quando veio da IA. */
+    private Double coverage;
 }
\ No newline at end of file
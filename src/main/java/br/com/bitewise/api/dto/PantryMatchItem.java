@@ -0,0 +1,24 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PantryMatchItem {
+    private Long recipeId;
+    private String title;
+    private double coverage;
+    private int matched;
+    private int total;
+    private List<String> missing;
+
+    public PantryMatchItem(Long recipeId, String title, double coverage, int matched, int total, List<String> missing) {
+        this.recipeId = recipeId;
+        this.title = title;
+        this.coverage = coverage;
+        this.matched = matched;
+        this.total = total;
+        this.missing = missing;
+    }
+}
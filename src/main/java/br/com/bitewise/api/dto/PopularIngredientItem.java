@@ -0,0 +1,16 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+@Data
+public class PopularIngredientItem {
+    private String name;
+    private long saves;
+    private long recentSaves;
+
+    public PopularIngredientItem(String name, long saves, long recentSaves) {
+        this.name = name;
+        this.saves = saves;
+        this.recentSaves = recentSaves;
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+@Data
+public class PopularRecipeItem {
+    private String contentHash;
+    private String title;
+    private long saves;
+    private long recentSaves;
+
+    public PopularRecipeItem(String contentHash, String title, long saves, long recentSaves) {
+        this.contentHash = contentHash;
+        this.title = title;
+        this.saves = saves;
+        this.recentSaves = recentSaves;
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class RecipeDetailResponse {
+    private Long id;
+    private String title;
+    private String prepTime;
+    private Integer servings;
+    private String difficulty;
+    private List<String> ingredients;
+    private List<String> steps;
+    private List<String> tips;
+    private String contentHash;
+}
@@ -13,4 +13,6 @@ public class RecipeResponse {
     private List<String> steps;
     private List<String> tips;
     private NutritionFacts nutrition;
+    // true quando a receita veio de uma geração anterior com ingredientes quase iguais
+    private boolean reused;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class RecipeVariationsResponse {
+    private List<RecipeResponse> variations;
+
+    public RecipeVariationsResponse(List<RecipeResponse> variations) {
+        this.variations = variations;
+    }
+}
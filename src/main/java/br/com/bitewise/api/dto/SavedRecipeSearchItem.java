@@ -0,0 +1,18 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+@Data
+public class SavedRecipeSearchItem {
+    private Long recipeId;
+    private String title;
+    private String difficulty;
+    private double score;
+
+    public SavedRecipeSearchItem(Long recipeId, String title, String difficulty, double score) {
+        this.recipeId = recipeId;
+        this.title = title;
+        this.difficulty = difficulty;
+        this.score = score;
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SavedRecipeSearchResponse {
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private List<SavedRecipeSearchItem> items;
+
+    public SavedRecipeSearchResponse(int page, int size, boolean hasNext, List<SavedRecipeSearchItem> items) {
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.items = items;
+    }
+}
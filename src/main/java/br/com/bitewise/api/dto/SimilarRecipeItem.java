@@ -0,0 +1,18 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+
+@Data
+public class SimilarRecipeItem {
+    private Long recipeId;
+    private String title;
+    private String difficulty;
+    private double similarity;
+
+    public SimilarRecipeItem(Long recipeId, String title, String difficulty, double similarity) {
+        this.recipeId = recipeId;
+        this.title = title;
+        this.difficulty = difficulty;
+        this.similarity = similarity;
+    }
+}
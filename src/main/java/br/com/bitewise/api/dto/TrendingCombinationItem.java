@@ -0,0 +1,15 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class TrendingCombinationItem {
+    private List<String> ingredients;
+    private long count;
+
+    public TrendingCombinationItem(List<String> ingredients, long count) {
+        this.ingredients = ingredients;
+        this.count = count;
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.bitewise.api.dto;
+
+import lombok.Data;
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class TrendingRecipesResponse {
+    private List<PopularRecipeItem> trending;
+    private List<PopularRecipeItem> mostSaved;
+    private List<PopularIngredientItem> ingredients;
+    private Instant updatedAt;
+
+    public TrendingRecipesResponse(List<PopularRecipeItem> trending, List<PopularRecipeItem> mostSaved,
+                                   List<PopularIngredientItem> ingredients, Instant updatedAt) {
+        this.trending = trending;
+        this.mostSaved = mostSaved;
+        this.ingredients = ingredients;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.bitewise.api.event;
+
+import java.util.List;
+
+/** Publicado depois do commit quando um usuário salva uma receita. */
+public record RecipeSavedEvent(String email, Long recipeId, String title, String difficulty, List<String> ingredients,
+                               String searchText, String contentHash) {
+}
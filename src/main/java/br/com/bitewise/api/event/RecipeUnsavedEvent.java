@@ -0,0 +1,7 @@
+package br.com.bitewise.api.event;
+
+import java.util.List;
+
+/** Publicado depois do commit quando um usuário remove uma receita salva. */
+public record RecipeUnsavedEvent(String email, Long recipeId, String contentHash, List<String> ingredients) {
+}
@@ -36,10 +36,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         // Skip JWT filter for health check and auth routes (public routes)
         String requestURI = request.getRequestURI();
-        logger.info("JwtAuthFilter - Processing request: {}", requestURI);
-        
-        if (requestURI.contains("/health") || requestURI.startsWith("/api/auth/")) {
-            logger.info("JwtAuthFilter - Skipping JWT check for permitAll route: {}", requestURI);
+        logger.debug("JwtAuthFilter - Processing request: {}", requestURI);
+
+        if (requestURI.contains("/health") || requestURI.startsWith("/api/auth/") || requestURI.startsWith("/actuator/")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -51,32 +50,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 token = authHeader.substring(7);
-                logger.info("🔑 [JwtAuthFilter] Token encontrado: {}...", token.substring(0, Math.min(20, token.length())));
                 username = jwtUtil.extractUsername(token);
-                logger.info("👤 [JwtAuthFilter] Username extraído: {}", username);
+                logger.debug("[JwtAuthFilter] Username extraído: {}", username);
             } else {
-                logger.warn("⚠️ [JwtAuthFilter] Sem header Authorization ou não começa com 'Bearer '");
+                logger.debug("[JwtAuthFilter] Sem header Authorization Bearer em {}", requestURI);
             }
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                logger.info("🔍 [JwtAuthFilter] Carregando UserDetails para: {}", username);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
                 if (jwtUtil.isTokenValid(token, userDetails)) {
-                    logger.info("✅ [JwtAuthFilter] Token válido! Autenticando usuário: {}", username);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("🔓 [JwtAuthFilter] Autenticação definida com sucesso");
+                    logger.debug("[JwtAuthFilter] Usuário autenticado: {}", username);
                 } else {
-                    logger.warn("❌ [JwtAuthFilter] Token inválido para usuário: {}", username);
+                    logger.warn("[JwtAuthFilter] Token inválido para usuário: {}", username);
                 }
-            } else if (username == null) {
-                logger.warn("⚠️ [JwtAuthFilter] Username é null, pulando autenticação");
             }
         } catch (Exception e) {
-            logger.error("❌ [JwtAuthFilter] Erro ao processar JWT: {}", e.getMessage(), e);
+            logger.warn("[JwtAuthFilter] Erro ao processar JWT: {}", e.getMessage());
+            logger.debug("[JwtAuthFilter] Detalhes do erro de JWT", e);
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,110 @@
+package br.com.bitewise.api.filter;
+
+import br.com.bitewise.api.service.RateLimitService;
+import br.com.bitewise.api.util.TokenBucketRateLimiter.Decision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final RateLimitService rateLimitService;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ratelimit.cost.generate:2}")
+    private int generateCost;
+
+    @Value("${ratelimit.cost.modify:1}")
+    private int modifyCost;
+
+    @Value("${ratelimit.cost.variations:4}")
+    private int variationsCost;
+
+    @Value("${ratelimit.client-ip-header:}")
+    private String clientIpHeader;
+
+    public RateLimitFilter(RateLimitService rateLimitService) {
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || costOf(request) == 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Decision decision = rateLimitService.tryAcquire(currentUsername(), clientIp(request), costOf(request));
+
+        response.setHeader(LIMIT_HEADER, Long.toString(decision.limit()));
+        response.setHeader(REMAINING_HEADER, Long.toString(decision.remaining()));
+        response.setHeader(RESET_HEADER, Long.toString(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            logger.warn("Limite de requisições excedido para {} em {}", currentUsername(), request.getRequestURI());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1L, decision.retryAfterSeconds())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"message\":\"Muitas requisições. Tente novamente em alguns segundos.\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private int costOf(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return 0;
+        }
+        return switch (request.getRequestURI()) {
+            case "/api/recipes/generate" -> generateCost;
+            case "/api/recipes/modify" -> modifyCost;
+            case "/api/recipes/generate/variations" -> variationsCost;
+            default -> 0;
+        };
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (clientIpHeader != null && !clientIpHeader.isBlank()) {
+            String forwarded = request.getHeader(clientIpHeader);
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.bitewise.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "generated_recipes",
+        uniqueConstraints = @UniqueConstraint(name = "uk_generated_recipes_prompt_model", columnNames = {"prompt_hash", "model"}),
+        indexes = @Index(name = "idx_generated_recipes_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+public class GeneratedRecipe {
+
+    public static final int MAX_PAYLOAD_BYTES = 65536;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 do corpo enviado à Gemini (prompt e generationConfig)
+    @Column(name = "prompt_hash", length = 64, nullable = false)
+    private String promptHash;
+
+    @Column(length = 64, nullable = false)
+    private String model;
+
+    // RecipeResponse em JSON comprimido com gzip
+    @Column(length = MAX_PAYLOAD_BYTES, nullable = false)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    @Column(name = "candidates_tokens")
+    private Integer candidatesTokens;
+
+    @Column(name = "total_tokens")
+    private Integer totalTokens;
+}
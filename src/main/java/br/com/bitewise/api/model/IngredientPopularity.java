@@ -0,0 +1,37 @@
+package br.com.bitewise.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Quantas receitas salvas usam o ingrediente, pelo nome do dicionário. Mesmas colunas de RecipePopularity. */
+@Entity
+@Table(name = "ingredient_popularity")
+@Data
+@NoArgsConstructor
+public class IngredientPopularity {
+
+    @Id
+    @Column(length = 128)
+    private String ingredient;
+
+    @Column(name = "save_count", nullable = false)
+    private long saveCount;
+
+    @Column(name = "recent_count", nullable = false)
+    private long recentCount;
+
+    @Column(name = "previous_count", nullable = false)
+    private long previousCount;
+
+    @Column(name = "recent_day", nullable = false)
+    private LocalDate recentDay;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
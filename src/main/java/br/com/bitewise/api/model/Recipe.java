@@ -1,17 +1,27 @@
 package br.com.bitewise.api.model;
 
+import br.com.bitewise.api.util.MinHash;
+import br.com.bitewise.api.util.RecipeHash;
+import br.com.bitewise.api.util.RecipeSearchText;
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.util.List;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "recipes")
+@Table(name = "recipes", indexes = @Index(name = "idx_recipes_content_hash", columnList = "content_hash"))
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Data
 @NoArgsConstructor
 public class Recipe {
@@ -26,11 +36,33 @@ public class Recipe {
     private String difficulty;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     private List<String> ingredients;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     private List<String> steps;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     private List<String> tips;
+
+    // Hash dos ingredientes (RecipeHash), usado para modificar receitas por referência
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Título e conteúdo normalizados (RecipeSearchText), usados na busca das receitas salvas
+    @Column(name = "search_text", length = RecipeSearchText.MAX_LENGTH)
+    private String searchText;
+
+    // Assinatura MinHash do conjunto de ingredientes (RecipeSimilarityIndex); vazia quando não há nenhum
+    @Column(name = "minhash", length = MinHash.SIZE * Integer.BYTES)
+    private byte[] minhash;
+
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        contentHash = RecipeHash.of(ingredients);
+        searchText = RecipeSearchText.document(title, ingredients, steps, tips);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package br.com.bitewise.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantas vezes uma receita foi salva, somando todos os usuários. Cada salvamento cria uma Recipe própria,
+ * então a receita é identificada pelo hash dos ingredientes (RecipeHash). Gravada em lote pelo
+ * PopularityCounters com SQL direto; a entidade só descreve a tabela.
+ */
+@Entity
+@Table(name = "recipe_popularity")
+@Data
+@NoArgsConstructor
+public class RecipePopularity {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private String title;
+
+    @Column(name = "save_count", nullable = false)
+    private long saveCount;
+
+    // Salvamentos em recent_day e no dia anterior a ele, para o "em alta"
+    @Column(name = "recent_count", nullable = false)
+    private long recentCount;
+
+    @Column(name = "previous_count", nullable = false)
+    private long previousCount;
+
+    @Column(name = "recent_day", nullable = false)
+    private LocalDate recentDay;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,30 @@
+package br.com.bitewise.api.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("br.com.bitewise.GeminiRequest")
+@Label("Gemini Request")
+@Category({"BiteWise", "Upstream"})
+public class GeminiRequestEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Prompt Size")
+    @DataAmount
+    public long promptBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,20 @@
+package br.com.bitewise.api.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("br.com.bitewise.JwtVerification")
+@Label("JWT Verification")
+@Category({"BiteWise", "Security"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Token Length")
+    public int tokenLength;
+}
@@ -0,0 +1,18 @@
+package br.com.bitewise.api.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("br.com.bitewise.PasswordCheck")
+@Label("Password Check")
+@Category({"BiteWise", "Security"})
+public class PasswordCheckEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,47 @@
+package br.com.bitewise.api.profiling;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Decora o PasswordEncoder emitindo um evento JFR por encode/matches (BCrypt domina o login).
+ */
+public class ProfiledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public ProfiledPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordCheckEvent event = new PasswordCheckEvent();
+        event.begin();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            event.operation = "encode";
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordCheckEvent event = new PasswordCheckEvent();
+        event.begin();
+        boolean matched = false;
+        try {
+            matched = delegate.matches(rawPassword, encodedPassword);
+            return matched;
+        } finally {
+            event.operation = "matches";
+            event.matched = matched;
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
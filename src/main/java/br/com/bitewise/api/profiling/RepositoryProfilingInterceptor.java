@@ -0,0 +1,33 @@
+package br.com.bitewise.api.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+public class RepositoryProfilingInterceptor implements MethodInterceptor {
+
+    private final String repository;
+
+    public RepositoryProfilingInterceptor(String repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.repository = repository;
+            event.method = invocation.getMethod().getName();
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.bitewise.api.repository;
+
+import br.com.bitewise.api.model.GeneratedRecipe;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface GeneratedRecipeRepository extends JpaRepository<GeneratedRecipe, Long> {
+
+    Optional<GeneratedRecipe> findByPromptHashAndModel(String promptHash, String model);
+
+    // Remove em lote as gerações vencidas
+    @Modifying
+    @Transactional
+    @Query("delete from GeneratedRecipe g where g.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,7 +1,15 @@
 package br.com.bitewise.api.repository;
 
 import br.com.bitewise.api.model.Recipe;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-} 
\ No newline at end of file
+
+    // Receitas gravadas antes da coluna search_text existir
+    List<Recipe> findBySearchTextIsNull(Pageable pageable);
+
+    // Receitas gravadas antes da coluna minhash existir
+    List<Recipe> findByMinhashIsNull(Pageable pageable);
+}
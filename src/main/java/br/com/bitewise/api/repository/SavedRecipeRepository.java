@@ -1,10 +1,18 @@
 package br.com.bitewise.api.repository;
 
+import br.com.bitewise.api.model.Recipe;
 import br.com.bitewise.api.model.SavedRecipe;
 import br.com.bitewise.api.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface SavedRecipeRepository extends JpaRepository<SavedRecipe, Long> {
 
@@ -13,4 +21,80 @@ public interface SavedRecipeRepository extends JpaRepository<SavedRecipe, Long>
 
     // Verifica se uma receita específica já foi salva por um usuário
     Optional<SavedRecipe> findByUserAndRecipeId(User user, Long recipeId);
+
+    // Verifica se o usuário (pelo email) salvou a receita; resultado fica no query cache
+    @Query("select count(s) > 0 from SavedRecipe s where s.user.email = :email and s.recipe.id = :recipeId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean isOwnedBy(@Param("recipeId") Long recipeId, @Param("email") String email);
+
+    long countByRecipeId(Long recipeId);
+
+    // Receitas salvas pelo usuário com o hash de ingredientes informado
+    @Query("select s.recipe from SavedRecipe s where s.user.email = :email and s.recipe.contentHash = :hash")
+    List<Recipe> findOwnedByContentHash(@Param("hash") String hash, @Param("email") String email);
+
+    // Uma linha por ingrediente de cada receita salva pelo usuário, para montar o índice de despensa
+    @Query("select r.id as recipeId, r.title as title, i as ingredient "
+            + "from SavedRecipe s join s.recipe r left join r.ingredients i where s.user.email = :email")
+    List<IngredientRow> findIngredientRowsByEmail(@Param("email") String email);
+
+    // Texto de busca de cada receita salva pelo usuário, para montar o índice de busca em memória
+    @Query("select r.id as recipeId, r.title as title, r.difficulty as difficulty, r.searchText as searchText "
+            + "from SavedRecipe s join s.recipe r where s.user.email = :email")
+    List<SearchTextRow> findSearchTextRowsByEmail(@Param("email") String email);
+
+    // Busca textual no PostgreSQL sobre a coluna gerada search_vector (índice GIN), maior ts_rank primeiro
+    @Query(value = "select r.id as recipeId, r.title as title, r.difficulty as difficulty, "
+            + "cast(ts_rank(r.search_vector, query) as double precision) as score "
+            + "from saved_recipes s join users u on u.id = s.user_id join recipes r on r.id = s.recipe_id, "
+            + "to_tsquery('portuguese', :query) query "
+            + "where u.email = :email and r.search_vector @@ query "
+            + "order by score desc, r.id desc limit :limit offset :offset", nativeQuery = true)
+    List<SearchHit> searchPostgres(@Param("email") String email, @Param("query") String query,
+                                   @Param("limit") int limit, @Param("offset") int offset);
+
+    // Dono e assinatura MinHash das receitas salvas, em páginas por id, para montar o índice de similares
+    @Query("select r.id as recipeId, s.user.id as userId, r.minhash as minhash from SavedRecipe s join s.recipe r "
+            + "where r.id > :after and r.minhash is not null order by r.id")
+    List<SignatureRow> findSignatureRowsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select r.id as recipeId, s.user.id as userId, r.minhash as minhash from SavedRecipe s join s.recipe r "
+            + "where r.id in :recipeIds")
+    List<SignatureRow> findSignatureRowsByRecipeIds(@Param("recipeIds") Collection<Long> recipeIds);
+
+    interface IngredientRow {
+        Long getRecipeId();
+
+        String getTitle();
+
+        String getIngredient();
+    }
+
+    interface SearchTextRow {
+        Long getRecipeId();
+
+        String getTitle();
+
+        String getDifficulty();
+
+        String getSearchText();
+    }
+
+    interface SignatureRow {
+        Long getRecipeId();
+
+        Long getUserId();
+
+        byte[] getMinhash();
+    }
+
+    interface SearchHit {
+        Long getRecipeId();
+
+        String getTitle();
+
+        String getDifficulty();
+
+        Double getScore();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package br.com.bitewise.api.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percebe quando o cliente fecha a conexão de uma requisição assíncrona que ainda não respondeu. A Servlet API
+ * não avisa desconexões enquanto nada é escrito na resposta, então cada requisição observada ganha um
+ * {@link ReadListener} (o que faz o Tomcat ler o socket sem bloquear) e é consultada a cada
+ * {@code request.disconnect.poll-ms}: com o corpo já lido, {@code available() > 0} só acontece quando o socket
+ * chegou ao fim. Clientes que enviam o próximo pedido na mesma conexão antes da resposta (pipelining HTTP/1.1)
+ * também disparam o aviso; apps e navegadores atuais não fazem isso.
+ */
+@Component
+public class ClientDisconnectWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientDisconnectWatcher.class);
+
+    /** Observação ativa; {@link #close} precisa rodar antes de a requisição terminar. */
+    public final class Watch implements AutoCloseable {
+
+        private final ServletInputStream input;
+        private final Runnable onDisconnect;
+        private boolean closed;
+
+        private Watch(ServletInputStream input, Runnable onDisconnect) {
+            this.input = input;
+            this.onDisconnect = onDisconnect;
+        }
+
+        // Sincronizado com close(): depois que close() volta, o request (reciclado pelo Tomcat) não é mais tocado
+        private synchronized boolean poll() {
+            if (closed) {
+                return false;
+            }
+            boolean disconnected;
+            try {
+                disconnected = input.isFinished() && input.available() > 0;
+            } catch (IOException | IllegalStateException e) {
+                disconnected = true;
+            }
+            if (disconnected) {
+                closed = true;
+            }
+            return disconnected;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            watches.remove(this);
+        }
+    }
+
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "client-disconnect-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClientDisconnectWatcher(@Value("${request.disconnect.poll-ms:250}") long pollMillis) {
+        poller.scheduleWithFixedDelay(this::pollAll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Passa a observar a requisição, que precisa estar em modo assíncrono e com o corpo já lido. Sem isso
+     * devolve uma observação inerte.
+     */
+    public Watch watch(HttpServletRequest request, Runnable onDisconnect) {
+        ServletInputStream input;
+        try {
+            input = request.getInputStream();
+            if (!request.isAsyncStarted() || !input.isFinished()) {
+                return new Watch(input, onDisconnect);
+            }
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() {
+                }
+
+                @Override
+                public void onAllDataRead() {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Requisição não pode ser observada: {}", e.getMessage());
+            return new Watch(null, onDisconnect);
+        }
+        Watch watch = new Watch(input, onDisconnect);
+        watches.add(watch);
+        return watch;
+    }
+
+    int watching() {
+        return watches.size();
+    }
+
+    private void pollAll() {
+        for (Watch watch : watches) {
+            if (watch.poll()) {
+                watches.remove(watch);
+                try {
+                    watch.onDisconnect.run();
+                } catch (RuntimeException e) {
+                    logger.warn("Falha ao tratar desconexão do cliente: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.bitewise.api.service;
+
+/**
+ * Chamada à Gemini abortada antes da resposta, pelo prazo da requisição ou porque o cliente desconectou.
+ */
+public class GeminiCancelledException extends RuntimeException {
+
+    private final String reason;
+
+    public GeminiCancelledException(String reason) {
+        super(RequestDeadline.REASON_DEADLINE.equals(reason)
+                ? "Prazo da requisição esgotado antes da resposta da IA."
+                : "Chamada à IA cancelada: cliente desconectado.");
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
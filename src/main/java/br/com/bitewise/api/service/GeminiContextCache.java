@@ -0,0 +1,157 @@
+package br.com.bitewise.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarda a instrução de sistema de cada endpoint num {@code cachedContents} da Gemini, por modelo, para que as
+ * chamadas mandem só a parte variável do prompt. Instruções abaixo de {@code gemini.context-cache.min-tokens}
+ * (estimados em 4 caracteres por token) não são guardadas, porque a Gemini recusa caches pequenos; nesse caso, e
+ * quando a criação falha, a instrução segue no corpo de cada chamada e a próxima tentativa espera
+ * {@code retry-minutes}.
+ */
+@Component
+public class GeminiContextCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiContextCache.class);
+    private static final Duration CREATE_TIMEOUT = Duration.ofSeconds(10);
+    // Renova antes de a Gemini expirar o cache, para uma chamada não pegar o nome já vencido
+    private static final Duration RENEW_MARGIN = Duration.ofMinutes(1);
+
+    private record Entry(String name, long expiresAtNanos) {
+        boolean expired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+
+    private final GeminiMetrics geminiMetrics;
+    private final String baseUrl;
+    private final String apiKey;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int minTokens;
+    private final Duration retryAfter;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(CREATE_TIMEOUT)
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // modelo:endpoint -> cache criado, ou entrada sem nome enquanto não vale tentar de novo
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Um lock por chave: a criação de um cache (HTTP) não segura as chamadas de outros modelos e endpoints
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GeminiContextCache(GeminiMetrics geminiMetrics,
+                              @Value("${gemini.api.base-url:}") String baseUrl,
+                              @Value("${google.api.key:}") String apiKey,
+                              @Value("${gemini.context-cache.enabled:true}") boolean enabled,
+                              @Value("${gemini.context-cache.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${gemini.context-cache.min-tokens:1024}") int minTokens,
+                              @Value("${gemini.context-cache.retry-minutes:30}") long retryMinutes) {
+        this.geminiMetrics = geminiMetrics;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey == null ? "" : apiKey.replaceAll("[\\[\\]\\(\\)\\s]", "").trim();
+        this.enabled = enabled && baseUrl != null && baseUrl.endsWith("/models");
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.minTokens = minTokens;
+        this.retryAfter = Duration.ofMinutes(retryMinutes);
+        if (enabled && !this.enabled) {
+            logger.warn("Cache de contexto da Gemini desligado: gemini.api.base-url não termina em /models ({})", baseUrl);
+        }
+    }
+
+    /** Nome do {@code cachedContents} com {@code instruction} para o modelo, criando-o se preciso. */
+    public Optional<String> cachedContent(String model, String endpoint, String instruction) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = model + ":" + endpoint;
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expired()) {
+            // Só quem pede a mesma chave espera a criação; as chamadas com cache válido nem passam por aqui
+            synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+                entry = entries.get(key);
+                if (entry == null || entry.expired()) {
+                    entry = create(model, endpoint, instruction);
+                    entries.put(key, entry);
+                }
+            }
+        }
+        return Optional.ofNullable(entry.name());
+    }
+
+    /** O cache sumiu do lado da Gemini (expirado ou apagado): a próxima chamada cria outro. */
+    public void invalidate(String model, String endpoint) {
+        if (entries.remove(model + ":" + endpoint) != null) {
+            geminiMetrics.recordContextCache(model, GeminiMetrics.CONTEXT_CACHE_INVALIDATED);
+        }
+    }
+
+    private Entry create(String model, String endpoint, String instruction) {
+        if (instruction.length() / 4 < minTokens) {
+            logger.debug("Instrução de {} pequena demais para cache de contexto ({} caracteres)", endpoint, instruction.length());
+            return retryLater();
+        }
+        try {
+            URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl.substring(0, baseUrl.length() - "/models".length()) + "/cachedContents")
+                    .queryParam("key", apiKey)
+                    .build()
+                    .toUri();
+            Map<String, Object> body = Map.of(
+                    "model", "models/" + model,
+                    "systemInstruction", Map.of("parts", List.of(Map.of("text", instruction))),
+                    "ttl", ttl.toSeconds() + "s");
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .timeout(CREATE_TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                logger.warn("Gemini recusou o cache de contexto de {} ({}): {}", endpoint, response.statusCode(), response.body());
+                geminiMetrics.recordContextCache(model, GeminiMetrics.CONTEXT_CACHE_FAILED);
+                return retryLater();
+            }
+            JsonNode created = objectMapper.readTree(response.body());
+            String name = created.path("name").asText(null);
+            if (name == null) {
+                logger.warn("Resposta de cachedContents sem 'name': {}", response.body());
+                geminiMetrics.recordContextCache(model, GeminiMetrics.CONTEXT_CACHE_FAILED);
+                return retryLater();
+            }
+            logger.info("Cache de contexto {} criado para {} ({}, {} tokens)", name, endpoint, model,
+                    created.path("usageMetadata").path("totalTokenCount").asInt());
+            geminiMetrics.recordContextCache(model, GeminiMetrics.CONTEXT_CACHE_CREATED);
+            return new Entry(name, System.nanoTime() + ttl.minus(RENEW_MARGIN).toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return retryLater();
+        } catch (Exception e) {
+            logger.warn("Falha ao criar cache de contexto de {}: {}", endpoint, e.getMessage());
+            geminiMetrics.recordContextCache(model, GeminiMetrics.CONTEXT_CACHE_FAILED);
+            return retryLater();
+        }
+    }
+
+    private Entry retryLater() {
+        return new Entry(null, System.nanoTime() + retryAfter.toNanos());
+    }
+}
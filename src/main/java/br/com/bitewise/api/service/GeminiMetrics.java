@@ -0,0 +1,143 @@
+package br.com.bitewise.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class GeminiMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_BLOCKED = "blocked";
+    public static final String OUTCOME_EMPTY = "empty";
+    public static final String OUTCOME_HTTP_ERROR = "http_error";
+    public static final String OUTCOME_PARSE_ERROR = "parse_error";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_CANCELLED = "cancelled";
+    public static final String OUTCOME_TRUNCATED = "truncated";
+
+    public static final String VARIATIONS_CANDIDATES = "candidates";
+    public static final String VARIATIONS_PARALLEL = "parallel";
+
+    public static final String CONTEXT_CACHE_HIT = "hit";
+    public static final String CONTEXT_CACHE_INLINE = "inline";
+    public static final String CONTEXT_CACHE_CREATED = "created";
+    public static final String CONTEXT_CACHE_FAILED = "failed";
+    public static final String CONTEXT_CACHE_INVALIDATED = "invalidated";
+
+    private final MeterRegistry meterRegistry;
+
+    public GeminiMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordCall(String model, String endpoint, String outcome, long durationNanos) {
+        Timer.builder("gemini.request")
+                .description("Latência das chamadas generateContent")
+                .tag("model", model)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRoute(String model, String endpoint, String tier, String reason) {
+        Counter.builder("gemini.routing")
+                .description("Chamadas à Gemini por nível de modelo e regra que o escolheu")
+                .tag("model", model)
+                .tag("endpoint", endpoint)
+                .tag("tier", tier)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /** Variações entregues, por forma de geração: {@code candidateCount} numa chamada ou chamadas em paralelo. */
+    public void recordVariations(String model, String mode, int recipes) {
+        Counter.builder("gemini.variations")
+                .description("Receitas entregues pelo endpoint de variações")
+                .tag("model", model)
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .increment(recipes);
+    }
+
+    /** Uso do cache de contexto: chamadas com a instrução em cache ou no corpo, e criações e perdas de cache. */
+    public void recordContextCache(String model, String result) {
+        Counter.builder("gemini.context.cache")
+                .description("Chamadas e eventos do cache de contexto da Gemini")
+                .tag("model", model)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordCancelled(String model, String reason) {
+        Counter.builder("gemini.cancelled")
+                .description("Chamadas abortadas pelo prazo da requisição ou por desconexão do cliente")
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordPromptBytes(String model, int bytes) {
+        summary("gemini.prompt.size", model).record(bytes);
+    }
+
+    public void recordResponseBytes(String model, int bytes) {
+        summary("gemini.response.size", model).record(bytes);
+    }
+
+    public void recordUsage(String model, String endpoint, JsonNode usageMetadata) {
+        if (usageMetadata == null || !usageMetadata.isObject()) {
+            return;
+        }
+        recordTokens(model, endpoint, "prompt", usageMetadata.path("promptTokenCount"));
+        recordTokens(model, endpoint, "candidates", usageMetadata.path("candidatesTokenCount"));
+        recordTokens(model, endpoint, "thoughts", usageMetadata.path("thoughtsTokenCount"));
+        recordTokens(model, endpoint, "cached", usageMetadata.path("cachedContentTokenCount"));
+        recordTokens(model, endpoint, "total", usageMetadata.path("totalTokenCount"));
+    }
+
+    /** {@code finishReason} de cada candidato da resposta: {@code MAX_TOKENS} indica que o limite de saída o cortou. */
+    public void recordFinishReason(String model, String endpoint, String reason) {
+        Counter.builder("gemini.finish")
+                .description("Motivo de término das respostas da Gemini")
+                .tag("model", model)
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordTokens(String model, String endpoint, String type, JsonNode count) {
+        if (!count.isNumber()) {
+            return;
+        }
+        // Com histograma, os quantis de tokens podem ser comparados aos de latência ao ajustar os limites
+        DistributionSummary.builder("gemini.tokens")
+                .description("Tokens reportados em usageMetadata")
+                .baseUnit("tokens")
+                .tag("model", model)
+                .tag("endpoint", endpoint)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count.asLong());
+    }
+
+    private DistributionSummary summary(String name, String model) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.bitewise.api.service;
+
+/**
+ * Falha ao interpretar a resposta da Gemini, com o outcome usado nas métricas.
+ */
+public class GeminiResponseException extends RuntimeException {
+
+    private final String outcome;
+
+    public GeminiResponseException(String outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+}
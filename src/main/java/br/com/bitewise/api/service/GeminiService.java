@@ -1,27 +1,51 @@
 package br.com.bitewise.api.service;
 
 import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.profiling.GeminiRequestEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +53,31 @@ public class GeminiService {
 
     private static final Logger logger = LoggerFactory.getLogger(GeminiService.class);
 
+    private static final int MAX_LOGGED_RESPONSE_CHARS = 2000;
+
+    // Parte fixa dos prompts, enviada como systemInstruction (e guardada no cache de contexto quando possível)
+    private static final String GENERATE_INSTRUCTION =
+            "Gere uma receita completa. É OBRIGATÓRIO preencher TODOS os campos. Use APENAS os ingredientes principais informados. Use temperos e ingredientes básicos comuns se necessário.";
+    private static final String MODIFY_INSTRUCTION =
+            "Você é um Chef IA especializado em modificação de receitas. Sua tarefa é criar uma NOVA receita JSON que atenda à instrução de modificação. Mantenha a estrutura JSON IDÊNTICA. É OBRIGATÓRIO preencher TODOS os campos%s.";
+
+    private static final Map<String, Object> NUTRITION_SCHEMA = Map.of(
+            "type", "object",
+            "properties", Map.of(
+                    "calories", Map.of("type", "number"),
+                    "proteinGrams", Map.of("type", "number"),
+                    "fatGrams", Map.of("type", "number"),
+                    "carbsGrams", Map.of("type", "number")
+            )
+    );
+
+    private static final Map<String, Object> RECIPE_PROPERTIES = Map.of(
+            "title", Map.of("type", "string"),
+            "prepTime", Map.of("type", "string"),
+            "servings", Map.of("type", "integer"),
+            "difficulty", Map.of("type", "string")
+    );
+
     @Value("${google.api.key:}")
     private String apiKey;
 
@@ -41,8 +90,56 @@ public class GeminiService {
     @Value("${gemini.api.base-url:}")
     private String baseUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${nutrition.source:local}")
+    private String nutritionSource;
+
+    @Value("${gemini.variations.candidate-count:true}")
+    private boolean candidateCountEnabled = true;
+
+    @Value("${gemini.variations.single-candidate-retry-minutes:60}")
+    private long singleCandidateRetryMinutes = 60;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeminiMetrics geminiMetrics;
+    private final GeneratedRecipeStore generatedRecipeStore;
+
+    private final GenerationBudgets generationBudgets;
+    private final ModelRouter modelRouter;
+    private final GeminiContextCache contextCache;
+    // responseSchema por endpoint; depende de nutrition.source, então é montado no primeiro uso
+    private final Map<String, Map<String, Object>> responseSchemas = new ConcurrentHashMap<>();
+    // Modelo que recusou candidateCount -> até quando (nanoTime) as variações dele saem de chamadas em paralelo
+    private final Map<String, Long> singleCandidateModels = new ConcurrentHashMap<>();
+    // Chamadas extras das variações; cheio, a requisição leva menos variações em vez de esperar vaga
+    private final ThreadPoolTaskExecutor variationExecutor = new ThreadPoolTaskExecutor();
+
+    private record Generation(List<RecipeResponse> recipes, JsonNode usageMetadata) {
+        RecipeResponse recipe() {
+            return recipes.get(0);
+        }
+    }
+
+    public GeminiService(GeminiMetrics geminiMetrics, GeneratedRecipeStore generatedRecipeStore,
+                         GenerationBudgets generationBudgets, ModelRouter modelRouter,
+                         GeminiContextCache contextCache,
+                         @Value("${gemini.variations.max-concurrency:64}") int variationConcurrency,
+                         @Value("${gemini.variations.queue-capacity:64}") int variationQueueCapacity) {
+        this.geminiMetrics = geminiMetrics;
+        this.generatedRecipeStore = generatedRecipeStore;
+        this.generationBudgets = generationBudgets;
+        this.modelRouter = modelRouter;
+        this.contextCache = contextCache;
+        variationExecutor.setThreadNamePrefix("variation-");
+        variationExecutor.setCorePoolSize(variationConcurrency);
+        variationExecutor.setMaxPoolSize(variationConcurrency);
+        variationExecutor.setQueueCapacity(variationQueueCapacity);
+        variationExecutor.setAllowCoreThreadTimeOut(true);
+        variationExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        variationExecutor.initialize();
+    }
 
     @PostConstruct
     public void init() {
@@ -61,13 +158,25 @@ public class GeminiService {
         logger.debug("Comprimento da API key injetada: {}", apiKey == null ? 0 : apiKey.length());
     }
 
-    private RecipeResponse executeGeminiRequest(String prompt) {
+    @PreDestroy
+    public void shutdown() {
+        variationExecutor.shutdown();
+    }
+
+    private RecipeResponse executeGeminiRequest(String prompt, GenerationBudgets.Budget budget, ModelRouter.Route route) {
+        return execute(prompt, buildRequestBody(prompt, budget), budget.endpoint(), route).recipe();
+    }
+
+    private Generation execute(String prompt, Map<String, Object> requestBody, String endpoint, ModelRouter.Route route) {
+        ModelRouter.Tier tier = route.tier();
+        String model = tier.model();
+        geminiMetrics.recordRoute(model, endpoint, tier.name(), route.reason());
         String cleanKey = apiKey == null ? "" : apiKey.replaceAll("[\\[\\]\\(\\)\\s]", "").trim();
 
         URI uri;
         try {
             // Build the complete Gemini API endpoint with model and method
-            String fullUrl = baseUrl + "/gemini-2.5-pro:generateContent";
+            String fullUrl = baseUrl + "/" + model + ":generateContent";
             uri = UriComponentsBuilder
                     .fromHttpUrl(fullUrl)
                     .queryParam("key", cleanKey)
@@ -78,9 +187,185 @@ public class GeminiService {
             throw new RuntimeException("Erro ao construir URI da API Gemini", e);
         }
 
+        String maskedUri = logger.isDebugEnabled() ? uri.toString().replaceAll("key=[^&]+", "key=***") : null;
+        logger.debug("Chamando Gemini: {} (key length={})", maskedUri, cleanKey.length());
+
+        // Com o cache de contexto a instrução de sistema sai do corpo; a chave do generated_recipes segue o corpo completo
+        String instruction = systemInstruction(endpoint);
+        String cachedContent = contextCache.cachedContent(model, endpoint, instruction).orElse(null);
+        Map<String, Object> wireBody = requestBody;
+        if (cachedContent != null) {
+            wireBody = new HashMap<>(requestBody);
+            wireBody.remove("systemInstruction");
+            wireBody.put("cachedContent", cachedContent);
+        }
+        geminiMetrics.recordContextCache(model, cachedContent != null
+                ? GeminiMetrics.CONTEXT_CACHE_HIT : GeminiMetrics.CONTEXT_CACHE_INLINE);
+        int promptBytes = prompt.getBytes(StandardCharsets.UTF_8).length
+                + (cachedContent != null ? 0 : instruction.getBytes(StandardCharsets.UTF_8).length);
+        geminiMetrics.recordPromptBytes(model, promptBytes);
+
+        GeminiRequestEvent event = new GeminiRequestEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = GeminiMetrics.OUTCOME_ERROR;
+        int httpStatus = 0;
+        int responseBytes = 0;
+        RequestDeadline deadline = RequestDeadline.current().orElse(null);
+        try {
+            HttpResponse<String> response = send(uri, wireBody, tier.timeoutMillis(), deadline);
+            if (cachedContent != null && staleContextCache(response)) {
+                logger.warn("Cache de contexto {} não encontrado pela Gemini ({}); repetindo com a instrução no corpo",
+                        cachedContent, response.statusCode());
+                contextCache.invalidate(model, endpoint);
+                response = send(uri, requestBody, tier.timeoutMillis(), deadline);
+            }
+            httpStatus = response.statusCode();
+            String responseBody = response.body();
+            if (httpStatus >= 400) {
+                throw httpError(response);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Resposta crua da Gemini API ({} chars): {}", responseBody == null ? 0 : responseBody.length(), abbreviate(responseBody));
+            }
+
+            if (responseBody == null || responseBody.trim().isEmpty()) {
+                outcome = GeminiMetrics.OUTCOME_EMPTY;
+                logger.error("Gemini API retornou resposta vazia.");
+                throw new RuntimeException("Falha ao gerar receita: IA retornou resposta vazia.");
+            }
+            responseBytes = responseBody.getBytes(StandardCharsets.UTF_8).length;
+            geminiMetrics.recordResponseBytes(model, responseBytes);
+
+            JsonNode rootNode = objectMapper.readTree(responseBody);
+            JsonNode usageMetadata = rootNode.path("usageMetadata");
+            geminiMetrics.recordUsage(model, endpoint, usageMetadata);
+            for (JsonNode candidate : rootNode.path("candidates")) {
+                if (candidate.path("finishReason").isTextual()) {
+                    geminiMetrics.recordFinishReason(model, endpoint, candidate.path("finishReason").asText());
+                }
+            }
+
+            List<RecipeResponse> recipes = parseRecipes(rootNode);
+            outcome = GeminiMetrics.OUTCOME_SUCCESS;
+            return new Generation(recipes, usageMetadata);
+
+        } catch (GeminiCancelledException e) {
+            outcome = GeminiMetrics.OUTCOME_CANCELLED;
+            geminiMetrics.recordCancelled(model, e.getReason());
+            logger.info("Chamada à Gemini abortada ({}) após {} ms", e.getReason(), (System.nanoTime() - start) / 1_000_000);
+            throw e;
+        } catch (HttpClientErrorException e) {
+            outcome = GeminiMetrics.OUTCOME_HTTP_ERROR;
+            httpStatus = e.getStatusCode().value();
+            logger.error("Erro HTTP ao chamar a Gemini API: Status={}, Resposta={}", e.getStatusCode(), e.getResponseBodyAsString());
+            throw new RuntimeException("Falha ao comunicar com a IA: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
+        } catch (JsonProcessingException e) {
+            outcome = GeminiMetrics.OUTCOME_PARSE_ERROR;
+            logger.error("Erro ao processar JSON da Gemini API: {}", e.getMessage(), e);
+            throw new RuntimeException("Falha ao processar resposta da IA.", e);
+        } catch (Exception e) {
+            if (e instanceof GeminiResponseException responseException) {
+                outcome = responseException.getOutcome();
+            } else if (e instanceof RestClientResponseException responseException) {
+                outcome = GeminiMetrics.OUTCOME_HTTP_ERROR;
+                httpStatus = responseException.getStatusCode().value();
+            }
+            logger.error("Erro inesperado ao gerar receita: {}", e.getMessage(), e);
+            throw new RuntimeException("Falha ao gerar receita com a IA.", e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            geminiMetrics.recordCall(model, endpoint, outcome, elapsed);
+            modelRouter.record(tier, outcome, elapsed);
+            event.model = model;
+            event.promptBytes = promptBytes;
+            event.responseBytes = responseBytes;
+            event.httpStatus = httpStatus;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    /**
+     * Envia o corpo e espera a resposta até o menor entre o timeout do nível do modelo e o prazo da requisição.
+     * Vencido o prazo, ou cancelado o {@link RequestDeadline}, a chamada é abortada e a conexão fechada.
+     */
+    private HttpResponse<String> send(URI uri, Map<String, Object> requestBody, long timeoutMillis,
+                                      RequestDeadline deadline) throws IOException {
+        Duration timeout = Duration.ofMillis(timeoutMillis);
+        if (deadline != null) {
+            if (deadline.cancelReason() != null) {
+                throw new GeminiCancelledException(deadline.cancelReason());
+            }
+            timeout = deadline.remaining().compareTo(timeout) < 0 ? deadline.remaining() : timeout;
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(requestBody)))
+                .build();
+        CompletableFuture<HttpResponse<String>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        if (deadline != null) {
+            deadline.attach(call);
+        }
+        try {
+            return call.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            if (deadline != null) {
+                deadline.cancel(RequestDeadline.REASON_DEADLINE);
+                throw new GeminiCancelledException(RequestDeadline.REASON_DEADLINE);
+            }
+            throw new ResourceAccessException("Gemini não respondeu em " + timeoutMillis + " ms");
+        } catch (CancellationException e) {
+            throw new GeminiCancelledException(deadline == null || deadline.cancelReason() == null
+                    ? RequestDeadline.REASON_DISCONNECT : deadline.cancelReason());
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GeminiCancelledException(RequestDeadline.REASON_DISCONNECT);
+        } catch (ExecutionException e) {
+            // O cancelamento às vezes chega como falha da troca ("Request cancelled") em vez de CancellationException
+            if (deadline != null && deadline.cancelReason() != null) {
+                throw new GeminiCancelledException(deadline.cancelReason());
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new ResourceAccessException("Falha na chamada à Gemini: " + e.getCause().getMessage());
+        } finally {
+            if (deadline != null) {
+                deadline.detach(call);
+            }
+        }
+    }
+
+    // Só erros que citam o cachedContent: um 403 de chave inválida ou um 404 de modelo não são cache vencido
+    private static boolean staleContextCache(HttpResponse<String> response) {
+        int status = response.statusCode();
+        return (status == 400 || status == 403 || status == 404)
+                && response.body() != null && response.body().toLowerCase(Locale.ROOT).contains("cachedcontent");
+    }
+
+    // Mesmas exceções que o RestTemplate lançava, para o tratamento e as métricas não mudarem
+    private static RestClientResponseException httpError(HttpResponse<String> response) {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        response.headers().map().forEach(headers::addAll);
+        byte[] body = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, "", headers, body, StandardCharsets.UTF_8);
+        }
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(status, "", headers, body, StandardCharsets.UTF_8);
+        }
+        return new UnknownHttpStatusCodeException(response.statusCode(), "", headers, body, StandardCharsets.UTF_8);
+    }
+
+    public Map<String, Object> buildRequestBody(String prompt, GenerationBudgets.Budget budget) {
+        return buildRequestBody(prompt, budget, 1);
+    }
 
+    public Map<String, Object> buildRequestBody(String prompt, GenerationBudgets.Budget budget, int candidateCount) {
         Map<String, Object> textPart = new HashMap<>();
         textPart.put("text", prompt);
 
@@ -88,128 +373,281 @@ public class GeminiService {
         content.put("parts", Collections.singletonList(textPart));
 
         Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("systemInstruction", Map.of("parts", List.of(Map.of("text", systemInstruction(budget.endpoint())))));
         requestBody.put("contents", Collections.singletonList(content));
 
         Map<String, Object> generationConfig = new HashMap<>();
         generationConfig.put("responseMimeType", "application/json");
         generationConfig.put("temperature", 0.7);
-
-        Map<String, Object> nutritionSchema = Map.of(
-                "type", "object",
-                "properties", Map.of(
-                        "calories", Map.of("type", "number"),
-                        "proteinGrams", Map.of("type", "number"),
-                        "fatGrams", Map.of("type", "number"),
-                        "carbsGrams", Map.of("type", "number")
-                )
-        );
-
-        Map<String, Object> responseSchema = new HashMap<>();
-        responseSchema.put("type", "OBJECT");
-        responseSchema.put("properties", Map.of(
-                "title", Map.of("type", "string"),
-                "prepTime", Map.of("type", "string"),
-                "servings", Map.of("type", "integer"),
-                "difficulty", Map.of("type", "string"),
-                "ingredients", Map.of("type", "array", "items", Map.of("type", "string")),
-                "steps", Map.of("type", "array", "items", Map.of("type", "string")),
-                "tips", Map.of("type", "array", "items", Map.of("type", "string")),
-                "nutrition", nutritionSchema
-        ));
-        generationConfig.put("responseSchema", responseSchema);
+        generationConfig.put("responseSchema", responseSchemas.computeIfAbsent(budget.endpoint(), endpoint -> responseSchema(budget)));
+        if (budget.maxOutputTokens() > 0) {
+            generationConfig.put("maxOutputTokens", budget.maxOutputTokens());
+        }
+        if (budget.thinkingBudget() != null) {
+            generationConfig.put("thinkingConfig", Map.of("thinkingBudget", budget.thinkingBudget()));
+        }
+        if (candidateCount > 1) {
+            generationConfig.put("candidateCount", candidateCount);
+        }
 
         requestBody.put("generationConfig", generationConfig);
+        return requestBody;
+    }
 
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+    public RecipeResponse parseRecipe(JsonNode rootNode) throws JsonProcessingException {
+        return parseRecipes(rootNode).get(0);
+    }
 
-        String maskedUri = uri.toString().replaceAll("key=[^&]+", "key=***");
-        logger.info("Chamando Gemini: {} (key length={})", maskedUri, cleanKey.length());
+    /**
+     * Receitas de todos os candidatos. Candidatos cortados, vazios ou com JSON inválido são descartados; se
+     * nenhum sobrar, vale o erro do primeiro.
+     */
+    public List<RecipeResponse> parseRecipes(JsonNode rootNode) throws JsonProcessingException {
+        JsonNode candidates = rootNode.path("candidates");
+        if (!candidates.isArray() || candidates.isEmpty()) {
+
+            JsonNode promptFeedback = rootNode.path("promptFeedback");
+            if (promptFeedback.path("blockReason").isTextual()) {
+                logger.error("Prompt bloqueado pela política de segurança. Motivo: {}", promptFeedback.path("blockReason").asText());
+                throw new GeminiResponseException(GeminiMetrics.OUTCOME_BLOCKED, "Falha ao gerar receita: O prompt foi bloqueado pela política de segurança da IA.");
+            }
 
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(uri, entity, String.class);
-            String responseBody = response.getBody();
-            logger.debug("Resposta crua da Gemini API: {}", responseBody);
+            logger.error("Resposta da Gemini API não contém 'candidates': {}", rootNode);
+            throw new GeminiResponseException(GeminiMetrics.OUTCOME_EMPTY, "Falha ao gerar receita: resposta inesperada da IA.");
+        }
 
-            if (responseBody == null || responseBody.trim().isEmpty()) {
-                logger.error("Gemini API retornou resposta vazia.");
-                throw new RuntimeException("Falha ao gerar receita: IA retornou resposta vazia.");
+        List<RecipeResponse> recipes = new ArrayList<>(candidates.size());
+        Exception firstError = null;
+        for (JsonNode candidate : candidates) {
+            try {
+                recipes.add(parseCandidate(rootNode, candidate));
+            } catch (GeminiResponseException | JsonProcessingException e) {
+                firstError = firstError == null ? e : firstError;
             }
+        }
+        if (recipes.isEmpty()) {
+            if (firstError instanceof JsonProcessingException jsonError) {
+                throw jsonError;
+            }
+            throw (GeminiResponseException) firstError;
+        }
+        if (recipes.size() < candidates.size()) {
+            logger.warn("{} de {} candidatos da Gemini descartados: {}", candidates.size() - recipes.size(),
+                    candidates.size(), firstError.getMessage());
+        }
+        return recipes;
+    }
 
-            JsonNode rootNode = objectMapper.readTree(responseBody);
-            JsonNode candidates = rootNode.path("candidates");
-            if (!candidates.isArray() || candidates.isEmpty()) {
+    private RecipeResponse parseCandidate(JsonNode rootNode, JsonNode candidate) throws JsonProcessingException {
+        // Com o limite de maxOutputTokens (pensamento incluso) a resposta pode vir sem parts ou com JSON pela metade
+        if ("MAX_TOKENS".equals(candidate.path("finishReason").asText())) {
+            logger.error("Resposta da Gemini cortada por maxOutputTokens: {}", rootNode.path("usageMetadata"));
+            throw new GeminiResponseException(GeminiMetrics.OUTCOME_TRUNCATED, "Falha ao gerar receita: resposta da IA excedeu o limite de tokens.");
+        }
 
-                JsonNode promptFeedback = rootNode.path("promptFeedback");
-                if (promptFeedback.path("blockReason").isTextual()) {
-                    logger.error("Prompt bloqueado pela política de segurança. Motivo: {}", promptFeedback.path("blockReason").asText());
-                    throw new RuntimeException("Falha ao gerar receita: O prompt foi bloqueado pela política de segurança da IA.");
-                }
+        JsonNode contentNode = candidate.path("content");
+        JsonNode parts = contentNode.path("parts");
+        if (!parts.isArray() || parts.isEmpty()) {
+            logger.error("Resposta da Gemini API não contém 'parts' dentro de 'content': {}", rootNode);
+            throw new GeminiResponseException(GeminiMetrics.OUTCOME_PARSE_ERROR, "Falha ao gerar receita: estrutura de resposta inesperada.");
+        }
+        String jsonRecipeText = parts.get(0).path("text").asText();
 
-                logger.error("Resposta da Gemini API não contém 'candidates': {}", responseBody);
-                throw new RuntimeException("Falha ao gerar receita: resposta inesperada da IA.");
-            }
+        if (jsonRecipeText == null || jsonRecipeText.trim().isEmpty()) {
+            logger.error("Gemini retornou texto vazio dentro de 'parts': {}", rootNode);
+            throw new GeminiResponseException(GeminiMetrics.OUTCOME_EMPTY, "Falha ao gerar receita: IA retornou conteúdo vazio.");
+        }
 
-            JsonNode contentNode = candidates.get(0).path("content");
-            JsonNode parts = contentNode.path("parts");
-            if (!parts.isArray() || parts.isEmpty()) {
-                logger.error("Resposta da Gemini API não contém 'parts' dentro de 'content': {}", responseBody);
-                throw new RuntimeException("Falha ao gerar receita: estrutura de resposta inesperada.");
-            }
-            String jsonRecipeText = parts.get(0).path("text").asText();
+        jsonRecipeText = jsonRecipeText.replace("```json", "").replace("```", "").trim();
 
-            if (jsonRecipeText == null || jsonRecipeText.trim().isEmpty()) {
-                logger.error("Gemini retornou texto vazio dentro de 'parts': {}", responseBody);
-                throw new RuntimeException("Falha ao gerar receita: IA retornou conteúdo vazio.");
-            }
+        return objectMapper.readValue(jsonRecipeText, RecipeResponse.class);
+    }
 
-            jsonRecipeText = jsonRecipeText.replace("```json", "").replace("```", "").trim();
+    private String systemInstruction(String endpoint) {
+        if (GenerationBudgets.MODIFY.equals(endpoint)) {
+            return String.format(MODIFY_INSTRUCTION, nutritionFromModel() ? " e fornecer a nova análise nutricional" : "");
+        }
+        return GENERATE_INSTRUCTION;
+    }
 
-            logger.debug("JSON da receita extraído: {}", jsonRecipeText);
-            return objectMapper.readValue(jsonRecipeText, RecipeResponse.class);
+    private boolean nutritionFromModel() {
+        return "gemini".equalsIgnoreCase(nutritionSource);
+    }
 
-        } catch (HttpClientErrorException e) {
-            logger.error("Erro HTTP ao chamar a Gemini API: Status={}, Resposta={}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new RuntimeException("Falha ao comunicar com a IA: " + e.getStatusCode() + " - " + e.getResponseBodyAsString(), e);
-        } catch (JsonProcessingException e) {
-            logger.error("Erro ao processar JSON da Gemini API: {}", e.getMessage(), e);
-            throw new RuntimeException("Falha ao processar resposta da IA.", e);
-        } catch (Exception e) {
-            logger.error("Erro inesperado ao gerar receita: {}", e.getMessage(), e);
-            throw new RuntimeException("Falha ao gerar receita com a IA.", e);
+    // Com nutrition.source=local a nutrição é calculada pelo NutritionService e sai do schema.
+    private Map<String, Object> responseSchema(GenerationBudgets.Budget budget) {
+        Map<String, Object> properties = new HashMap<>(RECIPE_PROPERTIES);
+        properties.put("ingredients", stringArray(budget.maxIngredients()));
+        properties.put("steps", stringArray(budget.maxSteps()));
+        properties.put("tips", stringArray(budget.maxTips()));
+        if (nutritionFromModel()) {
+            properties.put("nutrition", NUTRITION_SCHEMA);
         }
+        return Map.of("type", "OBJECT", "properties", Map.copyOf(properties));
     }
 
+    private static Map<String, Object> stringArray(int maxItems) {
+        return maxItems > 0
+                ? Map.of("type", "array", "items", Map.of("type", "string"), "maxItems", maxItems)
+                : Map.of("type", "array", "items", Map.of("type", "string"));
+    }
 
-    public RecipeResponse generateRecipe(List<String> ingredients) {
-        String ingredientList = String.join(", ", ingredients);
-        String prompt = String.format(
-                "Gere uma receita completa. É OBRIGATÓRIO preencher TODOS os campos. Use APENAS os seguintes ingredientes principais: %s. Use temperos e ingredientes básicos comuns se necessário.",
-                ingredientList
-        );
+    private static String abbreviate(String text) {
+        if (text == null || text.length() <= MAX_LOGGED_RESPONSE_CHARS) {
+            return text;
+        }
+        return text.substring(0, MAX_LOGGED_RESPONSE_CHARS) + "...";
+    }
 
-        return executeGeminiRequest(prompt);
+    /** Geração para {@code userEmail}: o {@link ModelRouter} escolhe o modelo pelos ingredientes e pelo usuário. */
+    public RecipeResponse generateRecipe(List<String> ingredients, String userEmail) {
+        return generateRecipe(ingredients, modelRouter.route(GenerationBudgets.GENERATE, ingredients.size(), userEmail));
     }
 
-    public RecipeResponse modifyRecipe(String originalRecipeJson, String instruction) {
-        // 1. Extrair a lista de ingredientes do JSON original
-        String originalIngredients = "Falha ao extrair ingredientes.";
+    /** Geração num nível já escolhido, como faz o {@link GenerationPrewarmer}. */
+    public RecipeResponse generateRecipe(List<String> ingredients, ModelRouter.Route route) {
+        String prompt = generationPrompt(ingredients);
+        String model = route.tier().model();
+
+        // Mesmo corpo de requisição já gerado por esta ou outra máquina: serve do generated_recipes
+        Map<String, Object> requestBody = buildRequestBody(prompt, generationBudgets.generate());
+        String promptHash = generatedRecipeStore.promptHash(requestBody);
+        Optional<RecipeResponse> stored = generatedRecipeStore.find(promptHash, model);
+        if (stored.isPresent()) {
+            logger.debug("Receita servida do generated_recipes ({})", promptHash);
+            return stored.get();
+        }
+
+        Generation generation = execute(prompt, requestBody, GenerationBudgets.GENERATE, route);
+        generatedRecipeStore.save(promptHash, model, generation.recipe(), generation.usageMetadata());
+        return generation.recipe();
+    }
+
+    /** Se a geração no nível {@code tier} sairia do generated_recipes, sem chamar a Gemini. */
+    public boolean hasStoredRecipe(List<String> ingredients, ModelRouter.Tier tier) {
+        String promptHash = generatedRecipeStore.promptHash(buildRequestBody(generationPrompt(ingredients), generationBudgets.generate()));
+        return generatedRecipeStore.contains(promptHash, tier.model());
+    }
+
+    /**
+     * {@code count} receitas diferentes para os mesmos ingredientes numa chamada só, com {@code candidateCount}.
+     * Modelos que recusam o parâmetro (HTTP 400 sobre candidatos) passam a receber chamadas em paralelo por
+     * {@code gemini.variations.single-candidate-retry-minutes}; elas também completam os candidatos descartados.
+     * Variações não passam pelo generated_recipes: com a mesma chave, sairiam todas iguais.
+     */
+    public List<RecipeResponse> generateVariations(List<String> ingredients, int count, String userEmail) {
+        String prompt = generationPrompt(ingredients);
+        ModelRouter.Route route = modelRouter.route(GenerationBudgets.GENERATE, ingredients.size(), userEmail);
+        String model = route.tier().model();
+
+        List<RecipeResponse> recipes = new ArrayList<>(count);
+        if (candidateCountEnabled && !singleCandidate(model)) {
+            try {
+                recipes.addAll(execute(prompt, buildRequestBody(prompt, generationBudgets.generate(), count),
+                        GenerationBudgets.GENERATE, route).recipes());
+                geminiMetrics.recordVariations(model, GeminiMetrics.VARIATIONS_CANDIDATES, recipes.size());
+            } catch (RuntimeException e) {
+                // Outros 400 (corpo inválido, chave sem permissão) são do pedido, não do modelo
+                if (!(e.getCause() instanceof HttpClientErrorException httpError) || httpError.getStatusCode().value() != 400
+                        || !httpError.getResponseBodyAsString().toLowerCase(Locale.ROOT).contains("candidate")) {
+                    throw e;
+                }
+                logger.warn("Modelo {} recusou candidateCount; variações seguem em chamadas paralelas por {} min: {}",
+                        model, singleCandidateRetryMinutes, httpError.getResponseBodyAsString());
+                singleCandidateModels.put(model, System.nanoTime() + TimeUnit.MINUTES.toNanos(singleCandidateRetryMinutes));
+            }
+        }
+        if (recipes.size() < count) {
+            try {
+                List<RecipeResponse> parallel = generateInParallel(prompt, route, count - recipes.size());
+                geminiMetrics.recordVariations(model, GeminiMetrics.VARIATIONS_PARALLEL, parallel.size());
+                recipes.addAll(parallel);
+            } catch (GeminiCancelledException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (recipes.isEmpty()) {
+                    throw e;
+                }
+                logger.warn("Variações incompletas ({} de {}): {}", recipes.size(), count, e.getMessage());
+            }
+        }
+        return recipes.size() > count ? recipes.subList(0, count) : recipes;
+    }
+
+    private boolean singleCandidate(String model) {
+        Long until = singleCandidateModels.get(model);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        // Passado o prazo, tenta candidateCount de novo: o modelo pode ter passado a aceitar
+        singleCandidateModels.remove(model, until);
+        return false;
+    }
+
+    // Uma chamada na thread atual e as demais no executor, todas sob o mesmo prazo da requisição
+    private List<RecipeResponse> generateInParallel(String prompt, ModelRouter.Route route, int calls) {
+        Map<String, Object> requestBody = buildRequestBody(prompt, generationBudgets.generate());
+        Supplier<RecipeResponse> call = () -> execute(prompt, requestBody, GenerationBudgets.GENERATE, route).recipe();
+        RequestDeadline deadline = RequestDeadline.current().orElse(null);
+
+        List<CompletableFuture<RecipeResponse>> others = new ArrayList<>(calls - 1);
+        for (int i = 1; i < calls; i++) {
+            try {
+                others.add(CompletableFuture.supplyAsync(() -> deadline == null ? call.get() : deadline.run(call), variationExecutor));
+            } catch (TaskRejectedException e) {
+                logger.warn("Pool de variações cheio: {} de {} chamadas em paralelo descartadas", calls - 1 - others.size(), calls);
+                break;
+            }
+        }
+        List<RecipeResponse> recipes = new ArrayList<>(calls);
+        RuntimeException failure = null;
         try {
-            JsonNode root = objectMapper.readTree(originalRecipeJson);
-            JsonNode ingredientsNode = root.path("ingredients");
-            if (ingredientsNode.isArray()) {
-                originalIngredients = "Lista de Ingredientes Originais: " + objectMapper.writeValueAsString(ingredientsNode);
+            recipes.add(call.get());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<RecipeResponse> other : others) {
+            try {
+                recipes.add(other.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
             }
+        }
+        if (recipes.isEmpty() || failure instanceof GeminiCancelledException) {
+            throw failure;
+        }
+        if (failure != null) {
+            logger.warn("{} de {} chamadas em paralelo falharam: {}", calls - recipes.size(), calls, failure.getMessage());
+        }
+        return recipes;
+    }
+
+    private static String generationPrompt(List<String> ingredients) {
+        return "Ingredientes principais: " + String.join(", ", ingredients) + ".";
+    }
+
+    public RecipeResponse modifyRecipe(List<String> ingredients, String instruction, String userEmail) {
+        // 1. Lista de ingredientes da receita original (já resolvida pelo chamador)
+        String originalIngredients = "Falha ao extrair ingredientes.";
+        try {
+            originalIngredients = "Lista de Ingredientes Originais: " + objectMapper.writeValueAsString(ingredients);
         } catch (JsonProcessingException e) {
-            logger.error("Falha ao ler JSON da receita original para modificação: {}", e.getMessage());
+            logger.error("Falha ao serializar ingredientes da receita original: {}", e.getMessage());
         }
 
-        // 2. Novo Prompt Otimizado: Foca na modificação e na saída JSON
+        // 2. Parte variável do prompt; o papel de chef e as regras da saída JSON vão na instrução de sistema
         String prompt = String.format(
-                "Você é um Chef IA especializado em modificação de receitas. Sua tarefa é criar uma NOVA receita JSON que atenda à instrução de modificação. Mantenha a estrutura JSON IDÊNTICA. Instrução: '%s'. A nova receita deve se basear no conceito de: %s. É OBRIGATÓRIO preencher TODOS os campos e fornecer a nova análise nutricional.",
+                "Instrução: '%s'. A nova receita deve se basear no conceito de: %s.",
                 instruction,
                 originalIngredients
         );
 
-        return executeGeminiRequest(prompt);
+        return executeGeminiRequest(prompt, generationBudgets.modify(),
+                modelRouter.route(GenerationBudgets.MODIFY, ingredients.size(), userEmail));
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.model.GeneratedRecipe;
+import br.com.bitewise.api.repository.GeneratedRecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gerações da Gemini gravadas em {@code generated_recipes}, compartilhadas entre as máquinas e mantidas
+ * entre deploys. A chave é o SHA-256 do corpo enviado à Gemini ({@link #promptHash}) mais o modelo; o
+ * valor é o {@link RecipeResponse} em JSON com gzip, com validade de {@code generation.store.ttl-hours}.
+ * <p>
+ * Na frente do banco fica um cache Caffeine limitado com o payload comprimido, então cada leitura devolve
+ * uma receita nova que o chamador pode alterar. Falhas do banco não impedem a geração: a leitura vira
+ * falta e a gravação é só registrada no log.
+ */
+@Service
+public class GeneratedRecipeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedRecipeStore.class);
+
+    private record Stored(byte[] payload, Instant expiresAt, Integer totalTokens) {
+    }
+
+    private final GeneratedRecipeRepository repository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Mapas em ordem de chave: Map.of não tem ordem estável entre JVMs e o hash precisa ser igual em todas
+    private final ObjectWriter canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    private final Clock clock;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, Stored> local;
+    private final Counter localHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+    private final Counter savedTokens;
+
+    @Autowired
+    public GeneratedRecipeStore(GeneratedRecipeRepository repository, MeterRegistry meterRegistry,
+                                @Value("${generation.store.enabled:true}") boolean enabled,
+                                @Value("${generation.store.ttl-hours:168}") long ttlHours,
+                                @Value("${generation.store.cache.max-size:1000}") long localMaxSize) {
+        this(repository, meterRegistry, enabled, Duration.ofHours(ttlHours), localMaxSize, Clock.systemUTC());
+    }
+
+    GeneratedRecipeStore(GeneratedRecipeRepository repository, MeterRegistry meterRegistry, boolean enabled,
+                         Duration ttl, long localMaxSize, Clock clock) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "generation.store");
+        this.localHits = lookupCounter(meterRegistry, "local");
+        this.databaseHits = lookupCounter(meterRegistry, "database");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.savedTokens = Counter.builder("generation.store.saved")
+                .description("Tokens que as gerações reaproveitadas teriam consumido")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+    }
+
+    /** SHA-256 em hexadecimal do corpo da requisição serializado com as chaves ordenadas. */
+    public String promptHash(Object requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonicalWriter.writeValueAsBytes(requestBody)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corpo da requisição não serializável", e);
+        }
+    }
+
+    public Optional<RecipeResponse> find(String promptHash, String model) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = model + ":" + promptHash;
+        Instant now = clock.instant();
+        Stored stored = local.getIfPresent(key);
+        Counter hit = localHits;
+        if (stored == null || !stored.expiresAt().isAfter(now)) {
+            local.invalidate(key);
+            hit = databaseHits;
+            try {
+                stored = repository.findByPromptHashAndModel(promptHash, model)
+                        .filter(row -> row.getExpiresAt().isAfter(now))
+                        .map(row -> new Stored(row.getPayload(), row.getExpiresAt(), row.getTotalTokens()))
+                        .orElse(null);
+            } catch (DataAccessException e) {
+                logger.warn("Falha ao consultar generated_recipes: {}", e.getMessage());
+                stored = null;
+            }
+            if (stored != null) {
+                local.put(key, stored);
+            }
+        }
+        if (stored == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        try {
+            RecipeResponse recipe = decompress(stored.payload());
+            hit.increment();
+            if (stored.totalTokens() != null) {
+                savedTokens.increment(stored.totalTokens());
+            }
+            return Optional.of(recipe);
+        } catch (IOException e) {
+            logger.warn("Geração gravada ilegível ({}), ignorando: {}", key, e.getMessage());
+            local.invalidate(key);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /** Se há geração válida para a chave, sem contar nas métricas nem descomprimir. */
+    public boolean contains(String promptHash, String model) {
+        if (!enabled) {
+            return false;
+        }
+        Instant now = clock.instant();
+        Stored stored = local.getIfPresent(model + ":" + promptHash);
+        if (stored != null && stored.expiresAt().isAfter(now)) {
+            return true;
+        }
+        try {
+            return repository.findByPromptHashAndModel(promptHash, model)
+                    .filter(row -> row.getExpiresAt().isAfter(now))
+                    .isPresent();
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao consultar generated_recipes: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Grava (ou renova) a geração; {@code usageMetadata} é o bloco de tokens da resposta da Gemini. */
+    public void save(String promptHash, String model, RecipeResponse recipe, JsonNode usageMetadata) {
+        if (!enabled) {
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = compress(recipe);
+        } catch (IOException e) {
+            logger.warn("Falha ao serializar geração para generated_recipes: {}", e.getMessage());
+            return;
+        }
+        if (payload.length > GeneratedRecipe.MAX_PAYLOAD_BYTES) {
+            logger.warn("Geração com {} bytes comprimidos não cabe em generated_recipes", payload.length);
+            return;
+        }
+        Instant now = clock.instant();
+        GeneratedRecipe row;
+        try {
+            row = repository.findByPromptHashAndModel(promptHash, model).orElseGet(GeneratedRecipe::new);
+            row.setPromptHash(promptHash);
+            row.setModel(model);
+            row.setPayload(payload);
+            row.setCreatedAt(now);
+            row.setExpiresAt(now.plus(ttl));
+            row.setPromptTokens(tokens(usageMetadata, "promptTokenCount"));
+            row.setCandidatesTokens(tokens(usageMetadata, "candidatesTokenCount"));
+            row.setTotalTokens(tokens(usageMetadata, "totalTokenCount"));
+            repository.save(row);
+        } catch (DataIntegrityViolationException e) {
+            // Outra máquina gravou a mesma geração ao mesmo tempo; a dela vale
+            logger.debug("generated_recipes já tem {} para {}", promptHash, model);
+            return;
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao gravar generated_recipes: {}", e.getMessage());
+            return;
+        }
+        local.put(model + ":" + promptHash, new Stored(payload, row.getExpiresAt(), row.getTotalTokens()));
+    }
+
+    /** Apaga as gerações vencidas. */
+    @Scheduled(fixedDelayString = "${generation.store.purge-interval-ms:3600000}", initialDelayString = "${generation.store.purge-initial-delay-ms:60000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(clock.instant());
+        if (deleted > 0) {
+            logger.info("{} gerações vencidas removidas de generated_recipes", deleted);
+        }
+    }
+
+    private byte[] compress(RecipeResponse recipe) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, recipe);
+        }
+        return bytes.toByteArray();
+    }
+
+    private RecipeResponse decompress(byte[] payload) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, RecipeResponse.class);
+        }
+    }
+
+    private static Integer tokens(JsonNode usageMetadata, String field) {
+        JsonNode count = usageMetadata == null ? null : usageMetadata.path(field);
+        return count != null && count.isNumber() ? count.asInt() : null;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("generation.store")
+                .description("Consultas ao armazenamento de gerações: cache local, banco ou falta")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
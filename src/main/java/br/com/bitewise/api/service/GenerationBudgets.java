@@ -0,0 +1,55 @@
+package br.com.bitewise.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limites de saída das gerações da Gemini por endpoint ({@code gemini.budget.generate.*} e
+ * {@code gemini.budget.modify.*}): {@code maxOutputTokens}, {@code thinkingBudget} (sem valor, o modelo decide)
+ * e {@code maxItems} das listas no responseSchema. Valores {@code 0} deixam a lista sem limite. Mudar qualquer
+ * um muda o corpo enviado à Gemini e, com ele, a chave das gerações gravadas.
+ */
+@Component
+public class GenerationBudgets {
+
+    public static final String GENERATE = "generate";
+    public static final String MODIFY = "modify";
+
+    public record Budget(String endpoint, int maxOutputTokens, Integer thinkingBudget,
+                         int maxIngredients, int maxSteps, int maxTips) {
+    }
+
+    private final Budget generate;
+    private final Budget modify;
+
+    @Autowired
+    public GenerationBudgets(@Value("${gemini.budget.generate.max-output-tokens:8192}") int generateMaxOutputTokens,
+                             @Value("${gemini.budget.generate.thinking-budget:}") Integer generateThinkingBudget,
+                             @Value("${gemini.budget.generate.max-ingredients:20}") int generateMaxIngredients,
+                             @Value("${gemini.budget.generate.max-steps:12}") int generateMaxSteps,
+                             @Value("${gemini.budget.generate.max-tips:5}") int generateMaxTips,
+                             @Value("${gemini.budget.modify.max-output-tokens:8192}") int modifyMaxOutputTokens,
+                             @Value("${gemini.budget.modify.thinking-budget:}") Integer modifyThinkingBudget,
+                             @Value("${gemini.budget.modify.max-ingredients:20}") int modifyMaxIngredients,
+                             @Value("${gemini.budget.modify.max-steps:12}") int modifyMaxSteps,
+                             @Value("${gemini.budget.modify.max-tips:5}") int modifyMaxTips) {
+        this(new Budget(GENERATE, generateMaxOutputTokens, generateThinkingBudget,
+                        generateMaxIngredients, generateMaxSteps, generateMaxTips),
+                new Budget(MODIFY, modifyMaxOutputTokens, modifyThinkingBudget,
+                        modifyMaxIngredients, modifyMaxSteps, modifyMaxTips));
+    }
+
+    public GenerationBudgets(Budget generate, Budget modify) {
+        this.generate = generate;
+        this.modify = modify;
+    }
+
+    public Budget generate() {
+        return generate;
+    }
+
+    public Budget modify() {
+        return modify;
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.dto.TrendingCombinationItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Pré-aquece as gerações das combinações mais pedidas ({@link TrendingCombinations}) na janela de pouco
+ * tráfego, para que depois de um deploy os pedidos mais comuns já saiam do {@link GenerationReuseCache}.
+ * Combinações já gravadas em {@code generated_recipes} só voltam para o cache local; as que exigem
+ * chamada à Gemini gastam o orçamento: no máximo {@code generation.prewarm.per-run} por execução e
+ * {@code generation.prewarm.daily-budget} por dia. Cada combinação é gerada em todos os níveis do
+ * {@link ModelRouter} que a atenderiam ({@link ModelRouter#generationTiers}), já que o generated_recipes
+ * guarda uma linha por modelo. Desligado por padrão.
+ */
+@Service
+public class GenerationPrewarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationPrewarmer.class);
+
+    private final TrendingCombinations trendingCombinations;
+    private final GeminiService geminiService;
+    private final ModelRouter modelRouter;
+    private final NutritionService nutritionService;
+    private final GenerationReuseCache generationReuseCache;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int startHour;
+    private final int endHour;
+    private final int top;
+    private final int minCount;
+    private final int perRun;
+    private final int dailyBudget;
+    private final Counter upstream;
+    private final Counter stored;
+
+    private LocalDate budgetDay;
+    private int spentToday;
+
+    @Autowired
+    public GenerationPrewarmer(TrendingCombinations trendingCombinations, GeminiService geminiService,
+                               ModelRouter modelRouter, NutritionService nutritionService, GenerationReuseCache generationReuseCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${generation.prewarm.enabled:false}") boolean enabled,
+                               @Value("${generation.prewarm.zone:America/Sao_Paulo}") String zone,
+                               @Value("${generation.prewarm.start-hour:3}") int startHour,
+                               @Value("${generation.prewarm.end-hour:6}") int endHour,
+                               @Value("${generation.prewarm.top:20}") int top,
+                               @Value("${generation.prewarm.min-count:3}") int minCount,
+                               @Value("${generation.prewarm.per-run:2}") int perRun,
+                               @Value("${generation.prewarm.daily-budget:30}") int dailyBudget) {
+        this(trendingCombinations, geminiService, modelRouter, nutritionService, generationReuseCache, meterRegistry, enabled,
+                Clock.system(ZoneId.of(zone)), startHour, endHour, top, minCount, perRun, dailyBudget);
+    }
+
+    GenerationPrewarmer(TrendingCombinations trendingCombinations, GeminiService geminiService,
+                        ModelRouter modelRouter, NutritionService nutritionService, GenerationReuseCache generationReuseCache,
+                        MeterRegistry meterRegistry, boolean enabled, Clock clock, int startHour, int endHour,
+                        int top, int minCount, int perRun, int dailyBudget) {
+        this.trendingCombinations = trendingCombinations;
+        this.geminiService = geminiService;
+        this.modelRouter = modelRouter;
+        this.nutritionService = nutritionService;
+        this.generationReuseCache = generationReuseCache;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.startHour = startHour;
+        this.endHour = endHour;
+        this.top = top;
+        this.minCount = minCount;
+        this.perRun = perRun;
+        this.dailyBudget = dailyBudget;
+        this.upstream = sourceCounter(meterRegistry, "upstream");
+        this.stored = sourceCounter(meterRegistry, "store");
+    }
+
+    @Scheduled(fixedDelayString = "${generation.prewarm.interval-ms:60000}", initialDelayString = "${generation.prewarm.interval-ms:60000}")
+    public synchronized void run() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        if (!enabled || !inWindow(now.getHour())) {
+            return;
+        }
+        if (!now.toLocalDate().equals(budgetDay)) {
+            budgetDay = now.toLocalDate();
+            spentToday = 0;
+        }
+        int spentThisRun = 0;
+        for (TrendingCombinationItem combination : trendingCombinations.top(top)) {
+            if (combination.getCount() < minCount) {
+                break;
+            }
+            List<String> ingredients = combination.getIngredients();
+            if (generationReuseCache.contains(ingredients)) {
+                continue;
+            }
+            for (ModelRouter.Tier tier : modelRouter.generationTiers(ingredients.size())) {
+                // Checagem e geração no mesmo nível, para a linha gravada ser a que a requisição vai procurar
+                boolean fromStore = geminiService.hasStoredRecipe(ingredients, tier);
+                if (!fromStore && (spentThisRun >= perRun || spentToday >= dailyBudget)) {
+                    continue;
+                }
+                RecipeResponse recipe;
+                try {
+                    recipe = geminiService.generateRecipe(ingredients, new ModelRouter.Route(tier, ModelRouter.REASON_PREWARM));
+                } catch (Exception e) {
+                    // Falha na IA: tenta de novo na próxima execução, sem insistir agora
+                    logger.warn("Falha ao pré-aquecer {} ({}): {}", ingredients, tier.name(), e.getMessage());
+                    return;
+                }
+                if (!generationReuseCache.contains(ingredients)) {
+                    generationReuseCache.put(ingredients, nutritionService.apply(recipe));
+                }
+                if (fromStore) {
+                    stored.increment();
+                } else {
+                    upstream.increment();
+                    spentThisRun++;
+                    spentToday++;
+                    logger.info("Geração pré-aquecida para {} ({}, {}/{} hoje)", ingredients, tier.name(), spentToday, dailyBudget);
+                }
+            }
+        }
+    }
+
+    // Janela [início, fim); com início maior que o fim ela atravessa a meia-noite
+    private boolean inWindow(int hour) {
+        return startHour <= endHour
+                ? hour >= startHour && hour < endHour
+                : hour >= startHour || hour < endHour;
+    }
+
+    private static Counter sourceCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("generation.prewarm")
+                .description("Gerações pré-aquecidas a partir das combinações mais pedidas")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,209 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.util.MinHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reaproveita receitas geradas para conjuntos de ingredientes quase iguais. O conjunto comparado é o de
+ * {@link IngredientDictionary#ingredientSet}, sem temperos básicos, então ["frango", "arroz", "tomate"] e
+ * ["frango", "arroz", "tomate", "sal"] dão o mesmo conjunto e a segunda geração sai do cache.
+ * <p>
+ * As gerações ficam num cache Caffeine com tamanho e validade limitados e num índice LSH sobre a
+ * assinatura {@link MinHash} ({@value #BANDS} faixas de {@value #ROWS} posições, como no
+ * {@link RecipeSimilarityIndex}). Os candidatos dos baldes são conferidos pelo Jaccard exato dos
+ * conjuntos; se o melhor chega a {@code generation.reuse.threshold}, a receita guardada volta com
+ * {@code reused=true} no lugar de uma chamada à Gemini.
+ */
+@Service
+public class GenerationReuseCache {
+
+    static final int BANDS = 20;
+    static final int ROWS = MinHash.SIZE / BANDS;
+
+    private record Entry(Set<String> ingredients, int[] signature, RecipeResponse recipe) {
+    }
+
+    private record Match(Entry entry, double similarity) {
+    }
+
+    private final IngredientDictionary dictionary;
+    private final boolean enabled;
+    private final double threshold;
+    private final AtomicLong nextId = new AtomicLong();
+    private final Cache<Long, Entry> entries;
+    // Balde -> ids das gerações; ids que já saíram do cache são limpos pelo removalListener ou na consulta
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary similarity;
+
+    public GenerationReuseCache(IngredientDictionary dictionary, MeterRegistry meterRegistry,
+                                @Value("${generation.reuse.enabled:true}") boolean enabled,
+                                @Value("${generation.reuse.threshold:0.8}") double threshold,
+                                @Value("${generation.reuse.max-entries:10000}") long maxEntries,
+                                @Value("${generation.reuse.ttl-minutes:1440}") long ttlMinutes) {
+        this.dictionary = dictionary;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .removalListener((Long id, Entry entry, RemovalCause cause) -> {
+                    if (id != null && entry != null) {
+                        unindex(id, entry.signature());
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "generation.reuse");
+        this.hits = outcomeCounter(meterRegistry, "hit");
+        this.misses = outcomeCounter(meterRegistry, "miss");
+        this.similarity = DistributionSummary.builder("generation.reuse.similarity")
+                .description("Maior Jaccard encontrado entre o pedido e as gerações guardadas")
+                .serviceLevelObjectives(0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 1.0)
+                .register(meterRegistry);
+    }
+
+    /** Uma cópia marcada com {@code reused=true} da geração mais parecida, se passar do limite. */
+    public Optional<RecipeResponse> find(List<String> ingredients) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Set<String> set = dictionary.ingredientSet(ingredients);
+        if (set.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Match best = nearest(set);
+        similarity.record(best.similarity());
+        if (best.entry() == null || best.similarity() < threshold) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(reusedCopy(best.entry().recipe()));
+    }
+
+    /** Se {@link #find} atenderia os ingredientes, sem contar nas métricas. */
+    public boolean contains(List<String> ingredients) {
+        if (!enabled) {
+            return false;
+        }
+        Set<String> set = dictionary.ingredientSet(ingredients);
+        return !set.isEmpty() && nearest(set).similarity() >= threshold;
+    }
+
+    private Match nearest(Set<String> set) {
+        int[] signature = MinHash.signature(set);
+        Entry best = null;
+        double bestSimilarity = 0;
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> bucket = buckets.get(bucketKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (Long id : bucket) {
+                Entry entry = entries.getIfPresent(id);
+                if (entry == null) {
+                    bucket.remove(id);
+                    continue;
+                }
+                double jaccard = jaccard(set, entry.ingredients());
+                if (jaccard > bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = jaccard;
+                }
+            }
+        }
+        return new Match(best, bestSimilarity);
+    }
+
+    /** Guarda uma receita recém-gerada para os ingredientes pedidos. */
+    public void put(List<String> ingredients, RecipeResponse recipe) {
+        if (!enabled) {
+            return;
+        }
+        Set<String> set = dictionary.ingredientSet(ingredients);
+        if (set.isEmpty()) {
+            return;
+        }
+        int[] signature = MinHash.signature(set);
+        long id = nextId.incrementAndGet();
+        entries.put(id, new Entry(Set.copyOf(set), signature, recipe));
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(signature, band), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    private void unindex(long id, int[] signature) {
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfPresent(bucketKey(signature, band), (key, bucket) -> {
+                bucket.remove(id);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int shared = 0;
+        for (String value : smaller) {
+            if (larger.contains(value)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static long bucketKey(int[] signature, int band) {
+        long hash = band;
+        for (int row = 0; row < ROWS; row++) {
+            hash = MinHash.mix(hash ^ signature[band * ROWS + row]);
+        }
+        return hash;
+    }
+
+    private static RecipeResponse reusedCopy(RecipeResponse recipe) {
+        RecipeResponse copy = new RecipeResponse();
+        copy.setTitle(recipe.getTitle());
+        copy.setPrepTime(recipe.getPrepTime());
+        copy.setServings(recipe.getServings());
+        copy.setDifficulty(recipe.getDifficulty());
+        copy.setIngredients(recipe.getIngredients() == null ? null : new ArrayList<>(recipe.getIngredients()));
+        copy.setSteps(recipe.getSteps() == null ? null : new ArrayList<>(recipe.getSteps()));
+        copy.setTips(recipe.getTips() == null ? null : new ArrayList<>(recipe.getTips()));
+        copy.setNutrition(recipe.getNutrition());
+        copy.setReused(true);
+        return copy;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("generation.reuse")
+                .description("Pedidos de geração atendidos por uma receita já gerada (hit) ou pela IA (miss)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
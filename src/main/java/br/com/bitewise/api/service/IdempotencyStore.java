@@ -0,0 +1,158 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Suporte ao cabeçalho {@code Idempotency-Key} nos POSTs que chamam a IA ou gravam receitas. A chave vale por
+ * usuário e endpoint e guarda o {@link CompletableFuture} da primeira execução num cache Caffeine limitado
+ * ({@code idempotency.max-entries}, {@code idempotency.ttl-minutes}). Repetições com o mesmo corpo recebem a
+ * mesma resposta com {@code Idempotent-Replayed: true}; se a primeira ainda está em andamento, a repetição espera
+ * por ela em vez de executar de novo, até {@code idempotency.wait-seconds} ou o prazo da própria requisição
+ * ({@link RequestDeadline}), o que vier antes. A mesma chave com outro corpo responde 422.
+ * <p>
+ * Exceções e respostas 5xx não ficam guardadas: quem estava esperando recebe o mesmo erro, mas o próximo retry
+ * executa de novo.
+ */
+@Service
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    private final ObjectWriter canonicalWriter = new ObjectMapper().writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration waitTimeout;
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${idempotency.enabled:true}") boolean enabled,
+                            @Value("${idempotency.max-entries:10000}") long maxEntries,
+                            @Value("${idempotency.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${idempotency.wait-seconds:120}") long waitSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.waitTimeout = Duration.ofSeconds(waitSeconds);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Executa {@code action} uma única vez por ({@code user}, {@code endpoint}, {@code key}). Sem chave, ou com o
+     * recurso desligado, apenas executa.
+     */
+    public ResponseEntity<?> execute(String user, String endpoint, String key, Object body,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (!enabled || key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(new MessageResponse(
+                    "Idempotency-Key inválida: use de 1 a " + MAX_KEY_LENGTH + " caracteres."));
+        }
+        String cacheKey = endpoint + ":" + user + ":" + key;
+        Entry created = new Entry(fingerprint(body), new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, created);
+        if (existing == null) {
+            return run(endpoint, cacheKey, created, action);
+        }
+        if (!existing.fingerprint().equals(created.fingerprint())) {
+            outcome(endpoint, "conflict").increment();
+            return ResponseEntity.status(422).body(new MessageResponse(
+                    "Idempotency-Key já usada com outro corpo de requisição."));
+        }
+        outcome(endpoint, existing.response().isDone() ? "replayed" : "joined").increment();
+        // Quem se anexa não espera além do próprio prazo (X-Request-Timeout)
+        Duration deadline = RequestDeadline.current().map(RequestDeadline::remaining).orElse(waitTimeout);
+        Duration wait = deadline.compareTo(waitTimeout) < 0 ? deadline : waitTimeout;
+        ResponseEntity<?> response;
+        try {
+            response = existing.response().get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (wait != waitTimeout) {
+                return RequestDeadlines.timeoutResponse();
+            }
+            return ResponseEntity.status(409).body(new MessageResponse(
+                    "Requisição com a mesma Idempotency-Key ainda em andamento."));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a requisição original", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private ResponseEntity<?> run(String endpoint, String cacheKey, Entry entry, Supplier<ResponseEntity<?>> action) {
+        outcome(endpoint, "executed").increment();
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.asMap().remove(cacheKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            entries.asMap().remove(cacheKey, entry);
+        }
+        entry.response().complete(response);
+        return response;
+    }
+
+    private String fingerprint(Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonicalWriter.writeValueAsBytes(body)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corpo da requisição não serializável", e);
+        }
+    }
+
+    private Counter outcome(String endpoint, String result) {
+        return Counter.builder("idempotency.requests")
+                .description("Requisições com Idempotency-Key: executadas, repetidas, anexadas a uma em andamento ou em conflito")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,283 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.util.IngredientTrie;
+import br.com.bitewise.api.util.QuantityParser;
+import br.com.bitewise.api.util.QuantityParser.Quantity;
+import br.com.bitewise.api.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Dicionário de ingredientes ({@code ingredients/dictionary.csv}) indexado numa {@link IngredientTrie}.
+ * Alimenta o autocomplete e normaliza a lista enviada para geração: sinônimos e plurais viram o nome
+ * canônico, erros de digitação próximos ganham uma sugestão e entradas sem cara de ingrediente são
+ * rejeitadas antes de gastar uma chamada à Gemini. Ingredientes fora do dicionário passam como
+ * foram escritos, a menos que {@code ingredients.validation.strict=true}.
+ */
+@Service
+public class IngredientDictionary {
+
+    static final String DICTIONARY = "ingredients/dictionary.csv";
+
+    /** Básicos presentes em quase toda receita, que não ajudam a distinguir uma da outra. */
+    public static final List<String> STAPLES = List.of("sal", "água", "óleo", "azeite", "pimenta-do-reino");
+
+    public enum Match { EXACT, SYNONYM, CORRECTED, UNKNOWN, INVALID }
+
+    /**
+     * {@code id} é o índice da entrada no dicionário, ou -1 quando não reconhecida. Em {@link Match#CORRECTED}
+     * o nome continua o que foi digitado e {@code suggestion} traz a entrada mais próxima.
+     */
+    public record Resolution(String input, String name, Match match, int id, String suggestion) {
+    }
+
+    /**
+     * Lista pronta para o prompt (sem repetições, em ordem alfabética), as entradas recusadas e, para as
+     * parecidas com uma entrada do dicionário, o nome sugerido.
+     */
+    public record Normalization(List<String> ingredients, List<String> rejected, Map<String, String> suggestions) {
+    }
+
+    private static final int NAME_RANK = 0;
+    private static final int SYNONYM_RANK = 1000;
+    private static final int INNER_WORD_RANK = 2000;
+    private static final int MAX_INPUT_LENGTH = 60;
+    private static final int MAX_INPUT_WORDS = 6;
+    private static final Set<String> CONNECTORS = Set.of("de", "do", "da", "dos", "das", "e", "com", "em", "ao", "a");
+
+    private final String[] names;
+    private final int[] groups;
+    private final IngredientTrie trie;
+    private final Set<Integer> staples = new HashSet<>();
+    private final boolean strict;
+    private final Map<Match, Counter> counters = new EnumMap<>(Match.class);
+
+    public IngredientDictionary(MeterRegistry meterRegistry,
+                                @Value("${ingredients.validation.strict:false}") boolean strict) {
+        this.strict = strict;
+        List<String[]> rows = readRows();
+        this.names = new String[rows.size()];
+        this.groups = new int[rows.size()];
+        IngredientTrie.Builder builder = IngredientTrie.builder();
+        for (int entry = 0; entry < rows.size(); entry++) {
+            String[] row = rows.get(entry);
+            names[entry] = row[0].trim();
+            index(builder, names[entry], entry, NAME_RANK);
+            for (String synonym : row[1].split("\\|")) {
+                if (!synonym.isBlank()) {
+                    index(builder, synonym, entry, SYNONYM_RANK);
+                }
+            }
+        }
+        this.trie = builder.build();
+        for (int entry = 0; entry < rows.size(); entry++) {
+            String[] row = rows.get(entry);
+            groups[entry] = row.length > 2 && !row[2].isBlank() ? trie.exact(TextNormalizer.canonicalKey(row[2])) : -1;
+        }
+        for (String staple : STAPLES) {
+            int entry = trie.exact(TextNormalizer.canonicalKey(staple));
+            if (entry >= 0) {
+                staples.add(entry);
+            }
+        }
+        for (Match match : Match.values()) {
+            counters.put(match, Counter.builder("ingredients.resolved")
+                    .description("Ingredientes informados para geração, por forma de reconhecimento")
+                    .tag("result", match.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int[] found = trie.suggest(key, limit);
+        if (found.length == 0) {
+            found = trie.suggest(TextNormalizer.canonicalKey(prefix), limit);
+        }
+        return Arrays.stream(found).mapToObj(entry -> names[entry]).toList();
+    }
+
+    /** Como {@link #lookup}, contando o resultado em {@code ingredients.resolved}. */
+    public Resolution resolve(String input) {
+        Resolution resolution = lookup(input);
+        counters.get(resolution.match()).increment();
+        return resolution;
+    }
+
+    public Resolution lookup(String input) {
+        return resolveKey(input, TextNormalizer.canonicalKey(input));
+    }
+
+    /**
+     * Ingrediente citado numa linha de receita ("200 g de peito de frango", "Sal a gosto"), ou -1.
+     * Usa o nome mais longo (até quatro palavras) que aparece primeiro na linha, sem correção de digitação.
+     */
+    public int find(String line) {
+        String key = TextNormalizer.canonicalKey(line);
+        if (key.isEmpty()) {
+            return -1;
+        }
+        String[] words = key.split(" ");
+        for (int start = 0; start < words.length; start++) {
+            for (int length = Math.min(4, words.length - start); length > 0; length--) {
+                int entry = trie.exact(String.join(" ", Arrays.asList(words).subList(start, start + length)));
+                if (entry >= 0) {
+                    return entry;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /** Entrada mais genérica a que {@code id} pertence ("frango" para "peito de frango"), ou -1. */
+    public int group(int id) {
+        return groups[id];
+    }
+
+    /** Ids das entradas de {@link #STAPLES}. */
+    public Set<Integer> staples() {
+        return Set.copyOf(staples);
+    }
+
+    /**
+     * Conjunto normalizado dos ingredientes de uma receita, sem os básicos: a chave canônica do
+     * ingrediente reconhecido em cada linha por {@link #find} ou, quando nenhum é, do texto da linha sem
+     * a quantidade. "2 tomates" e "3 tomates maduros" dão "tomate" nos dois casos.
+     */
+    public Set<String> ingredientSet(List<String> lines) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String line : lines == null ? List.<String>of() : lines) {
+            if (line == null || line.isBlank()) {
+                continue;
+            }
+            int entry = find(line);
+            if (entry >= 0) {
+                if (!staples.contains(entry)) {
+                    keys.add(TextNormalizer.canonicalKey(names[entry]));
+                }
+                continue;
+            }
+            String key = TextNormalizer.canonicalKey(QuantityParser.parse(line).map(Quantity::ingredient).orElse(line));
+            key = key.startsWith("de ") ? key.substring(3) : key;
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    public Normalization normalize(List<String> ingredients) {
+        Map<String, String> accepted = new TreeMap<>();
+        List<String> rejected = new ArrayList<>();
+        Map<String, String> suggestions = new LinkedHashMap<>();
+        for (String input : ingredients) {
+            Resolution resolution = resolve(input);
+            boolean known = resolution.match() == Match.EXACT || resolution.match() == Match.SYNONYM;
+            if (resolution.match() == Match.INVALID || (strict && !known)) {
+                rejected.add(input == null ? "" : input.trim());
+            } else {
+                accepted.putIfAbsent(TextNormalizer.canonicalKey(resolution.name()), resolution.name());
+            }
+            if (resolution.suggestion() != null) {
+                suggestions.put(input.trim(), resolution.suggestion());
+            }
+        }
+        return new Normalization(List.copyOf(accepted.values()), rejected, Collections.unmodifiableMap(suggestions));
+    }
+
+    private Resolution resolveKey(String input, String key) {
+        if (!looksLikeIngredient(input, key)) {
+            return new Resolution(input, null, Match.INVALID, -1, null);
+        }
+        int entry = trie.exact(key);
+        if (entry >= 0) {
+            boolean canonical = key.equals(TextNormalizer.canonicalKey(names[entry]));
+            return new Resolution(input, names[entry], canonical ? Match.EXACT : Match.SYNONYM, entry, null);
+        }
+        // Só sugere: "molho" está a uma letra de "milho" e "cação" de "cacau", e trocar sozinho muda a receita.
+        String typed = input.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        int maxEdits = key.length() >= 9 ? 2 : key.length() >= 5 ? 1 : 0;
+        entry = maxEdits == 0 ? -1 : trie.closest(key, maxEdits);
+        if (entry >= 0) {
+            return new Resolution(input, typed, Match.CORRECTED, -1, names[entry]);
+        }
+        return new Resolution(input, typed, Match.UNKNOWN, -1, null);
+    }
+
+    private static boolean looksLikeIngredient(String input, String key) {
+        if (input == null || key.isEmpty() || input.length() > MAX_INPUT_LENGTH) {
+            return false;
+        }
+        return key.chars().anyMatch(Character::isLetter) && key.split(" ").length <= MAX_INPUT_WORDS;
+    }
+
+    // Nome completo como chave exata; cada palavra interna ("frango" em "peito de frango") só para sugestão.
+    private static void index(IngredientTrie.Builder builder, String text, int entry, int baseRank) {
+        String key = TextNormalizer.canonicalKey(text);
+        builder.add(key, entry, baseRank + key.length(), true);
+        String[] words = key.split(" ");
+        int offset = 0;
+        for (int i = 0; i < words.length - 1; i++) {
+            offset += words[i].length() + 1;
+            if (!CONNECTORS.contains(words[i + 1])) {
+                builder.add(key.substring(offset), entry, INNER_WORD_RANK + key.length(), false);
+            }
+        }
+    }
+
+    private static List<String[]> readRows() {
+        try (InputStream in = IngredientDictionary.class.getClassLoader().getResourceAsStream(DICTIONARY)) {
+            if (in == null) {
+                throw new IllegalStateException("Dicionário de ingredientes não encontrado: " + DICTIONARY);
+            }
+            List<String[]> rows = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            boolean header = true;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                rows.add(line.split(";", -1));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o dicionário de ingredientes", e);
+        }
+    }
+}
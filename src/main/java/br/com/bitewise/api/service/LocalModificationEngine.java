@@ -0,0 +1,468 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.util.QuantityParser;
+import br.com.bitewise.api.util.QuantityParser.Dimension;
+import br.com.bitewise.api.util.QuantityParser.Quantity;
+import br.com.bitewise.api.util.QuantityParser.Unit;
+import br.com.bitewise.api.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Aplica localmente as modificações mecânicas (escalar porções, converter unidades, trocar ou
+ * remover ingredientes) sem chamar a Gemini. Só responde quando a instrução inteira foi entendida;
+ * qualquer palavra fora do vocabulário reconhecido faz a instrução seguir para a IA.
+ * A informação nutricional é tratada como por porção: é mantida ao escalar e converter e
+ * descartada quando ingredientes mudam.
+ */
+@Service
+public class LocalModificationEngine {
+
+    sealed interface Instruction permits Scale, Convert, Substitute {
+    }
+
+    record Scale(double factor, Integer targetServings) implements Instruction {
+    }
+
+    record Convert(boolean toImperial) implements Instruction {
+    }
+
+    record Substitute(List<Rule> rules) implements Instruction {
+    }
+
+    enum Action { REPLACE, REMOVE, QUALIFY }
+
+    record Rule(String term, Action action, String value) {
+    }
+
+    private static final Map<String, Integer> NUMBER_WORDS = Map.ofEntries(
+            Map.entry("um", 1), Map.entry("uma", 1), Map.entry("dois", 2), Map.entry("duas", 2),
+            Map.entry("tres", 3), Map.entry("quatro", 4), Map.entry("cinco", 5), Map.entry("seis", 6),
+            Map.entry("sete", 7), Map.entry("oito", 8), Map.entry("nove", 9), Map.entry("dez", 10),
+            Map.entry("doze", 12), Map.entry("vinte", 20));
+
+    private static final Pattern SERVINGS = Pattern.compile(
+            "\\b(\\d{1,3}|" + String.join("|", NUMBER_WORDS.keySet()) + ")\\s+(porcoes|porcao|pessoas|pessoa|pratos)\\b");
+    private static final Pattern DOUBLE = Pattern.compile("\\b(dobr\\w*|duplic\\w*|x2|2x)\\b");
+    private static final Pattern TRIPLE = Pattern.compile("\\b(tripl\\w*|x3|3x)\\b");
+    private static final Pattern HALF = Pattern.compile("\\b(metade|meia)\\b");
+    private static final Pattern IMPERIAL = Pattern.compile("\\b(imperial|imperiais|oncas?|libras?|fahrenheit|americanas?|americano|oz|lb)\\b");
+    private static final Pattern METRIC = Pattern.compile("\\b(metrico|metricas?|metricos|gramas|mililitros|celsius|internacional)\\b");
+
+    private static final Pattern SWAP = Pattern.compile(
+            "^(?:por favor,?\\s+)?(?:troque|trocar|troca|substitua|substituir|substitui)\\s+(?:o\\s+|a\\s+|os\\s+|as\\s+)?"
+                    + "(?<from>.+?)\\s+(?:por|pelo|pela|pelos|pelas)\\s+(?<to>.+?)[.!]*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final Pattern INSTEAD = Pattern.compile(
+            "^(?:use|usar|utilize|utilizar)\\s+(?<to>.+?)\\s+(?:no lugar|em vez|ao inv[ée]s)\\s+d[eoa]s?\\s+(?<from>.+?)[.!]*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final Pattern WITHOUT = Pattern.compile("^(?:receita\\s+)?sem\\s+(?<what>.+)$");
+    // Preposição ou artigo sem complemento ("com .", "com e pimenta") deixado por uma remoção nos passos.
+    private static final Pattern DANGLING = Pattern.compile(
+            "(?<![\\p{L}])(?:com|de|do|da|dos|das|o|a|os|as|em|no|na|ao|e)(?:\\s*[.,;:!?]|\\s*$|\\s+e(?![\\p{L}]))");
+    private static final Pattern TEMPERATURE = Pattern.compile("(\\d{2,3})\\s*[°º]\\s*([CF])\\b");
+
+    // "sem X" tratados localmente; o resto (glúten, carne, ...) depende de reformular a receita.
+    private static final Map<String, List<Rule>> WITHOUT_RULES = Map.of(
+            "lactose", List.of(
+                    new Rule("leite", Action.QUALIFY, "sem lactose"),
+                    new Rule("queijo", Action.QUALIFY, "sem lactose"),
+                    new Rule("manteiga", Action.QUALIFY, "sem lactose"),
+                    new Rule("iogurte", Action.QUALIFY, "sem lactose"),
+                    new Rule("requeijão", Action.QUALIFY, "sem lactose")),
+            "acucar", List.of(new Rule("açúcar", Action.REPLACE, "adoçante culinário")),
+            "pimenta", List.of(new Rule("pimenta", Action.REMOVE, null)),
+            "coentro", List.of(new Rule("coentro", Action.REMOVE, null)),
+            "cebolinha", List.of(new Rule("cebolinha", Action.REMOVE, null)),
+            "salsinha", List.of(new Rule("salsinha", Action.REMOVE, null)),
+            "sal", List.of(new Rule("sal", Action.REMOVE, null)));
+
+    private static final List<Map.Entry<Pattern, Double>> FACTORS = List.of(
+            Map.entry(DOUBLE, 2.0), Map.entry(TRIPLE, 3.0), Map.entry(HALF, 0.5));
+
+    private static final char[] FOLDED_LATIN1 = foldTable();
+
+    private static final Set<String> QUALIFY_EXCLUSIONS = Set.of("coco", "vegetal", "amendoas", "aveia", "soja");
+
+    private static final Set<String> FILLER = Set.of("a", "o", "as", "os", "para", "pra", "p", "em", "no", "na",
+            "de", "do", "da", "dos", "das", "receita", "essa", "esta", "por", "favor", "quero", "queria", "pode",
+            "poderia", "voce", "faca", "fazer", "faz", "deixe", "deixar", "deixa", "converta", "converter",
+            "converte", "transforme", "transformar", "mude", "mudar", "ajuste", "ajustar", "use", "usar", "unidades",
+            "unidade", "medidas", "medida", "sistema", "quantidades", "quantidade", "ingredientes", "e", "com",
+            "que", "sirva", "servir", "serve", "rende", "render", "rendimento", "porcoes", "porcao", "pessoas",
+            "pessoa", "pratos", "vezes", "tamanho", "me", "ela", "so", "apenas", "tudo", "reduza", "reduzir",
+            "aumente", "aumentar", "corte", "cortar", "pela");
+
+    private final IngredientDictionary dictionary;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    public LocalModificationEngine(IngredientDictionary dictionary, MeterRegistry meterRegistry) {
+        this.dictionary = dictionary;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("recipe.modify.fastpath.ratio", this, LocalModificationEngine::hitRatio)
+                .description("Fração das modificações resolvidas localmente, sem chamar a IA")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tenta aplicar a instrução localmente. Vazio significa que ela precisa ir para a IA.
+     */
+    public Optional<RecipeResponse> apply(RecipeResponse original, String instruction) {
+        List<Instruction> instructions = classify(instruction);
+        Optional<RecipeResponse> result = instructions.isEmpty() || original == null || original.getIngredients() == null
+                ? Optional.empty()
+                : apply(original, instructions);
+
+        String type = instructions.isEmpty() ? "none" : instructions.stream()
+                .map(i -> i.getClass().getSimpleName().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining("+"));
+        total.increment();
+        if (result.isPresent()) {
+            hits.increment();
+        }
+        String outcome = result.isPresent() ? "hit" : "miss";
+        counters.computeIfAbsent(type + ":" + outcome, key -> Counter.builder("recipe.modify.fastpath")
+                        .description("Instruções de modificação por tipo e se foram resolvidas localmente")
+                        .tag("type", type)
+                        .tag("result", outcome)
+                        .register(meterRegistry))
+                .increment();
+        return result;
+    }
+
+    double hitRatio() {
+        long count = total.sum();
+        return count == 0 ? 0.0 : (double) hits.sum() / count;
+    }
+
+    List<Instruction> classify(String instruction) {
+        if (instruction == null || instruction.isBlank()) {
+            return List.of();
+        }
+        Optional<Instruction> substitution = classifySubstitution(instruction.trim());
+        if (substitution.isPresent()) {
+            return List.of(substitution.get());
+        }
+
+        String normalized = TextNormalizer.normalize(instruction);
+        Set<String> understood = new HashSet<>(FILLER);
+        List<Instruction> instructions = new ArrayList<>();
+
+        Matcher servings = SERVINGS.matcher(normalized);
+        if (servings.find()) {
+            String number = servings.group(1);
+            int target = NUMBER_WORDS.containsKey(number) ? NUMBER_WORDS.get(number) : Integer.parseInt(number);
+            if (target > 0) {
+                instructions.add(new Scale(0, target));
+                understood.add(number);
+            }
+        } else {
+            Double factor = null;
+            for (Map.Entry<Pattern, Double> entry : FACTORS) {
+                Matcher matcher = entry.getKey().matcher(normalized);
+                if (matcher.find()) {
+                    if (factor != null) {
+                        return List.of();
+                    }
+                    factor = entry.getValue();
+                    understood.add(matcher.group(1));
+                }
+            }
+            if (factor != null) {
+                instructions.add(new Scale(factor, null));
+            }
+        }
+
+        Matcher imperial = IMPERIAL.matcher(normalized);
+        Matcher metric = METRIC.matcher(normalized);
+        boolean toImperial = imperial.find();
+        boolean toMetric = metric.find();
+        if (toImperial != toMetric) {
+            instructions.add(new Convert(toImperial));
+            understood.add(toImperial ? imperial.group(1) : metric.group(1));
+        }
+
+        if (instructions.isEmpty()) {
+            return List.of();
+        }
+        boolean fullyUnderstood = Arrays.stream(normalized.split("\\s+")).allMatch(token ->
+                understood.contains(token) || IMPERIAL.matcher(token).matches() || METRIC.matcher(token).matches());
+        return fullyUnderstood ? instructions : List.of();
+    }
+
+    private Optional<Instruction> classifySubstitution(String instruction) {
+        for (Pattern pattern : List.of(SWAP, INSTEAD)) {
+            Matcher matcher = pattern.matcher(instruction);
+            if (matcher.matches()) {
+                String from = matcher.group("from").trim();
+                String to = matcher.group("to").trim();
+                if (isSimpleTerm(from) && isSimpleTerm(to) && isIngredient(from) && isIngredient(to)) {
+                    return Optional.of(new Substitute(List.of(new Rule(from, Action.REPLACE, to))));
+                }
+                return Optional.empty();
+            }
+        }
+        Matcher without = WITHOUT.matcher(TextNormalizer.normalize(instruction));
+        if (without.matches()) {
+            List<Rule> rules = WITHOUT_RULES.get(without.group("what"));
+            return rules == null ? Optional.empty() : Optional.of(new Substitute(rules));
+        }
+        return Optional.empty();
+    }
+
+    // Evita interpretar "troque frango por tofu e deixe picante" como troca por "tofu e deixe picante".
+    private static boolean isSimpleTerm(String term) {
+        return !term.isEmpty() && term.split("\\s+").length <= 4
+                && !term.contains(",") && !term.contains(";") && !term.matches("(?i).*\\s(e|com)\\s.*");
+    }
+
+    // "uma proteína vegetal" ou "algo mais leve" pedem que a IA escolha o ingrediente; troca literal só entre
+    // ingredientes do dicionário.
+    private boolean isIngredient(String term) {
+        IngredientDictionary.Match match = dictionary.lookup(term).match();
+        return match == IngredientDictionary.Match.EXACT || match == IngredientDictionary.Match.SYNONYM;
+    }
+
+    private Optional<RecipeResponse> apply(RecipeResponse original, List<Instruction> instructions) {
+        RecipeResponse recipe = copy(original);
+        for (Instruction instruction : instructions) {
+            boolean applied;
+            if (instruction instanceof Scale scale) {
+                applied = scale(recipe, scale);
+            } else if (instruction instanceof Convert convert) {
+                applied = convert(recipe, convert.toImperial());
+            } else {
+                applied = substitute(recipe, ((Substitute) instruction).rules());
+            }
+            if (!applied) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(recipe);
+    }
+
+    private static boolean scale(RecipeResponse recipe, Scale scale) {
+        double factor = scale.factor();
+        if (scale.targetServings() != null) {
+            if (recipe.getServings() == null || recipe.getServings() <= 0) {
+                return false;
+            }
+            factor = (double) scale.targetServings() / recipe.getServings();
+        }
+        final double f = factor;
+        boolean[] changed = {false};
+        recipe.setIngredients(recipe.getIngredients().stream()
+                .map(line -> QuantityParser.parse(line).map(q -> {
+                    changed[0] = true;
+                    return QuantityParser.format(QuantityParser.normalizeUnit(q.withAmount(q.amount() * f)));
+                }).orElse(line))
+                .toList());
+        if (recipe.getServings() != null) {
+            recipe.setServings(scale.targetServings() != null
+                    ? scale.targetServings() : (int) Math.max(1, Math.round(recipe.getServings() * f)));
+        }
+        return changed[0];
+    }
+
+    private static boolean convert(RecipeResponse recipe, boolean toImperial) {
+        boolean[] changed = {false};
+        recipe.setIngredients(recipe.getIngredients().stream()
+                .map(line -> QuantityParser.parse(line)
+                        .flatMap(q -> convert(q, toImperial))
+                        .map(q -> {
+                            changed[0] = true;
+                            return QuantityParser.format(q);
+                        })
+                        .orElse(line))
+                .toList());
+        if (recipe.getSteps() != null) {
+            recipe.setSteps(recipe.getSteps().stream().map(step -> {
+                String converted = convertTemperatures(step, toImperial);
+                changed[0] |= !converted.equals(step);
+                return converted;
+            }).toList());
+        }
+        return changed[0];
+    }
+
+    private static Optional<Quantity> convert(Quantity quantity, boolean toImperial) {
+        Unit unit = quantity.unit();
+        if (unit == null || unit == Unit.MILLIGRAM) {
+            return Optional.empty();
+        }
+        double base = quantity.amount() * unit.base();
+        boolean mass = unit.dimension() == Dimension.MASS;
+        if (toImperial) {
+            if (unit == Unit.GRAM || unit == Unit.KILOGRAM) {
+                Unit target = base >= 2 * Unit.POUND.base() ? Unit.POUND : Unit.OUNCE;
+                return Optional.of(quantity.withUnit(base / target.base(), target));
+            }
+            if (unit == Unit.MILLILITER || unit == Unit.LITER) {
+                Unit target = base >= Unit.CUP.base() ? Unit.CUP : Unit.FLUID_OUNCE;
+                return Optional.of(quantity.withUnit(base / target.base(), target));
+            }
+            return Optional.empty();
+        }
+        if (unit == Unit.OUNCE || unit == Unit.POUND || unit == Unit.FLUID_OUNCE || unit == Unit.CUP) {
+            Unit target = mass ? (base >= 1000 ? Unit.KILOGRAM : Unit.GRAM) : (base >= 1000 ? Unit.LITER : Unit.MILLILITER);
+            return Optional.of(quantity.withUnit(base / target.base(), target));
+        }
+        return Optional.empty();
+    }
+
+    static String convertTemperatures(String text, boolean toImperial) {
+        Matcher matcher = TEMPERATURE.matcher(text);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            int value = Integer.parseInt(matcher.group(1));
+            boolean celsius = matcher.group(2).equals("C");
+            String replacement = matcher.group();
+            if (toImperial && celsius) {
+                replacement = Math.round((value * 9 / 5.0 + 32) / 5) * 5 + " °F";
+            } else if (!toImperial && !celsius) {
+                replacement = Math.round(((value - 32) * 5 / 9.0) / 5) * 5 + " °C";
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private static boolean substitute(RecipeResponse recipe, List<Rule> rules) {
+        boolean changed = false;
+        for (Rule rule : rules) {
+            Pattern word = wordPattern(rule.term());
+            List<String> ingredients = new ArrayList<>();
+            for (String line : recipe.getIngredients()) {
+                Matcher matcher = word.matcher(fold(line));
+                if (!matcher.find()) {
+                    ingredients.add(line);
+                    continue;
+                }
+                switch (rule.action()) {
+                    case REMOVE -> changed = true;
+                    case REPLACE -> {
+                        ingredients.add(replaceWord(line, word, rule.value()));
+                        changed = true;
+                    }
+                    case QUALIFY -> {
+                        String folded = fold(line);
+                        boolean excluded = folded.contains(fold(rule.value()))
+                                || QUALIFY_EXCLUSIONS.stream().anyMatch(folded::contains);
+                        ingredients.add(excluded ? line : line + " " + rule.value());
+                        changed |= !excluded;
+                    }
+                }
+            }
+            recipe.setIngredients(ingredients);
+            if (rule.action() == Action.REPLACE) {
+                recipe.setTitle(recipe.getTitle() == null ? null : replaceWord(recipe.getTitle(), word, rule.value()));
+                recipe.setSteps(mapSteps(recipe.getSteps(), step -> replaceWord(step, word, rule.value())));
+            } else if (rule.action() == Action.REMOVE) {
+                List<String> steps = new ArrayList<>();
+                for (String step : recipe.getSteps() == null ? List.<String>of() : recipe.getSteps()) {
+                    String removed = removeWord(step, rule.term());
+                    if (!removed.equals(step) && DANGLING.matcher(fold(removed)).find()) {
+                        return false;
+                    }
+                    steps.add(removed);
+                }
+                recipe.setSteps(recipe.getSteps() == null ? null : steps);
+            }
+        }
+        if (changed) {
+            recipe.setNutrition(null);
+        }
+        return changed;
+    }
+
+    private static List<String> mapSteps(List<String> steps, UnaryOperator<String> mapper) {
+        return steps == null ? null : steps.stream().map(mapper).toList();
+    }
+
+    private static Pattern wordPattern(String term) {
+        String folded = fold(term.trim());
+        String stem = folded.endsWith("s") && folded.length() > 3 ? folded.substring(0, folded.length() - 1) : folded;
+        return Pattern.compile("(?<![\\p{L}])" + Pattern.quote(stem) + "(?:e?s)?(?![\\p{L}])");
+    }
+
+    private static String replaceWord(String text, Pattern word, String replacement) {
+        Matcher matcher = word.matcher(fold(text));
+        StringBuilder sb = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            sb.append(text, last, matcher.start());
+            boolean capitalized = Character.isUpperCase(text.charAt(matcher.start()));
+            sb.append(capitalized ? Character.toUpperCase(replacement.charAt(0)) + replacement.substring(1) : replacement);
+            last = matcher.end();
+        }
+        return sb.append(text.substring(last)).toString();
+    }
+
+    // Remove "pimenta" de "sal e pimenta", "sal, pimenta-do-reino e alho", etc.
+    private static String removeWord(String text, String term) {
+        Pattern pattern = Pattern.compile("(?:,\\s*|\\s+e\\s+)?(?<![\\p{L}])" + Pattern.quote(fold(term))
+                + "(?:e?s)?(?:-[\\p{L}-]+)?(?![\\p{L}])");
+        Matcher matcher = pattern.matcher(fold(text));
+        StringBuilder sb = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            sb.append(text, last, matcher.start());
+            last = matcher.end();
+        }
+        return sb.append(text.substring(last)).toString().replaceAll("\\s{2,}", " ");
+    }
+
+    // Minúsculas sem acento preservando o comprimento, para que os índices valham no texto original.
+    private static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            chars[i] = c < FOLDED_LATIN1.length ? FOLDED_LATIN1[c] : Character.toLowerCase(c);
+        }
+        return new String(chars);
+    }
+
+    private static char[] foldTable() {
+        char[] table = new char[256];
+        for (char c = 0; c < table.length; c++) {
+            String folded = TextNormalizer.foldAccents(String.valueOf(c));
+            table[c] = Character.toLowerCase(folded.length() == 1 ? folded.charAt(0) : c);
+        }
+        return table;
+    }
+
+    private static RecipeResponse copy(RecipeResponse original) {
+        RecipeResponse copy = new RecipeResponse();
+        copy.setTitle(original.getTitle());
+        copy.setPrepTime(original.getPrepTime());
+        copy.setServings(original.getServings());
+        copy.setDifficulty(original.getDifficulty());
+        copy.setIngredients(new ArrayList<>(original.getIngredients()));
+        copy.setSteps(original.getSteps() == null ? null : new ArrayList<>(original.getSteps()));
+        copy.setTips(original.getTips() == null ? null : new ArrayList<>(original.getTips()));
+        copy.setNutrition(original.getNutrition());
+        return copy;
+    }
+}
@@ -0,0 +1,193 @@
+package br.com.bitewise.api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Escolhe o modelo de cada chamada à Gemini entre dois níveis ({@code gemini.routing.fast.*} e
+ * {@code gemini.routing.pro.*}), cada um com seu modelo e timeout. Regras, na ordem: pro degradado (latência
+ * ou taxa de erro médias acima do limite) manda tudo para o fast durante {@code cooldown-ms}; usuários de
+ * {@code pro-users} vão para o pro; modificações vão para {@code modify-tier}; gerações com até
+ * {@code fast.max-ingredients} ingredientes vão para o fast e as demais para o pro.
+ */
+@Component
+public class ModelRouter {
+
+    public static final String FAST = "fast";
+    public static final String PRO = "pro";
+
+    public static final String REASON_DISABLED = "disabled";
+    public static final String REASON_DEGRADED = "degraded";
+    public static final String REASON_USER = "user";
+    public static final String REASON_MODIFY = "modify";
+    public static final String REASON_SIMPLE = "simple";
+    public static final String REASON_COMPLEX = "complex";
+    public static final String REASON_PREWARM = "prewarm";
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+    // Peso da amostra nova nas médias móveis exponenciais
+    private static final double ALPHA = 0.2;
+
+    public record Tier(String name, String model, long timeoutMillis) {
+    }
+
+    public record Route(Tier tier, String reason) {
+    }
+
+    public record Policy(boolean enabled, int fastMaxIngredients, String modifyTier, Set<String> proUsers,
+                         long proMaxLatencyMillis, double proMaxErrorRate, int minSamples, long cooldownMillis) {
+    }
+
+    private final Tier fast;
+    private final Tier pro;
+    private final Policy policy;
+    private final Map<String, Health> health;
+    private volatile long degradedUntil = System.nanoTime();
+
+    @Autowired
+    public ModelRouter(@Value("${gemini.routing.fast.model:gemini-2.5-flash}") String fastModel,
+                       @Value("${gemini.routing.fast.timeout-ms:30000}") long fastTimeoutMillis,
+                       @Value("${gemini.routing.pro.model:gemini-2.5-pro}") String proModel,
+                       @Value("${gemini.routing.pro.timeout-ms:${gemini.timeout-ms:90000}}") long proTimeoutMillis,
+                       @Value("${gemini.routing.enabled:true}") boolean enabled,
+                       @Value("${gemini.routing.fast.max-ingredients:4}") int fastMaxIngredients,
+                       @Value("${gemini.routing.modify-tier:pro}") String modifyTier,
+                       @Value("${gemini.routing.pro-users:}") String proUsers,
+                       @Value("${gemini.routing.pro.max-latency-ms:20000}") long proMaxLatencyMillis,
+                       @Value("${gemini.routing.pro.max-error-rate:0.5}") double proMaxErrorRate,
+                       @Value("${gemini.routing.min-samples:10}") int minSamples,
+                       @Value("${gemini.routing.cooldown-ms:60000}") long cooldownMillis,
+                       MeterRegistry meterRegistry) {
+        this(new Tier(FAST, fastModel, fastTimeoutMillis), new Tier(PRO, proModel, proTimeoutMillis),
+                new Policy(enabled, fastMaxIngredients, modifyTier, emails(proUsers),
+                        proMaxLatencyMillis, proMaxErrorRate, minSamples, cooldownMillis),
+                meterRegistry);
+    }
+
+    public ModelRouter(Tier fast, Tier pro, Policy policy, MeterRegistry meterRegistry) {
+        this.fast = fast;
+        this.pro = pro;
+        this.policy = policy;
+        this.health = Map.of(FAST, new Health(), PRO, new Health());
+        health.forEach((tier, h) -> {
+            Gauge.builder("gemini.routing.latency", h, Health::latencyMillis)
+                    .description("Média móvel exponencial da latência das chamadas bem-sucedidas")
+                    .baseUnit("milliseconds")
+                    .tag("tier", tier)
+                    .register(meterRegistry);
+            Gauge.builder("gemini.routing.error.rate", h, Health::errorRate)
+                    .description("Média móvel exponencial da taxa de erro das chamadas")
+                    .tag("tier", tier)
+                    .register(meterRegistry);
+        });
+    }
+
+    public Route route(String endpoint, int ingredientCount, String userEmail) {
+        if (!policy.enabled()) {
+            return new Route(pro, REASON_DISABLED);
+        }
+        if (proDegraded()) {
+            return new Route(fast, REASON_DEGRADED);
+        }
+        if (userEmail != null && policy.proUsers().contains(userEmail.toLowerCase())) {
+            return new Route(pro, REASON_USER);
+        }
+        if (GenerationBudgets.MODIFY.equals(endpoint)) {
+            return new Route(FAST.equalsIgnoreCase(policy.modifyTier()) ? fast : pro, REASON_MODIFY);
+        }
+        return ingredientCount <= policy.fastMaxIngredients()
+                ? new Route(fast, REASON_SIMPLE)
+                : new Route(pro, REASON_COMPLEX);
+    }
+
+    /**
+     * Níveis para onde {@link #route} pode mandar uma geração com {@code ingredientCount} ingredientes, sem contar a
+     * degradação do pro: primeiro o da regra de ingredientes, depois o pro se houver {@code pro-users}.
+     */
+    public List<Tier> generationTiers(int ingredientCount) {
+        if (!policy.enabled() || ingredientCount > policy.fastMaxIngredients()) {
+            return List.of(pro);
+        }
+        return policy.proUsers().isEmpty() ? List.of(fast) : List.of(fast, pro);
+    }
+
+    /** Resultado de uma chamada roteada; cancelamentos não dizem nada sobre o modelo e são ignorados. */
+    public void record(Tier tier, String outcome, long durationNanos) {
+        if (GeminiMetrics.OUTCOME_CANCELLED.equals(outcome)) {
+            return;
+        }
+        boolean failed = GeminiMetrics.OUTCOME_HTTP_ERROR.equals(outcome) || GeminiMetrics.OUTCOME_ERROR.equals(outcome);
+        health.get(tier.name()).update(TimeUnit.NANOSECONDS.toMillis(durationNanos), failed);
+    }
+
+    private boolean proDegraded() {
+        if (System.nanoTime() - degradedUntil < 0) {
+            return true;
+        }
+        Health proHealth = health.get(PRO);
+        synchronized (proHealth) {
+            if (proHealth.samples < policy.minSamples()) {
+                return false;
+            }
+            if (proHealth.latencyMillis <= policy.proMaxLatencyMillis() && proHealth.errorRate <= policy.proMaxErrorRate()) {
+                return false;
+            }
+            logger.warn("Modelo {} degradado (latência média {} ms, taxa de erro {}): usando {} por {} ms",
+                    pro.model(), Math.round(proHealth.latencyMillis), String.format("%.2f", proHealth.errorRate),
+                    fast.model(), policy.cooldownMillis());
+            degradedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.cooldownMillis());
+            // Depois do cooldown o pro volta a receber tráfego e as médias recomeçam do zero
+            proHealth.reset();
+            return policy.cooldownMillis() > 0;
+        }
+    }
+
+    private static Set<String> emails(String list) {
+        return Arrays.stream(list.split(","))
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class Health {
+        private double latencyMillis;
+        private double errorRate;
+        private long samples;
+
+        synchronized void update(long millis, boolean failed) {
+            errorRate = samples == 0 ? (failed ? 1 : 0) : errorRate + ALPHA * ((failed ? 1 : 0) - errorRate);
+            // Erros rápidos (503) ou timeouts distorceriam a latência; eles já contam na taxa de erro
+            if (!failed) {
+                latencyMillis = latencyMillis == 0 ? millis : latencyMillis + ALPHA * (millis - latencyMillis);
+            }
+            samples++;
+        }
+
+        synchronized void reset() {
+            latencyMillis = 0;
+            errorRate = 0;
+            samples = 0;
+        }
+
+        synchronized double latencyMillis() {
+            return latencyMillis;
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+    }
+}
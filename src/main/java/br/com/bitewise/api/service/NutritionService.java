@@ -0,0 +1,166 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.NutritionFacts;
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.util.NutrientTable;
+import br.com.bitewise.api.util.QuantityParser;
+import br.com.bitewise.api.util.QuantityParser.Quantity;
+import br.com.bitewise.api.util.RecipeHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Calcula a informação nutricional por porção a partir das linhas de ingrediente, usando a tabela
+ * em {@code nutrition/ingredients.csv}. Linhas sem quantidade ("sal a gosto") ou com alimento fora
+ * da tabela são ignoradas; {@code coverage} diz que fração das linhas com quantidade entrou na conta.
+ * Os totais ficam em cache pelo {@link RecipeHash} dos ingredientes.
+ * <p>
+ * Com {@code nutrition.source=local} (padrão) o valor calculado substitui o da IA, e a
+ * {@link GeminiService} nem pede nutrição no schema; com {@code gemini} o cálculo só preenche
+ * receitas que ficaram sem nutrição (por exemplo depois de uma troca de ingrediente).
+ */
+@Service
+public class NutritionService {
+
+    public static final String SOURCE_LOCAL = "local";
+
+    static final String TABLE = "nutrition/ingredients.csv";
+
+    // Peso de palavras de contagem que não dependem do alimento ("1 lata de milho").
+    private static final Map<String, Double> COUNT_WORD_GRAMS = Map.of(
+            "pitada", 0.4, "fatia", 20.0, "folha", 5.0, "ramo", 5.0, "maço", 100.0,
+            "pedaço", 50.0, "lata", 300.0, "caixa", 200.0, "pacote", 500.0, "copo", 200.0);
+
+    private record Totals(double kcal, double protein, double fat, double carbs, int matched, int quantified) {
+    }
+
+    private final NutrientTable table;
+    private final boolean local;
+    private final Cache<String, Totals> totals;
+    private final Counter matched;
+    private final Counter unmatched;
+    private final Counter unquantified;
+
+    public NutritionService(MeterRegistry meterRegistry,
+                            @Value("${nutrition.source:local}") String source,
+                            @Value("${nutrition.cache.max-size:10000}") long maxSize) {
+        this.table = NutrientTable.fromClasspath(TABLE);
+        this.local = SOURCE_LOCAL.equalsIgnoreCase(source);
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, totals, "recipe.nutrition");
+        this.matched = ingredientCounter(meterRegistry, "matched");
+        this.unmatched = ingredientCounter(meterRegistry, "unmatched");
+        this.unquantified = ingredientCounter(meterRegistry, "unquantified");
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    /** Preenche (ou, no modo local, recalcula) {@code recipe.nutrition} e devolve a mesma receita. */
+    public RecipeResponse apply(RecipeResponse recipe) {
+        if (recipe == null || (!local && recipe.getNutrition() != null)) {
+            return recipe;
+        }
+        compute(recipe).ifPresent(recipe::setNutrition);
+        return recipe;
+    }
+
+    /** Nutrição por porção, ou vazio quando nenhum ingrediente com quantidade foi reconhecido. */
+    public Optional<NutritionFacts> compute(RecipeResponse recipe) {
+        List<String> ingredients = recipe.getIngredients();
+        if (ingredients == null || ingredients.isEmpty()) {
+            return Optional.empty();
+        }
+        Totals sum = totals.get(RecipeHash.of(ingredients), key -> sum(ingredients));
+        if (sum.matched() == 0) {
+            return Optional.empty();
+        }
+        int servings = recipe.getServings() == null || recipe.getServings() < 1 ? 1 : recipe.getServings();
+        NutritionFacts facts = new NutritionFacts();
+        facts.setCalories((double) Math.round(sum.kcal() / servings));
+        facts.setProteinGrams(round1(sum.protein() / servings));
+        facts.setFatGrams(round1(sum.fat() / servings));
+        facts.setCarbsGrams(round1(sum.carbs() / servings));
+        facts.setCoverage(Math.round(100.0 * sum.matched() / sum.quantified()) / 100.0);
+        return Optional.of(facts);
+    }
+
+    private Totals sum(List<String> ingredients) {
+        double kcal = 0;
+        double protein = 0;
+        double fat = 0;
+        double carbs = 0;
+        int found = 0;
+        int quantified = 0;
+        for (String line : ingredients) {
+            Optional<Quantity> parsed = QuantityParser.parse(line);
+            if (parsed.isEmpty()) {
+                unquantified.increment();
+                continue;
+            }
+            quantified++;
+            Quantity quantity = parsed.get();
+            int row = table.match(quantity.ingredient());
+            if (row < 0) {
+                unmatched.increment();
+                continue;
+            }
+            double grams = grams(quantity, row);
+            if (grams <= 0) {
+                unquantified.increment();
+                continue;
+            }
+            double factor = grams / 100;
+            kcal += table.per100g(row, NutrientTable.KCAL) * factor;
+            protein += table.per100g(row, NutrientTable.PROTEIN) * factor;
+            fat += table.per100g(row, NutrientTable.FAT) * factor;
+            carbs += table.per100g(row, NutrientTable.CARBS) * factor;
+            found++;
+            matched.increment();
+        }
+        return new Totals(kcal, protein, fat, carbs, found, quantified);
+    }
+
+    private double grams(Quantity quantity, int row) {
+        if (quantity.unit() != null) {
+            double base = quantity.amount() * quantity.unit().base();
+            return switch (quantity.dimension()) {
+                case MASS -> base;
+                case VOLUME -> base * table.gramsPerMl(row);
+                case COUNT -> 0;
+            };
+        }
+        String word = quantity.countWord();
+        if (word == null || word.equals("unidade") || word.equals("dente")) {
+            return quantity.amount() * table.unitGrams(row);
+        }
+        if (word.equals("copo")) {
+            return quantity.amount() * COUNT_WORD_GRAMS.get(word) * table.gramsPerMl(row);
+        }
+        return quantity.amount() * COUNT_WORD_GRAMS.getOrDefault(word, 0.0);
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static Counter ingredientCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("nutrition.ingredients")
+                .description("Linhas de ingrediente processadas pelo cálculo nutricional local")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
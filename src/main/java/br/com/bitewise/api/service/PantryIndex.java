@@ -0,0 +1,267 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.PantryMatchItem;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository.IngredientRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Busca por despensa: quais receitas salvas o usuário consegue fazer com os ingredientes que tem.
+ * Para cada usuário é mantido um índice invertido de ingrediente do {@link IngredientDictionary} para
+ * as receitas que o usam, em RoaringBitmaps sobre posições locais. O índice é montado na primeira
+ * busca com uma única consulta e depois atualizado pelos eventos de salvar e remover receita.
+ * <p>
+ * Um ingrediente e o seu grupo se cobrem nos dois sentidos ("frango" na despensa cobre "peito de
+ * frango" na receita e vice-versa). Os {@link IngredientDictionary#STAPLES básicos} contam como
+ * presentes, a menos que o chamador peça o contrário.
+ */
+@Service
+public class PantryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PantryIndex.class);
+
+    private final IngredientDictionary dictionary;
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final Cache<String, UserPantry> pantries;
+    private final Timer searchTimer;
+    private final int[][] members;
+    private final Set<Integer> staples;
+
+    public PantryIndex(IngredientDictionary dictionary, SavedRecipeRepository savedRecipeRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${pantry.index.max-users:10000}") long maxUsers,
+                       @Value("${pantry.index.idle-minutes:60}") long idleMinutes) {
+        this.dictionary = dictionary;
+        this.savedRecipeRepository = savedRecipeRepository;
+        this.pantries = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pantries, "pantry.index");
+        this.searchTimer = Timer.builder("pantry.search")
+                .description("Tempo da busca por despensa, sem contar a montagem inicial do índice")
+                .register(meterRegistry);
+        this.members = groupMembers(dictionary);
+        this.staples = dictionary.staples();
+    }
+
+    /**
+     * Receitas salvas pelo usuário que usam ao menos um ingrediente da despensa (sem contar os básicos),
+     * ordenadas pela fração dos ingredientes da receita que a despensa cobre.
+     */
+    public List<PantryMatchItem> search(String email, List<String> pantry, int limit, boolean assumeStaples) {
+        UserPantry index = pantries.get(email, this::load);
+        Set<Integer> available = new HashSet<>();
+        for (String item : pantry) {
+            int id = dictionary.lookup(item).id();
+            if (id >= 0) {
+                available.add(id);
+                int group = dictionary.group(id);
+                if (group >= 0) {
+                    available.add(group);
+                }
+                for (int member : members[id]) {
+                    available.add(member);
+                }
+            }
+        }
+        Set<Integer> wanted = new HashSet<>(available);
+        if (assumeStaples) {
+            available.addAll(staples);
+        }
+        wanted.removeAll(staples);
+        long start = System.nanoTime();
+        try {
+            return index.search(wanted, available, limit, dictionary);
+        } finally {
+            searchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        pantries.asMap().computeIfPresent(event.email(), (email, index) -> {
+            index.put(event.recipeId(), event.title(), event.ingredients(), dictionary);
+            return index;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeUnsaved(RecipeUnsavedEvent event) {
+        pantries.asMap().computeIfPresent(event.email(), (email, index) -> {
+            index.remove(event.recipeId());
+            return index;
+        });
+    }
+
+    private UserPantry load(String email) {
+        long start = System.nanoTime();
+        Map<Long, String> titles = new LinkedHashMap<>();
+        Map<Long, List<String>> ingredients = new HashMap<>();
+        for (IngredientRow row : savedRecipeRepository.findIngredientRowsByEmail(email)) {
+            titles.putIfAbsent(row.getRecipeId(), row.getTitle());
+            List<String> lines = ingredients.computeIfAbsent(row.getRecipeId(), id -> new ArrayList<>());
+            if (row.getIngredient() != null) {
+                lines.add(row.getIngredient());
+            }
+        }
+        UserPantry index = new UserPantry();
+        titles.forEach((recipeId, title) -> index.put(recipeId, title, ingredients.get(recipeId), dictionary));
+        logger.debug("Índice de despensa montado para {}: {} receitas em {} ms", email, titles.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    // members[g] = entradas cujo grupo é g
+    private static int[][] groupMembers(IngredientDictionary dictionary) {
+        List<List<Integer>> members = new ArrayList<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            members.add(new ArrayList<>());
+        }
+        for (int id = 0; id < dictionary.size(); id++) {
+            int group = dictionary.group(id);
+            if (group >= 0) {
+                members.get(group).add(id);
+            }
+        }
+        return members.stream().map(ids -> ids.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+    }
+
+    /**
+     * Índice de um usuário. Cada receita ocupa uma posição local (reaproveitada depois de removida),
+     * e {@code postings} guarda, por ingrediente, o bitmap das posições que o usam.
+     */
+    static final class UserPantry {
+
+        private record Slot(long recipeId, String title, int[] ingredients, String[] unrecognized) {
+        }
+
+        private final Map<Integer, RoaringBitmap> postings = new HashMap<>();
+        private final Map<Long, Integer> slotsByRecipe = new HashMap<>();
+        private final List<Slot> slots = new ArrayList<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+
+        synchronized void put(long recipeId, String title, List<String> lines, IngredientDictionary dictionary) {
+            remove(recipeId);
+            Set<Integer> ids = new HashSet<>();
+            List<String> unrecognized = new ArrayList<>();
+            for (String line : lines == null ? List.<String>of() : lines) {
+                int id = dictionary.find(line);
+                if (id >= 0) {
+                    ids.add(id);
+                } else if (line != null && !line.isBlank()) {
+                    unrecognized.add(line.trim());
+                }
+            }
+            Slot slot = new Slot(recipeId, title, ids.stream().mapToInt(Integer::intValue).sorted().toArray(),
+                    unrecognized.toArray(String[]::new));
+            int position;
+            if (freeSlots.isEmpty()) {
+                position = slots.size();
+                slots.add(slot);
+            } else {
+                position = freeSlots.pop();
+                slots.set(position, slot);
+            }
+            slotsByRecipe.put(recipeId, position);
+            for (int id : slot.ingredients()) {
+                postings.computeIfAbsent(id, key -> new RoaringBitmap()).add(position);
+            }
+        }
+
+        synchronized void remove(long recipeId) {
+            Integer position = slotsByRecipe.remove(recipeId);
+            if (position == null) {
+                return;
+            }
+            for (int id : slots.get(position).ingredients()) {
+                RoaringBitmap bitmap = postings.get(id);
+                bitmap.remove(position);
+                if (bitmap.isEmpty()) {
+                    postings.remove(id);
+                }
+            }
+            slots.set(position, null);
+            freeSlots.push(position);
+        }
+
+        synchronized int size() {
+            return slotsByRecipe.size();
+        }
+
+        synchronized List<PantryMatchItem> search(Set<Integer> wanted, Set<Integer> available, int limit,
+                                                  IngredientDictionary dictionary) {
+            List<RoaringBitmap> bitmaps = new ArrayList<>();
+            for (int id : wanted) {
+                RoaringBitmap bitmap = postings.get(id);
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+            if (bitmaps.isEmpty()) {
+                return List.of();
+            }
+            RoaringBitmap candidates = FastAggregation.or(bitmaps.iterator());
+
+            // {posição, cobertos, total}
+            List<int[]> scored = new ArrayList<>(candidates.getCardinality());
+            IntIterator positions = candidates.getIntIterator();
+            while (positions.hasNext()) {
+                int position = positions.next();
+                Slot slot = slots.get(position);
+                int matched = 0;
+                for (int id : slot.ingredients()) {
+                    if (available.contains(id)) {
+                        matched++;
+                    }
+                }
+                scored.add(new int[]{position, matched, slot.ingredients().length + slot.unrecognized().length});
+            }
+            scored.sort(Comparator.<int[]>comparingDouble(s -> -(double) s[1] / s[2])
+                    .thenComparingInt(s -> s[2] - s[1])
+                    .thenComparingLong(s -> -slots.get(s[0]).recipeId()));
+
+            List<PantryMatchItem> result = new ArrayList<>(Math.min(limit, scored.size()));
+            for (int[] score : scored.subList(0, Math.min(limit, scored.size()))) {
+                Slot slot = slots.get(score[0]);
+                List<String> missing = new ArrayList<>();
+                for (int id : slot.ingredients()) {
+                    if (!available.contains(id)) {
+                        missing.add(dictionary.name(id));
+                    }
+                }
+                missing.addAll(Arrays.asList(slot.unrecognized()));
+                double coverage = Math.round(1000.0 * score[1] / score[2]) / 1000.0;
+                result.add(new PantryMatchItem(slot.recipeId(), slot.title(), coverage, score[1], score[2], missing));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.PopularIngredientItem;
+import br.com.bitewise.api.dto.PopularRecipeItem;
+import br.com.bitewise.api.dto.TrendingRecipesResponse;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de popularidade das receitas salvas (pelo hash dos ingredientes, já que cada salvamento cria
+ * uma Recipe própria) e dos ingredientes do dicionário que elas usam.
+ * <p>
+ * Salvar e remover só somam num {@link LongAdder} em memória, depois do commit; nada é escrito no banco
+ * nesse caminho, então receitas populares não disputam a mesma linha. A cada
+ * {@code popularity.flush-interval-ms} os deltas acumulados viram um UPDATE em lote em
+ * {@code recipe_popularity}/{@code ingredient_popularity} (e INSERT para as chaves novas), e em seguida as
+ * listas são relidas do banco, já com o que as outras máquinas gravaram. {@code GET /api/recipes/trending}
+ * responde dessa foto em memória.
+ * <p>
+ * "Em alta" soma os salvamentos do dia e do dia anterior ({@code recent_count} e {@code previous_count}
+ * giram quando o dia muda; uma remoção desconta só do dia atual, sem deixá-lo negativo). Só aparecem receitas com pelo menos {@code popularity.min-saves} salvamentos,
+ * para que a receita de um único usuário não fique visível para os outros.
+ */
+@Service
+public class PopularityCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityCounters.class);
+
+    private static final String RECENT = "case when recent_day = ? then recent_count + previous_count "
+            + "when recent_day = ? then recent_count else 0 end";
+
+    private static final String UPDATE_RECIPE = "update recipe_popularity set save_count = save_count + ?, "
+            + "previous_count = case when recent_day = ? then previous_count when recent_day = ? then recent_count else 0 end, "
+            + "recent_count = greatest(case when recent_day = ? then recent_count + ? else ? end, 0), "
+            + "recent_day = ?, title = coalesce(?, title), updated_at = ? where content_hash = ?";
+    private static final String INSERT_RECIPE = "insert into recipe_popularity "
+            + "(content_hash, title, save_count, recent_count, previous_count, recent_day, updated_at) values (?, ?, ?, ?, 0, ?, ?)";
+    private static final String UPDATE_INGREDIENT = "update ingredient_popularity set save_count = save_count + ?, "
+            + "previous_count = case when recent_day = ? then previous_count when recent_day = ? then recent_count else 0 end, "
+            + "recent_count = greatest(case when recent_day = ? then recent_count + ? else ? end, 0), "
+            + "recent_day = ?, updated_at = ? where ingredient = ?";
+    private static final String INSERT_INGREDIENT = "insert into ingredient_popularity "
+            + "(ingredient, save_count, recent_count, previous_count, recent_day, updated_at) values (?, ?, ?, 0, ?, ?)";
+
+    private record Delta(String key, long delta, String title) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IngredientDictionary dictionary;
+    private final Set<Integer> staples;
+    private final Clock clock;
+    private final int minSaves;
+    private final int snapshotSize;
+    private final Map<String, LongAdder> recipeDeltas = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> ingredientDeltas = new ConcurrentHashMap<>();
+    private final Map<String, String> titles = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+    private final Counter flushedRows;
+    private volatile TrendingRecipesResponse snapshot = new TrendingRecipesResponse(List.of(), List.of(), List.of(), null);
+
+    @Autowired
+    public PopularityCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              IngredientDictionary dictionary, MeterRegistry meterRegistry,
+                              @Value("${popularity.zone:America/Sao_Paulo}") String zone,
+                              @Value("${popularity.min-saves:2}") int minSaves,
+                              @Value("${popularity.snapshot-size:50}") int snapshotSize) {
+        this(jdbcTemplate, transactionManager, dictionary, meterRegistry, Clock.system(ZoneId.of(zone)), minSaves,
+                snapshotSize);
+    }
+
+    PopularityCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       IngredientDictionary dictionary, MeterRegistry meterRegistry, Clock clock, int minSaves,
+                       int snapshotSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dictionary = dictionary;
+        this.staples = dictionary.staples();
+        this.clock = clock;
+        this.minSaves = minSaves;
+        this.snapshotSize = snapshotSize;
+        this.flushTimer = Timer.builder("popularity.flush")
+                .description("Gravação em lote dos contadores de popularidade e releitura das listas")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("popularity.flushed.rows")
+                .description("Linhas de popularidade atualizadas ou inseridas")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        count(event.contentHash(), event.title(), event.ingredients(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeUnsaved(RecipeUnsavedEvent event) {
+        count(event.contentHash(), null, event.ingredients(), -1);
+    }
+
+    /** Até {@code limit} itens de cada lista, da última foto. */
+    public TrendingRecipesResponse trending(int limit) {
+        TrendingRecipesResponse current = snapshot;
+        return new TrendingRecipesResponse(head(current.getTrending(), limit), head(current.getMostSaved(), limit),
+                head(current.getIngredients(), limit), current.getUpdatedAt());
+    }
+
+    /** Grava os deltas acumulados e relê as listas. */
+    @Scheduled(fixedDelayString = "${popularity.flush-interval-ms:15000}", initialDelayString = "${popularity.flush-interval-ms:15000}")
+    public synchronized void flush() {
+        flushTimer.record(() -> {
+            LocalDate today = LocalDate.now(clock);
+            Instant now = clock.instant();
+            List<Delta> recipes = drain(recipeDeltas, true);
+            List<Delta> ingredients = drain(ingredientDeltas, false);
+            // Cada tabela numa transação: se falhar (inclusive por outra máquina ter inserido a mesma chave
+            // entre o UPDATE e o INSERT), nada fica gravado e os deltas voltam para o próximo flush
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsertRecipes(recipes, today, now));
+            } catch (DataAccessException e) {
+                logger.warn("Falha ao gravar recipe_popularity, tentando de novo depois: {}", e.getMessage());
+                restore(recipeDeltas, recipes, true);
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsertIngredients(ingredients, today, now));
+            } catch (DataAccessException e) {
+                logger.warn("Falha ao gravar ingredient_popularity, tentando de novo depois: {}", e.getMessage());
+                restore(ingredientDeltas, ingredients, false);
+            }
+            refresh();
+        });
+    }
+
+    /** Relê as listas do banco. Na primeira subida preenche as tabelas com as receitas já salvas. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> seedIfEmpty());
+        } catch (DataAccessException e) {
+            // Outra máquina pode ter preenchido ao mesmo tempo
+            logger.warn("Contadores de popularidade não preenchidos: {}", e.getMessage());
+        }
+        refresh();
+    }
+
+    private void count(String contentHash, String title, List<String> lines, int delta) {
+        if (contentHash != null) {
+            recipeDeltas.computeIfAbsent(contentHash, key -> new LongAdder()).add(delta);
+            if (title != null) {
+                titles.put(contentHash, title);
+            }
+        }
+        for (String ingredient : ingredientNames(lines)) {
+            ingredientDeltas.computeIfAbsent(ingredient, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    // Só ingredientes do dicionário: texto livre não vira chave nem aparece para outros usuários
+    private Set<String> ingredientNames(List<String> lines) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String line : lines == null ? List.<String>of() : lines) {
+            int entry = line == null || line.isBlank() ? -1 : dictionary.find(line);
+            if (entry >= 0 && !staples.contains(entry)) {
+                names.add(dictionary.name(entry));
+            }
+        }
+        return names;
+    }
+
+    private List<Delta> drain(Map<String, LongAdder> deltas, boolean withTitle) {
+        List<Delta> drained = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : deltas.entrySet()) {
+            String key = entry.getKey();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0) {
+                // Chave parada desde o último flush: sai do mapa; o que chegou entre a leitura e a remoção volta
+                if (deltas.remove(key, adder)) {
+                    long late = adder.sumThenReset();
+                    if (late != 0) {
+                        deltas.computeIfAbsent(key, k -> new LongAdder()).add(late);
+                    }
+                }
+                continue;
+            }
+            drained.add(new Delta(key, delta, withTitle ? titles.remove(key) : null));
+        }
+        return drained;
+    }
+
+    private void restore(Map<String, LongAdder> deltas, List<Delta> pending, boolean withTitle) {
+        for (Delta delta : pending) {
+            deltas.computeIfAbsent(delta.key(), key -> new LongAdder()).add(delta.delta());
+            if (withTitle && delta.title() != null) {
+                titles.putIfAbsent(delta.key(), delta.title());
+            }
+        }
+    }
+
+    private void upsertRecipes(List<Delta> deltas, LocalDate today, Instant now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Date day = Date.valueOf(today);
+        Date yesterday = Date.valueOf(today.minusDays(1));
+        Timestamp at = Timestamp.from(now);
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            updates.add(new Object[]{delta.delta(), day, yesterday, day, delta.delta(), delta.delta(), day,
+                    delta.title(), at, delta.key()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_RECIPE, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            // Remoção de receita salva antes dos contadores existirem: não há o que descontar
+            if (updated[i] == 0 && delta.delta() > 0) {
+                inserts.add(new Object[]{delta.key(), delta.title(), delta.delta(), delta.delta(), day, at});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECIPE, inserts);
+        flushedRows.increment(deltas.size());
+    }
+
+    private void upsertIngredients(List<Delta> deltas, LocalDate today, Instant now) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Date day = Date.valueOf(today);
+        Date yesterday = Date.valueOf(today.minusDays(1));
+        Timestamp at = Timestamp.from(now);
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            updates.add(new Object[]{delta.delta(), day, yesterday, day, delta.delta(), delta.delta(), day, at, delta.key()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_INGREDIENT, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            if (updated[i] == 0 && delta.delta() > 0) {
+                inserts.add(new Object[]{delta.key(), delta.delta(), delta.delta(), day, at});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, inserts);
+        flushedRows.increment(deltas.size());
+    }
+
+    private void refresh() {
+        try {
+            LocalDate today = LocalDate.now(clock);
+            Date day = Date.valueOf(today);
+            Date yesterday = Date.valueOf(today.minusDays(1));
+            List<PopularRecipeItem> trending = jdbcTemplate.query(
+                    "select content_hash, title, save_count, " + RECENT + " as recent from recipe_popularity "
+                            + "where save_count >= ? order by recent desc, save_count desc, content_hash limit ?",
+                    (rs, row) -> new PopularRecipeItem(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                    day, yesterday, minSaves, snapshotSize);
+            List<PopularRecipeItem> mostSaved = jdbcTemplate.query(
+                    "select content_hash, title, save_count, " + RECENT + " as recent from recipe_popularity "
+                            + "where save_count >= ? order by save_count desc, content_hash limit ?",
+                    (rs, row) -> new PopularRecipeItem(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                    day, yesterday, minSaves, snapshotSize);
+            List<PopularIngredientItem> ingredients = jdbcTemplate.query(
+                    "select ingredient, save_count, " + RECENT + " as recent from ingredient_popularity "
+                            + "where save_count > 0 order by recent desc, save_count desc, ingredient limit ?",
+                    (rs, row) -> new PopularIngredientItem(rs.getString(1), rs.getLong(2), rs.getLong(3)),
+                    day, yesterday, snapshotSize);
+            snapshot = new TrendingRecipesResponse(trending.stream().filter(item -> item.getRecentSaves() > 0).toList(),
+                    mostSaved, ingredients, clock.instant());
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao reler os contadores de popularidade: {}", e.getMessage());
+        }
+    }
+
+    private void seedIfEmpty() {
+        Long rows = jdbcTemplate.queryForObject(
+                "select (select count(*) from recipe_popularity) + (select count(*) from ingredient_popularity)", Long.class);
+        if (rows == null || rows > 0) {
+            return;
+        }
+        Date day = Date.valueOf(LocalDate.now(clock));
+        Timestamp at = Timestamp.from(clock.instant());
+        int recipes = jdbcTemplate.update("insert into recipe_popularity "
+                + "(content_hash, title, save_count, recent_count, previous_count, recent_day, updated_at) "
+                + "select r.content_hash, max(r.title), count(*), 0, 0, ?, ? from saved_recipes s "
+                + "join recipes r on r.id = s.recipe_id where r.content_hash is not null group by r.content_hash", day, at);
+
+        Map<String, Long> counts = new HashMap<>();
+        List<String> lines = new ArrayList<>();
+        long[] current = {-1};
+        jdbcTemplate.query("select s.recipe_id, i.ingredients from saved_recipes s "
+                + "join recipe_ingredients i on i.recipe_id = s.recipe_id order by s.recipe_id", rs -> {
+            long recipeId = rs.getLong(1);
+            if (recipeId != current[0]) {
+                ingredientNames(lines).forEach(name -> counts.merge(name, 1L, Long::sum));
+                lines.clear();
+                current[0] = recipeId;
+            }
+            lines.add(rs.getString(2));
+        });
+        ingredientNames(lines).forEach(name -> counts.merge(name, 1L, Long::sum));
+        List<Object[]> inserts = counts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue(), 0L, day, at})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT, inserts);
+        if (recipes > 0 || !inserts.isEmpty()) {
+            logger.info("Contadores de popularidade preenchidos: {} receitas e {} ingredientes", recipes, inserts.size());
+        }
+    }
+
+    private static <T> List<T> head(List<T> items, int limit) {
+        return items.size() <= limit ? items : items.subList(0, limit);
+    }
+}
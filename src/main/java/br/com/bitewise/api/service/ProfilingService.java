@@ -0,0 +1,84 @@
+package br.com.bitewise.api.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Service
+public class ProfilingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilingService.class);
+
+    private static final Set<String> ALLOWED_SETTINGS = Set.of("default", "profile");
+
+    private final AtomicBoolean recordingInProgress = new AtomicBoolean();
+    private final Set<String> adminEmails;
+    private final long maxDurationSeconds;
+
+    public ProfilingService(
+            @Value("${admin.emails:}") String adminEmails,
+            @Value("${profiling.max-duration-seconds:120}") long maxDurationSeconds) {
+        this.adminEmails = Arrays.stream(adminEmails.split(","))
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+
+    public boolean isAdmin(String email) {
+        return email != null && adminEmails.contains(email.toLowerCase());
+    }
+
+    public long clampDuration(long requestedSeconds) {
+        return Math.max(1L, Math.min(requestedSeconds, maxDurationSeconds));
+    }
+
+    /**
+     * Grava uma sessão JFR pelo tempo pedido (bloqueante) e devolve o arquivo .jfr gerado.
+     * O chamador é responsável por apagar o arquivo. Só uma gravação roda por vez.
+     */
+    public Path record(long durationSeconds, String settings) throws IOException, InterruptedException {
+        if (!ALLOWED_SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Configuração JFR inválida: " + settings + ". Use 'default' ou 'profile'.");
+        }
+        if (!recordingInProgress.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma gravação JFR em andamento.");
+        }
+
+        Path output = Files.createTempFile("bitewise-", ".jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration(settings))) {
+            recording.setName("bitewise-on-demand");
+            recording.setToDisk(true);
+            recording.setDestination(output);
+
+            logger.info("Iniciando gravação JFR por {}s (configuração '{}')", durationSeconds, settings);
+            recording.start();
+            Thread.sleep(Duration.ofSeconds(durationSeconds).toMillis());
+            recording.stop();
+            logger.info("Gravação JFR concluída: {} bytes", Files.size(output));
+            return output;
+        } catch (ParseException e) {
+            Files.deleteIfExists(output);
+            throw new IllegalStateException("Configuração JFR '" + settings + "' não pôde ser carregada.", e);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(output);
+            throw e;
+        } finally {
+            recordingInProgress.set(false);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.util.TokenBucketRateLimiter;
+import br.com.bitewise.api.util.TokenBucketRateLimiter.Decision;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RateLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    private final TokenBucketRateLimiter userLimiter;
+    private final TokenBucketRateLimiter ipLimiter;
+
+    public RateLimitService(
+            @Value("${ratelimit.user.capacity:20}") long userCapacity,
+            @Value("${ratelimit.user.refill-per-minute:10}") long userRefillPerMinute,
+            @Value("${ratelimit.ip.capacity:60}") long ipCapacity,
+            @Value("${ratelimit.ip.refill-per-minute:30}") long ipRefillPerMinute,
+            @Value("${ratelimit.max-keys:100000}") int maxKeys) {
+        this.userLimiter = new TokenBucketRateLimiter(userCapacity, userRefillPerMinute, maxKeys);
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+    }
+
+    /**
+     * Consome {@code cost} tokens do bucket do IP e, se houver usuário autenticado, do bucket
+     * do usuário. A decisão retornada é a mais restritiva das duas.
+     */
+    public Decision tryAcquire(String username, String clientIp, int cost) {
+        Decision ipDecision = ipLimiter.tryAcquire(clientIp, cost);
+        if (!ipDecision.allowed() || username == null) {
+            return ipDecision;
+        }
+
+        Decision userDecision = userLimiter.tryAcquire(username, cost);
+        if (!userDecision.allowed()) {
+            ipLimiter.refund(clientIp, cost);
+            return userDecision;
+        }
+        return userDecision.remaining() <= ipDecision.remaining() ? userDecision : ipDecision;
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        int removed = userLimiter.evictIdle() + ipLimiter.evictIdle();
+        if (removed > 0) {
+            logger.debug("Rate limit: {} buckets ociosos removidos (usuários={}, IPs={})",
+                    removed, userLimiter.size(), ipLimiter.size());
+        }
+    }
+}
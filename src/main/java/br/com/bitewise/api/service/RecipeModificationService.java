@@ -0,0 +1,149 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.ModifyRecipeRequest;
+import br.com.bitewise.api.dto.RecipeDetailResponse;
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.util.RecipeHash;
+import br.com.bitewise.api.util.TextNormalizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Modificação de receitas. A receita original pode vir por id ou hash de uma receita salva
+ * (lida do banco/cache) ou pelo JSON completo. Instruções mecânicas são resolvidas pelo
+ * {@link LocalModificationEngine}; as demais vão para a Gemini, com o resultado em cache por
+ * (hash dos ingredientes, instrução normalizada), então instruções repetidas como "vegana"
+ * ou "sem glúten" sobre a mesma receita não chamam a Gemini de novo.
+ */
+@Service
+public class RecipeModificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeModificationService.class);
+
+    private final GeminiService geminiService;
+    private final SavedRecipeService savedRecipeService;
+    private final LocalModificationEngine localEngine;
+    private final NutritionService nutritionService;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Cache<String, RecipeResponse> results;
+
+    public RecipeModificationService(GeminiService geminiService, SavedRecipeService savedRecipeService,
+                                     LocalModificationEngine localEngine, NutritionService nutritionService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${modify.cache.max-size:10000}") long maxSize,
+                                     @Value("${modify.cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.geminiService = geminiService;
+        this.savedRecipeService = savedRecipeService;
+        this.localEngine = localEngine;
+        this.nutritionService = nutritionService;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "recipe.modifications");
+    }
+
+    public RecipeResponse modify(String email, ModifyRecipeRequest request) {
+        RecipeResponse original = resolveRecipe(email, request);
+        String instruction = request.getModificationInstruction();
+
+        Optional<RecipeResponse> local = localEngine.apply(original, instruction);
+        if (local.isPresent()) {
+            logger.debug("Modificação aplicada localmente: {}", instruction);
+            return nutritionService.apply(local.get());
+        }
+
+        List<String> ingredients = original.getIngredients();
+        String key = cacheKey(ingredients, instruction);
+
+        RecipeResponse cached = results.getIfPresent(key);
+        if (cached != null) {
+            logger.debug("Modificação servida do cache: {}", key);
+            return copy(cached);
+        }
+
+        RecipeResponse modified = nutritionService.apply(geminiService.modifyRecipe(ingredients, instruction, email));
+        if (modified != null) {
+            // Quem recebe a resposta pode alterá-la; o cache guarda e entrega cópias próprias
+            results.put(key, copy(modified));
+        }
+        return modified;
+    }
+
+    static String cacheKey(List<String> ingredients, String instruction) {
+        return RecipeHash.of(ingredients) + ":" + TextNormalizer.normalize(instruction);
+    }
+
+    private RecipeResponse resolveRecipe(String email, ModifyRecipeRequest request) {
+        if (request.getRecipeId() != null) {
+            return savedRecipeService.findOwnedRecipe(email, request.getRecipeId())
+                    .map(RecipeModificationService::toResponse)
+                    .orElseThrow(() -> new NoSuchElementException("Receita não encontrada."));
+        }
+        if (request.getRecipeHash() != null && !request.getRecipeHash().isBlank()) {
+            return savedRecipeService.findOwnedRecipeByHash(email, request.getRecipeHash().trim())
+                    .map(RecipeModificationService::toResponse)
+                    .orElseThrow(() -> new NoSuchElementException("Receita não encontrada."));
+        }
+        if (request.getOriginalRecipeJson() != null && !request.getOriginalRecipeJson().isBlank()) {
+            return parseRecipe(request.getOriginalRecipeJson());
+        }
+        throw new IllegalArgumentException("Informe recipeId, recipeHash ou originalRecipeJson.");
+    }
+
+    private RecipeResponse parseRecipe(String originalRecipeJson) {
+        RecipeResponse recipe;
+        try {
+            recipe = objectMapper.readValue(originalRecipeJson, RecipeResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON da receita original inválido.", e);
+        }
+        if (recipe == null || recipe.getIngredients() == null) {
+            throw new IllegalArgumentException("O JSON da receita original não tem a lista de ingredientes.");
+        }
+        return recipe;
+    }
+
+    private static RecipeResponse copy(RecipeResponse recipe) {
+        RecipeResponse copy = new RecipeResponse();
+        copy.setTitle(recipe.getTitle());
+        copy.setPrepTime(recipe.getPrepTime());
+        copy.setServings(recipe.getServings());
+        copy.setDifficulty(recipe.getDifficulty());
+        copy.setIngredients(recipe.getIngredients() == null ? null : new ArrayList<>(recipe.getIngredients()));
+        copy.setSteps(recipe.getSteps() == null ? null : new ArrayList<>(recipe.getSteps()));
+        copy.setTips(recipe.getTips() == null ? null : new ArrayList<>(recipe.getTips()));
+        copy.setNutrition(recipe.getNutrition());
+        copy.setReused(recipe.isReused());
+        return copy;
+    }
+
+    private static RecipeResponse toResponse(RecipeDetailResponse detail) {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle(detail.getTitle());
+        recipe.setPrepTime(detail.getPrepTime());
+        recipe.setServings(detail.getServings());
+        recipe.setDifficulty(detail.getDifficulty());
+        recipe.setIngredients(detail.getIngredients());
+        recipe.setSteps(detail.getSteps());
+        recipe.setTips(detail.getTips());
+        return recipe;
+    }
+}
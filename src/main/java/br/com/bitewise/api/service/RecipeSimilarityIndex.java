@@ -0,0 +1,299 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.SimilarRecipeItem;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository.SignatureRow;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.util.MinHash;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Receitas parecidas com uma receita salva, pela similaridade de Jaccard dos conjuntos de ingredientes
+ * ({@link IngredientDictionary#ingredientSet}) estimada por {@link MinHash}.
+ * <p>
+ * A assinatura é gravada em {@code recipes.minhash} junto com a receita ({@link SavedRecipeService#save}). Em
+ * memória fica um índice LSH: a assinatura é dividida em {@value #BANDS} faixas de {@value #ROWS}
+ * posições e cada faixa, junto com o dono da receita, vira a chave de um balde. Só receitas que
+ * dividem ao menos um balde são comparadas, então a consulta não depende do total de receitas. Com
+ * essa divisão pares com Jaccard a partir de ~0,37 quase sempre caem num mesmo balde.
+ * <p>
+ * O índice é montado do banco na subida da aplicação e segue os eventos de salvar e remover. Como em
+ * {@code GET /api/recipes/{id}}, só entram no resultado receitas do próprio usuário.
+ */
+@Service
+public class RecipeSimilarityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSimilarityIndex.class);
+
+    static final int BANDS = 20;
+    static final int ROWS = MinHash.SIZE / BANDS;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private record Match(long recipeId, double similarity) {
+    }
+
+    private final IngredientDictionary dictionary;
+    private final UserRepository userRepository;
+    private final RecipeRepository recipeRepository;
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final Timer queryTimer;
+    private final double minSimilarity;
+    private final int batchSize;
+    private volatile boolean backfillDone;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] recipeIds = new long[INITIAL_SLOTS];
+    private long[] owners = new long[INITIAL_SLOTS];
+    private int[] signatures = new int[INITIAL_SLOTS * MinHash.SIZE];
+    private int slotCount;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Integer> slotsByRecipe = new HashMap<>();
+    // Balde -> [quantidade, posições...]
+    private final Map<Long, int[]> buckets = new HashMap<>();
+
+    public RecipeSimilarityIndex(IngredientDictionary dictionary, UserRepository userRepository,
+                                 RecipeRepository recipeRepository, SavedRecipeRepository savedRecipeRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${similar.min-similarity:0.2}") double minSimilarity,
+                                 @Value("${similar.batch-size:1000}") int batchSize) {
+        this.dictionary = dictionary;
+        this.userRepository = userRepository;
+        this.recipeRepository = recipeRepository;
+        this.savedRecipeRepository = savedRecipeRepository;
+        this.minSimilarity = minSimilarity;
+        this.batchSize = batchSize;
+        this.queryTimer = Timer.builder("recipes.similar")
+                .description("Tempo da busca de receitas parecidas no índice LSH")
+                .register(meterRegistry);
+        Gauge.builder("recipes.similar.indexed", this, RecipeSimilarityIndex::size)
+                .description("Receitas no índice de similares")
+                .register(meterRegistry);
+    }
+
+    /** Assinatura do conjunto de ingredientes das linhas, como gravada em {@code recipes.minhash}. */
+    public int[] signature(List<String> ingredients) {
+        return MinHash.signature(dictionary.ingredientSet(ingredients));
+    }
+
+    /**
+     * Até {@code limit} receitas do usuário parecidas com {@code recipeId}, da mais para a menos parecida.
+     * Vazio quando a receita não é do usuário.
+     */
+    public Optional<List<SimilarRecipeItem>> similar(String email, Long recipeId, int limit) {
+        if (!savedRecipeRepository.isOwnedBy(recipeId, email)) {
+            return Optional.empty();
+        }
+        List<Match> nearest = queryTimer.record(() -> nearest(recipeId, limit));
+        if (nearest.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(nearest.stream().map(Match::recipeId).toList())
+                .stream().collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        List<SimilarRecipeItem> items = new ArrayList<>(nearest.size());
+        for (Match match : nearest) {
+            Recipe recipe = recipes.get(match.recipeId());
+            if (recipe != null) {
+                items.add(new SimilarRecipeItem(recipe.getId(), recipe.getTitle(), recipe.getDifficulty(),
+                        Math.round(match.similarity() * 100) / 100.0));
+            }
+        }
+        return Optional.of(items);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByRecipe.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Monta o índice a partir das assinaturas gravadas, em páginas por id de receita. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long after = 0;
+        int loaded = 0;
+        List<SignatureRow> page;
+        do {
+            page = savedRecipeRepository.findSignatureRowsAfter(after, PageRequest.of(0, batchSize));
+            for (SignatureRow row : page) {
+                put(row.getRecipeId(), row.getUserId(), MinHash.fromBytes(row.getMinhash()));
+                after = row.getRecipeId();
+            }
+            loaded += page.size();
+        } while (page.size() == batchSize);
+        logger.info("Índice de receitas parecidas montado: {} receitas em {} ms", loaded,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Põe no índice a receita recém-salva, depois do commit; a coluna {@code minhash} já veio no INSERT. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        userRepository.findByEmail(event.email()).map(User::getId)
+                .ifPresent(userId -> put(event.recipeId(), userId, signature(event.ingredients())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeUnsaved(RecipeUnsavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.recipeId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Calcula {@code minhash} de um lote de receitas antigas e as coloca no índice. */
+    @Scheduled(fixedDelayString = "${similar.backfill.interval-ms:1000}", initialDelayString = "${similar.backfill.initial-delay-ms:30000}")
+    @Transactional
+    public void backfill() {
+        if (backfillDone) {
+            return;
+        }
+        List<Recipe> pending = recipeRepository.findByMinhashIsNull(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            backfillDone = true;
+            return;
+        }
+        Map<Long, int[]> computed = new HashMap<>();
+        for (Recipe recipe : pending) {
+            int[] signature = signature(recipe.getIngredients());
+            recipe.setMinhash(MinHash.toBytes(signature));
+            computed.put(recipe.getId(), signature);
+        }
+        for (SignatureRow row : savedRecipeRepository.findSignatureRowsByRecipeIds(computed.keySet())) {
+            put(row.getRecipeId(), row.getUserId(), computed.get(row.getRecipeId()));
+        }
+        logger.info("minhash preenchido para {} receitas", pending.size());
+    }
+
+    void put(long recipeId, long owner, int[] signature) {
+        lock.writeLock().lock();
+        try {
+            remove(recipeId);
+            if (signature.length != MinHash.SIZE) {
+                return;
+            }
+            int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            if (slot >= recipeIds.length) {
+                int capacity = recipeIds.length * 2;
+                recipeIds = Arrays.copyOf(recipeIds, capacity);
+                owners = Arrays.copyOf(owners, capacity);
+                signatures = Arrays.copyOf(signatures, capacity * MinHash.SIZE);
+            }
+            recipeIds[slot] = recipeId;
+            owners[slot] = owner;
+            System.arraycopy(signature, 0, signatures, slot * MinHash.SIZE, MinHash.SIZE);
+            slotsByRecipe.put(recipeId, slot);
+            for (int band = 0; band < BANDS; band++) {
+                long key = bucketKey(slot, band);
+                int[] bucket = buckets.getOrDefault(key, new int[2]);
+                if (bucket[0] + 1 >= bucket.length) {
+                    bucket = Arrays.copyOf(bucket, bucket.length * 2);
+                }
+                bucket[++bucket[0]] = slot;
+                buckets.put(key, bucket);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long recipeId) {
+        Integer slot = slotsByRecipe.remove(recipeId);
+        if (slot == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bucketKey(slot, band);
+            int[] bucket = buckets.get(key);
+            for (int i = 1; i <= bucket[0]; i++) {
+                if (bucket[i] == slot) {
+                    bucket[i] = bucket[bucket[0]--];
+                    break;
+                }
+            }
+            if (bucket[0] == 0) {
+                buckets.remove(key);
+            }
+        }
+        freeSlots.push(slot);
+    }
+
+    // As mais parecidas entre as que dividem algum balde, sem a própria receita
+    private List<Match> nearest(Long recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotsByRecipe.get(recipeId);
+            if (slot == null) {
+                return List.of();
+            }
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (int band = 0; band < BANDS; band++) {
+                int[] bucket = buckets.get(bucketKey(slot, band));
+                candidates.addN(bucket, 1, bucket[0]);
+            }
+            candidates.remove(slot);
+
+            List<Match> scored = new ArrayList<>(candidates.getCardinality());
+            IntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int candidate = iterator.next();
+                double similarity = MinHash.similarity(signatures, slot * MinHash.SIZE,
+                        signatures, candidate * MinHash.SIZE);
+                if (similarity >= minSimilarity) {
+                    scored.add(new Match(recipeIds[candidate], similarity));
+                }
+            }
+            scored.sort(Comparator.comparingDouble(Match::similarity).reversed()
+                    .thenComparing(Comparator.comparingLong(Match::recipeId).reversed()));
+            return scored.subList(0, Math.min(limit, scored.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dono, número da faixa e valores da faixa misturados num long; colisões só acrescentam candidatos.
+    private long bucketKey(int slot, int band) {
+        long hash = owners[slot] * 0x9E3779B97F4A7C15L + band;
+        int offset = slot * MinHash.SIZE + band * ROWS;
+        for (int row = 0; row < ROWS; row++) {
+            hash = MinHash.mix(hash ^ signatures[offset + row]);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,234 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.SavedRecipeSearchItem;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository.SearchTextRow;
+import br.com.bitewise.api.util.RecipeSearchText;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índice invertido em memória das receitas salvas de cada usuário, usado pela busca textual quando o
+ * banco não é PostgreSQL (H2 em desenvolvimento e testes). Os termos vêm de {@link RecipeSearchText#terms}
+ * e ficam num mapa ordenado, então cada palavra da consulta casa por prefixo com uma faixa de termos.
+ * Como o {@link PantryIndex}, é montado na primeira busca e segue os eventos de salvar e remover.
+ */
+@Service
+public class RecipeTextIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeTextIndex.class);
+
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final Cache<String, UserTexts> indexes;
+
+    public RecipeTextIndex(SavedRecipeRepository savedRecipeRepository, MeterRegistry meterRegistry,
+                           @Value("${search.index.max-users:1000}") long maxUsers,
+                           @Value("${search.index.idle-minutes:30}") long idleMinutes) {
+        this.savedRecipeRepository = savedRecipeRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "search.index");
+    }
+
+    /**
+     * Receitas salvas que contêm todas as palavras da consulta (cada uma como prefixo de algum termo),
+     * da maior para a menor pontuação, a partir de {@code offset}.
+     */
+    public List<SavedRecipeSearchItem> search(String email, List<String> words, int offset, int limit) {
+        return indexes.get(email, this::load).search(words, offset, limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        indexes.asMap().computeIfPresent(event.email(), (email, index) -> {
+            index.put(event.recipeId(), event.title(), event.difficulty(), event.searchText());
+            return index;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeUnsaved(RecipeUnsavedEvent event) {
+        indexes.asMap().computeIfPresent(event.email(), (email, index) -> {
+            index.remove(event.recipeId());
+            return index;
+        });
+    }
+
+    private UserTexts load(String email) {
+        long start = System.nanoTime();
+        List<SearchTextRow> rows = savedRecipeRepository.findSearchTextRowsByEmail(email);
+        UserTexts index = new UserTexts();
+        for (SearchTextRow row : rows) {
+            index.put(row.getRecipeId(), row.getTitle(), row.getDifficulty(), row.getSearchText());
+        }
+        logger.debug("Índice de busca montado para {}: {} receitas em {} ms", email, rows.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Índice de um usuário. Cada receita ocupa uma posição local (reaproveitada depois de removida);
+     * cada termo guarda o bitmap das posições em que aparece e, à parte, das que o têm no título.
+     */
+    static final class UserTexts {
+
+        // Peso de uma palavra que aparece no título e de uma que só casa como prefixo de um termo maior.
+        private static final double TITLE_BOOST = 3;
+        private static final double PREFIX_ONLY = 0.5;
+
+        private record Doc(long recipeId, String title, String difficulty, String[] terms) {
+        }
+
+        private static final class Postings {
+            final RoaringBitmap all = new RoaringBitmap();
+            final RoaringBitmap title = new RoaringBitmap();
+        }
+
+        private record Hit(int position, long recipeId, double score) {
+        }
+
+        private static final Comparator<Hit> BEST_FIRST = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(Comparator.comparingLong(Hit::recipeId).reversed());
+
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Long, Integer> slotsByRecipe = new HashMap<>();
+        private final List<Doc> slots = new ArrayList<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+
+        synchronized void put(long recipeId, String title, String difficulty, String searchText) {
+            remove(recipeId);
+            // Receitas ainda sem search_text (anteriores à coluna) são buscadas só pelo título.
+            String[] parts = RecipeSearchText.split(searchText != null
+                    ? searchText : RecipeSearchText.document(title, null, null, null));
+            Set<String> titleTerms = RecipeSearchText.terms(parts[0]);
+            Set<String> all = RecipeSearchText.terms(parts[0] + " " + parts[1]);
+            Doc doc = new Doc(recipeId, title, difficulty, all.toArray(String[]::new));
+            int position;
+            if (freeSlots.isEmpty()) {
+                position = slots.size();
+                slots.add(doc);
+            } else {
+                position = freeSlots.pop();
+                slots.set(position, doc);
+            }
+            slotsByRecipe.put(recipeId, position);
+            for (String term : doc.terms()) {
+                Postings postings = terms.computeIfAbsent(term, key -> new Postings());
+                postings.all.add(position);
+                if (titleTerms.contains(term)) {
+                    postings.title.add(position);
+                }
+            }
+        }
+
+        synchronized void remove(long recipeId) {
+            Integer position = slotsByRecipe.remove(recipeId);
+            if (position == null) {
+                return;
+            }
+            for (String term : slots.get(position).terms()) {
+                Postings postings = terms.get(term);
+                postings.all.remove(position);
+                postings.title.remove(position);
+                if (postings.all.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+            slots.set(position, null);
+            freeSlots.push(position);
+        }
+
+        synchronized int size() {
+            return slotsByRecipe.size();
+        }
+
+        /**
+         * Cada palavra contribui com log(1 + N/df) da sua faixa de termos, multiplicado por
+         * {@value #TITLE_BOOST} quando está no título e por {@value #PREFIX_ONLY} quando a receita só tem
+         * termos mais longos que ela.
+         */
+        synchronized List<SavedRecipeSearchItem> search(List<String> words, int offset, int limit) {
+            int count = words.size();
+            if (count == 0 || limit <= 0) {
+                return List.of();
+            }
+            RoaringBitmap[] any = new RoaringBitmap[count];
+            RoaringBitmap[] inTitle = new RoaringBitmap[count];
+            RoaringBitmap[] exact = new RoaringBitmap[count];
+            double[] idf = new double[count];
+            RoaringBitmap matches = null;
+            for (int i = 0; i < count; i++) {
+                String stem = RecipeSearchText.stem(words.get(i));
+                NavigableMap<String, Postings> range = terms.subMap(stem, true, stem + Character.MAX_VALUE, true);
+                if (range.isEmpty()) {
+                    return List.of();
+                }
+                any[i] = FastAggregation.or(range.values().stream().map(p -> p.all).iterator());
+                inTitle[i] = FastAggregation.or(range.values().stream().map(p -> p.title).iterator());
+                Postings same = terms.get(stem);
+                exact[i] = same == null ? new RoaringBitmap() : same.all;
+                idf[i] = Math.log(1 + (double) slotsByRecipe.size() / any[i].getCardinality());
+                matches = matches == null ? any[i] : RoaringBitmap.and(matches, any[i]);
+            }
+
+            int wanted = offset + limit;
+            PriorityQueue<Hit> best = new PriorityQueue<>(wanted + 1, BEST_FIRST.reversed());
+            IntIterator positions = matches.getIntIterator();
+            while (positions.hasNext()) {
+                int position = positions.next();
+                double score = 0;
+                for (int i = 0; i < count; i++) {
+                    double weight = idf[i];
+                    if (inTitle[i].contains(position)) {
+                        weight *= TITLE_BOOST;
+                    }
+                    if (!exact[i].contains(position)) {
+                        weight *= PREFIX_ONLY;
+                    }
+                    score += weight;
+                }
+                best.add(new Hit(position, slots.get(position).recipeId(), score));
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(best);
+            ranked.sort(BEST_FIRST);
+            List<SavedRecipeSearchItem> result = new ArrayList<>();
+            for (Hit hit : ranked.subList(Math.min(offset, ranked.size()), ranked.size())) {
+                Doc doc = slots.get(hit.position());
+                result.add(new SavedRecipeSearchItem(doc.recipeId(), doc.title(), doc.difficulty(),
+                        Math.round(hit.score() * 1000) / 1000.0));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.bitewise.api.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Prazo e cancelamento de uma requisição que chama a IA. O {@link GeminiService} lê o prazo da thread atual
+ * ({@link #current}) para limitar a chamada e registra nela os {@link Future}s em andamento (mais de um quando
+ * as variações rodam em paralelo), que {@link #cancel} aborta na hora, fechando as conexões com a Gemini.
+ */
+public final class RequestDeadline {
+
+    public static final String REASON_DEADLINE = "deadline";
+    public static final String REASON_DISCONNECT = "disconnect";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private volatile String cancelReason;
+    private final Set<Future<?>> inFlight = ConcurrentHashMap.newKeySet();
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static RequestDeadline after(Duration timeout) {
+        return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /** Executa {@code action} com este prazo como {@link #current} da thread. */
+    public <T> T run(Supplier<T> action) {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /** Motivo do cancelamento, ou {@code null}; com o prazo vencido vale {@link #REASON_DEADLINE}. */
+    public String cancelReason() {
+        String reason = cancelReason;
+        if (reason == null && deadlineNanos - System.nanoTime() <= 0) {
+            return REASON_DEADLINE;
+        }
+        return reason;
+    }
+
+    /** Aborta a chamada em andamento e as próximas. Só o primeiro motivo vale. */
+    public void cancel(String reason) {
+        synchronized (this) {
+            if (cancelReason != null) {
+                return;
+            }
+            cancelReason = reason;
+        }
+        inFlight.forEach(call -> call.cancel(true));
+    }
+
+    void attach(Future<?> call) {
+        inFlight.add(call);
+        // cancel() pode ter rodado entre a checagem do chamador e o registro
+        if (cancelReason != null) {
+            call.cancel(true);
+        }
+    }
+
+    void detach(Future<?> call) {
+        inFlight.remove(call);
+    }
+}
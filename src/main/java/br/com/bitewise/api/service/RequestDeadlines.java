@@ -0,0 +1,115 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.MessageResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Executa os endpoints que chamam a IA fora da thread do Tomcat, com prazo e cancelamento. O prazo é o
+ * cabeçalho {@code X-Request-Timeout} (milissegundos) limitado a {@code request.deadline.max-ms}; vencido,
+ * a chamada à Gemini é abortada e a resposta é 504. Se o cliente fechar a conexão antes
+ * ({@link ClientDisconnectWatcher}), a chamada também é abortada, a não ser que a requisição traga
+ * {@code Idempotency-Key}: nesse caso o retry vai querer o resultado.
+ * <p>
+ * O pool tem {@code request.async.max-concurrency} threads e uma fila de {@code request.async.queue-capacity};
+ * cheios os dois, a requisição é recusada na hora com 503 e {@code Retry-After} ({@link #saturatedResponse}), em
+ * vez de prender a thread do Tomcat esperando vaga.
+ */
+@Service
+public class RequestDeadlines {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestDeadlines.class);
+    // Folga para o 504 sair do próprio GeminiService antes do timeout assíncrono do Spring
+    private static final Duration ASYNC_GRACE = Duration.ofSeconds(2);
+
+    private final ClientDisconnectWatcher disconnectWatcher;
+    private final Duration maxTimeout;
+    private final long retryAfterSeconds;
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    public RequestDeadlines(ClientDisconnectWatcher disconnectWatcher,
+                            @Value("${request.deadline.max-ms:90000}") long maxMillis,
+                            @Value("${request.async.max-concurrency:200}") int maxConcurrency,
+                            @Value("${request.async.queue-capacity:100}") int queueCapacity,
+                            @Value("${request.async.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.disconnectWatcher = disconnectWatcher;
+        this.maxTimeout = Duration.ofMillis(maxMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        executor.setThreadNamePrefix("generation-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+
+    public WebAsyncTask<ResponseEntity<?>> submit(HttpServletRequest request, boolean cancelOnDisconnect,
+                                                  Supplier<ResponseEntity<?>> action) {
+        RequestDeadline deadline = RequestDeadline.after(timeout(request.getHeader(HEADER)));
+        WebAsyncTask<ResponseEntity<?>> task = new WebAsyncTask<>(
+                deadline.remaining().plus(ASYNC_GRACE).toMillis(), executor, () -> {
+            if (!cancelOnDisconnect) {
+                return deadline.run(action);
+            }
+            try (ClientDisconnectWatcher.Watch ignored = disconnectWatcher.watch(request,
+                    () -> deadline.cancel(RequestDeadline.REASON_DISCONNECT))) {
+                return deadline.run(action);
+            }
+        });
+        task.onTimeout(() -> {
+            deadline.cancel(RequestDeadline.REASON_DEADLINE);
+            return timeoutResponse();
+        });
+        task.onError(() -> {
+            deadline.cancel(RequestDeadline.REASON_DISCONNECT);
+            return ResponseEntity.status(500).body(new MessageResponse("Requisição interrompida."));
+        });
+        return task;
+    }
+
+    /** Resposta para {@link TaskRejectedException}: pool e fila cheios, o cliente tenta de novo depois. */
+    public ResponseEntity<?> saturatedResponse() {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(new MessageResponse("Servidor ocupado gerando outras receitas. Tente novamente em instantes."));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** Resposta para {@link GeminiCancelledException}: quem desconectou não vai lê-la, então vale o 504. */
+    public static ResponseEntity<?> timeoutResponse() {
+        return ResponseEntity.status(504).body(new MessageResponse("Prazo da requisição esgotado antes da resposta da IA."));
+    }
+
+    Duration timeout(String header) {
+        if (header == null || header.isBlank()) {
+            return maxTimeout;
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            return millis > 0 && millis < maxTimeout.toMillis() ? Duration.ofMillis(millis) : maxTimeout;
+        } catch (NumberFormatException e) {
+            logger.debug("{} inválido ignorado: {}", HEADER, header);
+            return maxTimeout;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.SavedRecipeSearchItem;
+import br.com.bitewise.api.dto.SavedRecipeSearchResponse;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.util.RecipeSearchText;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Busca textual nas receitas salvas (título, ingredientes, passos e dicas).
+ * <p>
+ * No PostgreSQL a busca usa uma coluna {@code tsvector} gerada a partir de {@code recipes.search_text},
+ * com o stemmer {@code portuguese}, peso maior para o título e índice GIN; coluna e índice são criados
+ * na subida da aplicação. Nos demais bancos (H2) a mesma busca é feita pelo {@link RecipeTextIndex}.
+ * Em ambos cada palavra da consulta casa também como prefixo ("frang" encontra "frango").
+ * <p>
+ * Só os primeiros {@value #MAX_RESULTS} resultados são paginados, para que páginas profundas não
+ * custem mais que as primeiras. Receitas gravadas antes de {@code search_text} existir são
+ * preenchidas aos poucos por {@link #backfill}.
+ */
+@Service
+public class SavedRecipeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedRecipeSearchService.class);
+
+    public static final int MAX_RESULTS = 1000;
+    static final int MAX_QUERY_WORDS = 8;
+
+    private static final List<String> POSTGRES_SCHEMA = List.of(
+            "alter table recipes add column if not exists search_vector tsvector generated always as ("
+                    + "setweight(to_tsvector('portuguese', split_part(coalesce(search_text, ''), E'\\n', 1)), 'A') || "
+                    + "setweight(to_tsvector('portuguese', coalesce(search_text, '')), 'B')) stored",
+            "create index if not exists idx_recipes_search_vector on recipes using gin (search_vector)");
+
+    private final RecipeRepository recipeRepository;
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final RecipeTextIndex textIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer postgresTimer;
+    private final Timer memoryTimer;
+    private final int backfillBatchSize;
+    private volatile boolean postgres;
+    private volatile boolean backfillDone;
+
+    public SavedRecipeSearchService(RecipeRepository recipeRepository, SavedRecipeRepository savedRecipeRepository,
+                                    RecipeTextIndex textIndex, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                    @Value("${search.backend:auto}") String backend,
+                                    @Value("${search.backfill.batch-size:500}") int backfillBatchSize) {
+        this.recipeRepository = recipeRepository;
+        this.savedRecipeRepository = savedRecipeRepository;
+        this.textIndex = textIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfillBatchSize = backfillBatchSize;
+        this.postgresTimer = searchTimer(meterRegistry, "postgres");
+        this.memoryTimer = searchTimer(meterRegistry, "memory");
+        this.postgres = switch (backend.toLowerCase(Locale.ROOT)) {
+            case "postgres" -> true;
+            case "memory" -> false;
+            default -> isPostgres(jdbcTemplate);
+        };
+    }
+
+    public boolean usesPostgres() {
+        return postgres;
+    }
+
+    /** Página {@code page} (a partir de 0) das receitas salvas que contêm todas as palavras de {@code query}. */
+    public SavedRecipeSearchResponse search(String email, String query, int page, int size) {
+        List<String> parsed = RecipeSearchText.words(query);
+        List<String> words = parsed.subList(0, Math.min(parsed.size(), MAX_QUERY_WORDS));
+        long offset = (long) page * size;
+        if (words.isEmpty() || offset >= MAX_RESULTS) {
+            return new SavedRecipeSearchResponse(page, size, false, List.of());
+        }
+        List<SavedRecipeSearchItem> items = postgres
+                ? postgresTimer.record(() -> searchPostgres(email, words, size + 1, (int) offset))
+                : memoryTimer.record(() -> textIndex.search(email, words, (int) offset, size + 1));
+        boolean hasNext = items.size() > size && offset + size < MAX_RESULTS;
+        return new SavedRecipeSearchResponse(page, size, hasNext, hasNext ? items.subList(0, size) : items);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareSchema() {
+        if (!postgres) {
+            return;
+        }
+        try {
+            POSTGRES_SCHEMA.forEach(jdbcTemplate::execute);
+            logger.info("Busca textual usando tsvector/GIN do PostgreSQL");
+        } catch (DataAccessException e) {
+            postgres = false;
+            logger.warn("Não foi possível preparar a busca textual no PostgreSQL, usando índice em memória: {}",
+                    e.getMessage());
+        }
+    }
+
+    /** Preenche {@code search_text} de um lote de receitas antigas; para de consultar quando não sobra nenhuma. */
+    @Scheduled(fixedDelayString = "${search.backfill.interval-ms:1000}", initialDelayString = "${search.backfill.initial-delay-ms:30000}")
+    @Transactional
+    public void backfill() {
+        if (backfillDone) {
+            return;
+        }
+        List<Recipe> pending = recipeRepository.findBySearchTextIsNull(PageRequest.of(0, backfillBatchSize));
+        if (pending.isEmpty()) {
+            backfillDone = true;
+            return;
+        }
+        for (Recipe recipe : pending) {
+            recipe.setSearchText(RecipeSearchText.document(recipe.getTitle(), recipe.getIngredients(),
+                    recipe.getSteps(), recipe.getTips()));
+        }
+        logger.info("search_text preenchido para {} receitas", pending.size());
+    }
+
+    private List<SavedRecipeSearchItem> searchPostgres(String email, List<String> words, int limit, int offset) {
+        // Só letras e dígitos chegam aqui (RecipeSearchText.words), então não há sintaxe de tsquery a escapar.
+        String tsQuery = words.stream().map(word -> word + ":*").collect(Collectors.joining(" & "));
+        return savedRecipeRepository.searchPostgres(email, tsQuery, limit, offset).stream()
+                .map(hit -> new SavedRecipeSearchItem(hit.getRecipeId(), hit.getTitle(), hit.getDifficulty(),
+                        Math.round(hit.getScore() * 1000) / 1000.0))
+                .toList();
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private static Timer searchTimer(MeterRegistry meterRegistry, String backend) {
+        return Timer.builder("saved_recipes.search")
+                .description("Tempo da busca textual nas receitas salvas")
+                .tag("backend", backend)
+                .register(meterRegistry);
+    }
+}
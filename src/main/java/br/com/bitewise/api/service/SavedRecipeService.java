@@ -0,0 +1,132 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeDetailResponse;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.SavedRecipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.util.MinHash;
+import br.com.bitewise.api.util.RecipeHash;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Gravação, leitura e remoção de receitas salvas. Recipe e suas coleções ficam no cache de segundo
+ * nível e a checagem de posse no query cache, então visualizações repetidas não vão ao banco.
+ * Remover o último vínculo apaga a Recipe, o que invalida as entradas correspondentes no cache.
+ * Salvar e remover publicam {@link RecipeSavedEvent} e {@link RecipeUnsavedEvent}.
+ */
+@Service
+public class SavedRecipeService {
+
+    private final UserRepository userRepository;
+    private final RecipeRepository recipeRepository;
+    private final SavedRecipeRepository savedRecipeRepository;
+    private final RecipeSimilarityIndex similarityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SavedRecipeService(UserRepository userRepository, RecipeRepository recipeRepository,
+                              SavedRecipeRepository savedRecipeRepository, RecipeSimilarityIndex similarityIndex,
+                              ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.recipeRepository = recipeRepository;
+        this.savedRecipeRepository = savedRecipeRepository;
+        this.similarityIndex = similarityIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public Recipe save(String email, SaveRecipeRequest request) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado."));
+
+        Recipe newRecipe = new Recipe();
+        newRecipe.setTitle(request.getTitle());
+        newRecipe.setPrepTime(request.getPrepTime());
+        newRecipe.setServings(request.getServings());
+        newRecipe.setDifficulty(request.getDifficulty());
+        newRecipe.setIngredients(request.getIngredients());
+        newRecipe.setSteps(request.getSteps());
+        newRecipe.setTips(request.getTips());
+        // Vai no mesmo INSERT da receita, sem um UPDATE depois
+        newRecipe.setMinhash(MinHash.toBytes(similarityIndex.signature(request.getIngredients())));
+
+        Recipe savedRecipe = recipeRepository.save(newRecipe);
+
+        SavedRecipe savedLink = new SavedRecipe();
+        savedLink.setUser(user);
+        savedLink.setRecipe(savedRecipe);
+
+        savedRecipeRepository.save(savedLink);
+
+        eventPublisher.publishEvent(new RecipeSavedEvent(email, savedRecipe.getId(), savedRecipe.getTitle(),
+                savedRecipe.getDifficulty(), copy(savedRecipe.getIngredients()), savedRecipe.getSearchText(),
+                savedRecipe.getContentHash()));
+        return savedRecipe;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RecipeDetailResponse> findOwnedRecipe(String email, Long recipeId) {
+        if (!savedRecipeRepository.isOwnedBy(recipeId, email)) {
+            return Optional.empty();
+        }
+        return recipeRepository.findById(recipeId).map(SavedRecipeService::toDetail);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RecipeDetailResponse> findOwnedRecipeByHash(String email, String contentHash) {
+        return savedRecipeRepository.findOwnedByContentHash(contentHash, email).stream()
+                .findFirst()
+                .map(SavedRecipeService::toDetail);
+    }
+
+    @Transactional
+    public void delete(String email, Long savedRecipeId) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado no banco."));
+
+        SavedRecipe savedRecipe = savedRecipeRepository.findById(savedRecipeId)
+                .orElseThrow(() -> new RuntimeException("Receita salva não encontrada com ID: " + savedRecipeId));
+
+        if (!savedRecipe.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Acesso negado. Esta receita não pertence ao usuário logado.");
+        }
+
+        Recipe recipe = savedRecipe.getRecipe();
+        RecipeUnsavedEvent event = new RecipeUnsavedEvent(email, recipe.getId(), recipe.getContentHash(),
+                copy(recipe.getIngredients()));
+        savedRecipeRepository.delete(savedRecipe);
+        if (savedRecipeRepository.countByRecipeId(recipe.getId()) == 0) {
+            recipeRepository.delete(recipe);
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private static RecipeDetailResponse toDetail(Recipe recipe) {
+        RecipeDetailResponse detail = new RecipeDetailResponse();
+        detail.setId(recipe.getId());
+        detail.setTitle(recipe.getTitle());
+        detail.setPrepTime(recipe.getPrepTime());
+        detail.setServings(recipe.getServings());
+        detail.setDifficulty(recipe.getDifficulty());
+        detail.setIngredients(copy(recipe.getIngredients()));
+        detail.setSteps(copy(recipe.getSteps()));
+        detail.setTips(copy(recipe.getTips()));
+        detail.setContentHash(recipe.getContentHash() != null ? recipe.getContentHash() : RecipeHash.of(detail.getIngredients()));
+        return detail;
+    }
+
+    private static List<String> copy(List<String> values) {
+        return values == null ? List.of() : new ArrayList<>(values);
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.TrendingCombinationItem;
+import br.com.bitewise.api.util.CountMinSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combinações de ingredientes mais pedidas em {@code POST /api/recipes/generate}. Cada combinação
+ * normalizada (a lista em ordem alfabética do {@link IngredientDictionary}) conta num
+ * {@link CountMinSketch}, e as {@code trending.top-k} com maior estimativa ficam num mapa à parte, então a
+ * memória não cresce com o número de combinações distintas. A cada {@code trending.decay.interval-ms} as
+ * contagens caem pela metade, para a lista refletir o que está em alta agora.
+ */
+@Service
+public class TrendingCombinations {
+
+    private static final int DEPTH = 4;
+
+    private record Heavy(List<String> ingredients, int count) {
+    }
+
+    private final CountMinSketch sketch;
+    private final int topK;
+    private final int minCount;
+    // Chave da combinação -> ingredientes e estimativa no momento em que entrou ou foi atualizada
+    private final Map<String, Heavy> top = new HashMap<>();
+    private final Counter recorded;
+
+    public TrendingCombinations(MeterRegistry meterRegistry,
+                                @Value("${trending.top-k:50}") int topK,
+                                @Value("${trending.sketch.width:4096}") int width,
+                                @Value("${trending.min-count:3}") int minCount) {
+        this.sketch = new CountMinSketch(DEPTH, width);
+        this.topK = topK;
+        this.minCount = minCount;
+        this.recorded = Counter.builder("trending.combinations.recorded")
+                .description("Combinações de ingredientes contadas no sketch de mais pedidas")
+                .register(meterRegistry);
+    }
+
+    /** Conta um pedido de geração com os ingredientes já normalizados. */
+    public void record(List<String> ingredients) {
+        String key = String.join("\n", ingredients);
+        synchronized (this) {
+            int estimate = sketch.add(key);
+            if (top.containsKey(key) || top.size() < topK) {
+                top.put(key, new Heavy(List.copyOf(ingredients), estimate));
+            } else {
+                Map.Entry<String, Heavy> lowest = null;
+                for (Map.Entry<String, Heavy> entry : top.entrySet()) {
+                    if (lowest == null || entry.getValue().count() < lowest.getValue().count()) {
+                        lowest = entry;
+                    }
+                }
+                if (lowest != null && estimate > lowest.getValue().count()) {
+                    top.remove(lowest.getKey());
+                    top.put(key, new Heavy(List.copyOf(ingredients), estimate));
+                }
+            }
+        }
+        recorded.increment();
+    }
+
+    /** Até {@code limit} combinações, da mais para a menos pedida. */
+    public List<TrendingCombinationItem> top(int limit) {
+        List<Heavy> snapshot;
+        synchronized (this) {
+            snapshot = List.copyOf(top.values());
+        }
+        return snapshot.stream()
+                .sorted(Comparator.comparingInt(Heavy::count).reversed()
+                        .thenComparing(heavy -> String.join(", ", heavy.ingredients())))
+                .limit(limit)
+                .map(heavy -> new TrendingCombinationItem(heavy.ingredients(), heavy.count()))
+                .toList();
+    }
+
+    /**
+     * Como {@link #top}, só com as combinações pedidas ao menos {@code trending.min-count} vezes. É a lista
+     * pública: uma combinação pedida uma vez só diz o que um usuário cozinhou.
+     */
+    public List<TrendingCombinationItem> popular(int limit) {
+        return top(topK).stream().filter(item -> item.getCount() >= minCount).limit(limit).toList();
+    }
+
+    /** Divide as contagens por dois e tira do topo o que zerou. */
+    @Scheduled(fixedDelayString = "${trending.decay.interval-ms:3600000}", initialDelayString = "${trending.decay.interval-ms:3600000}")
+    public synchronized void decay() {
+        sketch.halve();
+        Iterator<Map.Entry<String, Heavy>> iterator = top.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Heavy> entry = iterator.next();
+            Heavy heavy = entry.getValue();
+            if (heavy.count() <= 1) {
+                iterator.remove();
+            } else {
+                entry.setValue(new Heavy(heavy.ingredients(), heavy.count() >>> 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.bitewise.api.util;
+
+/**
+ * Count-Min Sketch com atualização conservadora: estima quantas vezes cada chave apareceu usando
+ * {@code depth × width} contadores, sem guardar as chaves. A estimativa nunca fica abaixo da contagem
+ * real e o excesso é limitado pelo total dividido pela largura. {@link #halve} envelhece as contagens
+ * para o sketch acompanhar o que está em alta agora. Não é thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counts;
+
+    /** {@code width} é arredondada para a próxima potência de dois. */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth e width precisam ser positivos");
+        }
+        int size = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counts = new int[depth * size];
+    }
+
+    /** Conta mais uma ocorrência e devolve a nova estimativa da chave. */
+    public int add(String key) {
+        long h1 = MinHash.mix(key.hashCode());
+        long h2 = MinHash.mix(h1) | 1;
+        int estimate = estimate(h1, h2);
+        // Só sobe os contadores que estão no mínimo: os outros já superestimam a chave
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(row, h1, h2);
+            if (counts[cell] == estimate && estimate < Integer.MAX_VALUE) {
+                counts[cell]++;
+            }
+        }
+        return estimate == Integer.MAX_VALUE ? estimate : estimate + 1;
+    }
+
+    public int estimate(String key) {
+        long h1 = MinHash.mix(key.hashCode());
+        return estimate(h1, MinHash.mix(h1) | 1);
+    }
+
+    /** Divide todos os contadores por dois. */
+    public void halve() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] >>>= 1;
+        }
+    }
+
+    private int estimate(long h1, long h2) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[cell(row, h1, h2)]);
+        }
+        return min;
+    }
+
+    private int cell(int row, long h1, long h2) {
+        return row * (mask + 1) + (int) ((h1 + row * h2) >>> 32 & mask);
+    }
+}
@@ -0,0 +1,227 @@
+package br.com.bitewise.api.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trie imutável de nomes de ingredientes, achatada em arrays depois de montada: os filhos de cada nó
+ * ficam contíguos e ordenados por caractere (busca binária), e cada nó guarda a lista já ordenada das
+ * {@value #MAX_SUGGESTIONS} melhores entradas da subárvore, então o autocomplete custa só a descida
+ * pelo prefixo. As chaves devem vir normalizadas pelo chamador.
+ * <p>
+ * Entradas são ids inteiros definidos pelo chamador; {@code rank} menor aparece antes. Chaves
+ * "exatas" respondem a {@link #exact} e {@link #closest}; as demais só alimentam as sugestões.
+ */
+public final class IngredientTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] entries;
+    private final int[] ranks;
+    private final int[] topOffsets;
+    private final int[] topEntries;
+
+    private IngredientTrie(char[] labels, int[] firstChild, int[] childCount, int[] entries, int[] ranks,
+                           int[] topOffsets, int[] topEntries) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.entries = entries;
+        this.ranks = ranks;
+        this.topOffsets = topOffsets;
+        this.topEntries = topEntries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Entrada cuja chave exata é {@code key}, ou -1. */
+    public int exact(String key) {
+        int node = find(key);
+        return node < 0 ? -1 : entries[node];
+    }
+
+    /** Até {@code limit} entradas com alguma chave começando por {@code prefix}, da melhor para a pior. */
+    public int[] suggest(String prefix, int limit) {
+        int node = find(prefix);
+        if (node < 0) {
+            return new int[0];
+        }
+        int from = topOffsets[node];
+        int to = Math.min(topOffsets[node + 1], from + Math.max(0, limit));
+        return Arrays.copyOfRange(topEntries, from, to);
+    }
+
+    /**
+     * Entrada exata mais próxima de {@code key} por distância de edição (inserção, remoção, troca de um
+     * caractere ou inversão de dois vizinhos), até {@code maxEdits}; empates ficam com o menor rank.
+     * Retorna -1 se nenhuma estiver perto.
+     */
+    public int closest(String key, int maxEdits) {
+        int[] firstRow = new int[key.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        // {distância, rank, entrada}
+        int[] best = {maxEdits + 1, Integer.MAX_VALUE, -1};
+        for (int child = firstChild[0], end = child + childCount[0]; child < end; child++) {
+            closest(child, key, firstRow, null, '\0', maxEdits, best);
+        }
+        return best[2];
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    private void closest(int node, String key, int[] previous, int[] beforePrevious, char previousLabel,
+                         int maxEdits, int[] best) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int min = row[0];
+        char label = labels[node];
+        for (int i = 1; i < row.length; i++) {
+            int replace = previous[i - 1] + (key.charAt(i - 1) == label ? 0 : 1);
+            row[i] = Math.min(replace, Math.min(row[i - 1], previous[i]) + 1);
+            if (beforePrevious != null && i > 1 && key.charAt(i - 1) == previousLabel && key.charAt(i - 2) == label) {
+                row[i] = Math.min(row[i], beforePrevious[i - 2] + 1);
+            }
+            min = Math.min(min, row[i]);
+        }
+        int distance = row[row.length - 1];
+        if (entries[node] >= 0 && distance <= maxEdits
+                && (distance < best[0] || (distance == best[0] && ranks[node] < best[1]))) {
+            best[0] = distance;
+            best[1] = ranks[node];
+            best[2] = entries[node];
+        }
+        if (min > Math.min(maxEdits, best[0])) {
+            return;
+        }
+        for (int child = firstChild[node], end = child + childCount[node]; child < end; child++) {
+            closest(child, key, row, previous, label, maxEdits, best);
+        }
+    }
+
+    private int find(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = child(node, key.charAt(i));
+        }
+        return node;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public static final class Builder {
+
+        private static final class Node {
+            final TreeMap<Character, Node> children = new TreeMap<>();
+            final Map<Integer, Integer> candidates = new HashMap<>();
+            int entry = -1;
+            int rank = Integer.MAX_VALUE;
+            long[] top;
+        }
+
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        public Builder add(String key, int entry, int rank, boolean exact) {
+            if (key == null || key.isEmpty()) {
+                return this;
+            }
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            node.candidates.merge(entry, rank, Math::min);
+            if (exact && rank < node.rank) {
+                node.entry = entry;
+                node.rank = rank;
+            }
+            return this;
+        }
+
+        public IngredientTrie build() {
+            computeTop(root);
+
+            // Numeração em largura: os filhos de cada nó ganham ids consecutivos.
+            List<Node> order = new ArrayList<>();
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] firstChild = new int[size];
+            int[] childCount = new int[size];
+            int[] entries = new int[size];
+            int[] ranks = new int[size];
+            int[] topOffsets = new int[size + 1];
+            int topTotal = order.stream().mapToInt(node -> node.top.length).sum();
+            int[] topEntries = new int[topTotal];
+
+            int next = 1;
+            for (int id = 0; id < size; id++) {
+                Node node = order.get(id);
+                firstChild[id] = next;
+                childCount[id] = node.children.size();
+                for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                    labels[next++] = child.getKey();
+                }
+                entries[id] = node.entry;
+                ranks[id] = node.rank;
+                topOffsets[id + 1] = topOffsets[id] + node.top.length;
+                for (int i = 0; i < node.top.length; i++) {
+                    topEntries[topOffsets[id] + i] = (int) node.top[i];
+                }
+            }
+            return new IngredientTrie(labels, firstChild, childCount, entries, ranks, topOffsets, topEntries);
+        }
+
+        // Melhores entradas da subárvore, codificadas como (rank << 32 | entrada) para ordenar como long.
+        private static long[] computeTop(Node node) {
+            Map<Integer, Integer> best = new HashMap<>(node.candidates);
+            for (Node child : node.children.values()) {
+                for (long packed : computeTop(child)) {
+                    best.merge((int) packed, (int) (packed >>> 32), Math::min);
+                }
+            }
+            node.top = best.entrySet().stream()
+                    .mapToLong(e -> ((long) e.getValue() << 32) | e.getKey())
+                    .sorted()
+                    .limit(MAX_SUGGESTIONS)
+                    .toArray();
+            return node.top;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package br.com.bitewise.api.util;
 
+import br.com.bitewise.api.profiling.JwtVerificationEvent;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -21,6 +25,22 @@ public class JwtUtil {
     @Value("${jwt.expiration.time}")
     private long EXPIRATION_TIME;
 
+    private final Timer verificationSuccess;
+    private final Timer verificationFailure;
+
+    public JwtUtil(MeterRegistry meterRegistry) {
+        this.verificationSuccess = verificationTimer(meterRegistry, "success");
+        this.verificationFailure = verificationTimer(meterRegistry, "failure");
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.verification")
+                .description("Tempo de parsing e verificação de assinatura do JWT")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
     }
@@ -48,11 +68,25 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Claims claims = Jwts.parser()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            verificationSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.success = true;
+            return claims;
+        } catch (RuntimeException e) {
+            verificationFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            event.tokenLength = token == null ? 0 : token.length();
+            event.commit();
+        }
     }
 
     public Boolean isTokenValid(String token, UserDetails userDetails) {
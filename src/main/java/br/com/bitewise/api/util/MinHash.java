@@ -0,0 +1,87 @@
+package br.com.bitewise.api.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Assinaturas MinHash de conjuntos de strings: a fração de posições iguais entre duas assinaturas
+ * estima a similaridade de Jaccard dos conjuntos. As funções de hash são fixas (FNV-1a da string
+ * misturado com sementes constantes pelo finalizador do splitmix64), então assinaturas gravadas no
+ * banco continuam comparáveis entre execuções e versões.
+ */
+public final class MinHash {
+
+    public static final int SIZE = 60;
+
+    private static final long[] SEEDS = new long[SIZE];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /** Assinatura de {@link #SIZE} posições; um conjunto vazio dá um array vazio. */
+    public static int[] signature(Collection<String> values) {
+        if (values.isEmpty()) {
+            return new int[0];
+        }
+        int[] signature = new int[SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String value : values) {
+            long hash = fnv1a(value);
+            for (int i = 0; i < SIZE; i++) {
+                int h = (int) (mix(hash ^ SEEDS[i]) >>> 32);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /** Fração das {@link #SIZE} posições iguais entre {@code a[aOffset..]} e {@code b[bOffset..]}. */
+    public static double similarity(int[] a, int aOffset, int[] b, int bOffset) {
+        int equal = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (a[aOffset + i] == b[bOffset + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIZE;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    /** Finalizador do splitmix64: espalha bem os bits de um long. */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.bitewise.api.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabela de nutrientes por 100 g carregada de um CSV ({@code nome;sinonimos;kcal;proteina_g;gordura_g;
+ * carboidrato_g;g_unidade;g_ml}). Os valores ficam em arrays de float indexados pela linha e os nomes
+ * num único mapa de chave canônica (sem acento, minúsculas, cada palavra no singular) para índice.
+ */
+public final class NutrientTable {
+
+    public static final int KCAL = 0;
+    public static final int PROTEIN = 1;
+    public static final int FAT = 2;
+    public static final int CARBS = 3;
+
+    private static final int NUTRIENTS = 4;
+    private static final int MAX_WORDS = 4;
+
+    private final String[] names;
+    private final float[] nutrients;
+    private final float[] unitGrams;
+    private final float[] gramsPerMl;
+    private final Map<String, Integer> index;
+
+    private NutrientTable(String[] names, float[] nutrients, float[] unitGrams, float[] gramsPerMl,
+                          Map<String, Integer> index) {
+        this.names = names;
+        this.nutrients = nutrients;
+        this.unitGrams = unitGrams;
+        this.gramsPerMl = gramsPerMl;
+        this.index = index;
+    }
+
+    public static NutrientTable fromClasspath(String resource) {
+        try (InputStream in = NutrientTable.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Tabela nutricional não encontrada: " + resource);
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler a tabela nutricional " + resource, e);
+        }
+    }
+
+    public static NutrientTable load(InputStream in) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        boolean header = true;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            String[] columns = line.split(";", -1);
+            if (columns.length != 8) {
+                throw new IllegalStateException("Linha inválida na tabela nutricional: " + line);
+            }
+            rows.add(columns);
+        }
+
+        int size = rows.size();
+        String[] names = new String[size];
+        float[] nutrients = new float[size * NUTRIENTS];
+        float[] unitGrams = new float[size];
+        float[] gramsPerMl = new float[size];
+        Map<String, Integer> index = new HashMap<>(size * 4);
+        for (int i = 0; i < size; i++) {
+            String[] columns = rows.get(i);
+            names[i] = columns[0].trim();
+            for (int n = 0; n < NUTRIENTS; n++) {
+                nutrients[i * NUTRIENTS + n] = Float.parseFloat(columns[2 + n].trim());
+            }
+            unitGrams[i] = columns[6].isBlank() ? 0 : Float.parseFloat(columns[6].trim());
+            gramsPerMl[i] = columns[7].isBlank() ? 1 : Float.parseFloat(columns[7].trim());
+            index.putIfAbsent(TextNormalizer.canonicalKey(names[i]), i);
+            for (String alias : columns[1].split("\\|")) {
+                if (!alias.isBlank()) {
+                    index.putIfAbsent(TextNormalizer.canonicalKey(alias), i);
+                }
+            }
+        }
+        return new NutrientTable(names, nutrients, unitGrams, gramsPerMl, Map.copyOf(index));
+    }
+
+    /**
+     * Índice do alimento citado no texto ou -1. Procura, da esquerda para a direita, o nome mais longo
+     * (até quatro palavras) da tabela: "de farinha de trigo peneirada" casa com "farinha de trigo",
+     * "de queijo muçarela ralado" com "queijo muçarela".
+     */
+    public int match(String text) {
+        String[] words = words(text);
+        for (int start = 0; start < words.length; start++) {
+            for (int length = Math.min(MAX_WORDS, words.length - start); length > 0; length--) {
+                Integer found = index.get(String.join(" ", Arrays.asList(words).subList(start, start + length)));
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    /** Valor por 100 g; {@code nutrient} é uma das constantes KCAL, PROTEIN, FAT ou CARBS. */
+    public float per100g(int row, int nutrient) {
+        return nutrients[row * NUTRIENTS + nutrient];
+    }
+
+    /** Peso de uma unidade em gramas, ou 0 quando o alimento não é contado em unidades. */
+    public float unitGrams(int row) {
+        return unitGrams[row];
+    }
+
+    public float gramsPerMl(int row) {
+        return gramsPerMl[row];
+    }
+
+    private static String[] words(String text) {
+        String key = TextNormalizer.canonicalKey(text);
+        return key.isEmpty() ? new String[0] : key.split(" ");
+    }
+}
@@ -0,0 +1,260 @@
+package br.com.bitewise.api.util;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lê a quantidade no início de uma linha de ingrediente ("200 g de frango", "1 1/2 xícara de arroz",
+ * "meia colher de sopa de sal", "2 dentes de alho") e formata de volta depois de escalar ou converter.
+ * Linhas sem quantidade ("sal a gosto") não são reconhecidas.
+ */
+public final class QuantityParser {
+
+    public enum Dimension { MASS, VOLUME, COUNT }
+
+    /** Unidades conhecidas; {@code base} é o fator para g (massa) ou ml (volume). */
+    public enum Unit {
+        MILLIGRAM("mg", "mg", Dimension.MASS, 0.001),
+        GRAM("g", "g", Dimension.MASS, 1),
+        KILOGRAM("kg", "kg", Dimension.MASS, 1000),
+        OUNCE("oz", "oz", Dimension.MASS, 28.3495),
+        POUND("lb", "lb", Dimension.MASS, 453.592),
+        MILLILITER("ml", "ml", Dimension.VOLUME, 1),
+        LITER("litro", "litros", Dimension.VOLUME, 1000),
+        FLUID_OUNCE("fl oz", "fl oz", Dimension.VOLUME, 29.5735),
+        CUP("xícara", "xícaras", Dimension.VOLUME, 240),
+        TABLESPOON("colher de sopa", "colheres de sopa", Dimension.VOLUME, 15),
+        DESSERT_SPOON("colher de sobremesa", "colheres de sobremesa", Dimension.VOLUME, 10),
+        TEASPOON("colher de chá", "colheres de chá", Dimension.VOLUME, 5);
+
+        private final String singular;
+        private final String plural;
+        private final Dimension dimension;
+        private final double base;
+
+        Unit(String singular, String plural, Dimension dimension, double base) {
+            this.singular = singular;
+            this.plural = plural;
+            this.dimension = dimension;
+            this.base = base;
+        }
+
+        public Dimension dimension() {
+            return dimension;
+        }
+
+        public double base() {
+            return base;
+        }
+
+        public String label(double amount) {
+            return amount > 1 ? plural : singular;
+        }
+    }
+
+    /**
+     * Quantidade lida de uma linha. {@code unit} é nulo para contagens; nesse caso {@code countWord}
+     * guarda a palavra usada ("dente", "lata") ou é nulo ("3 ovos"). {@code ingredient} é o restante
+     * da linha como foi escrito, incluindo o "de".
+     */
+    public record Quantity(double amount, Unit unit, String countWord, String ingredient) {
+
+        public Quantity withAmount(double newAmount) {
+            return new Quantity(newAmount, unit, countWord, ingredient);
+        }
+
+        public Quantity withUnit(double newAmount, Unit newUnit) {
+            return new Quantity(newAmount, newUnit, null, ingredient);
+        }
+
+        public Dimension dimension() {
+            return unit == null ? Dimension.COUNT : unit.dimension();
+        }
+    }
+
+    private static final Map<String, Double> WORDS = Map.ofEntries(
+            Map.entry("meia", 0.5), Map.entry("meio", 0.5), Map.entry("um", 1.0), Map.entry("uma", 1.0),
+            Map.entry("dois", 2.0), Map.entry("duas", 2.0), Map.entry("três", 3.0), Map.entry("tres", 3.0),
+            Map.entry("quatro", 4.0), Map.entry("cinco", 5.0), Map.entry("seis", 6.0));
+
+    private static final Map<Character, Double> VULGAR_FRACTIONS = Map.of(
+            '½', 0.5, '¼', 0.25, '¾', 0.75, '⅓', 1.0 / 3, '⅔', 2.0 / 3);
+
+    private static final Map<String, String> COUNT_PLURALS = Map.ofEntries(
+            Map.entry("unidade", "unidades"), Map.entry("dente", "dentes"), Map.entry("lata", "latas"),
+            Map.entry("pitada", "pitadas"), Map.entry("fatia", "fatias"), Map.entry("maço", "maços"),
+            Map.entry("pacote", "pacotes"), Map.entry("caixa", "caixas"), Map.entry("copo", "copos"),
+            Map.entry("folha", "folhas"), Map.entry("ramo", "ramos"), Map.entry("pedaço", "pedaços"));
+
+    private static final Map<String, String> COUNT_SINGULARS = countSingulars();
+
+    private static final Pattern LINE = Pattern.compile(
+            "^\\s*(?<amount>\\d+\\s+\\d+/\\d+|\\d+/\\d+|\\d+(?:[.,]\\d+)?\\s*[½¼¾⅓⅔]?|[½¼¾⅓⅔]"
+                    + "|meia|meio|uma|um|duas|dois|três|tres|quatro|cinco|seis)"
+                    + "\\s*(?:(?<unit>colher(?:es)?\\s+de\\s+(?:sopa|ch[áa]|sobremesa)|x[íi]caras?(?:\\s+de\\s+ch[áa])?"
+                    + "|fl\\.?\\s*oz|kg|quilos?|quilogramas?|mg|g|gramas?|ml|mililitros?|l|litros?|oz|on[çc]as?|lbs?|libras?"
+                    + "|unidades?|dentes?|latas?|pitadas?|fatias?|ma[çc]os?|pacotes?|caixas?|copos?|folhas?|ramos?|peda[çc]os?)"
+                    + "(?![\\p{L}]))?\\.?\\s*(?<rest>.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private QuantityParser() {
+    }
+
+    public static Optional<Quantity> parse(String line) {
+        if (line == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = LINE.matcher(line);
+        if (!matcher.matches() || matcher.group("rest").isBlank()) {
+            return Optional.empty();
+        }
+        double amount = parseAmount(matcher.group("amount"));
+        String unitText = matcher.group("unit");
+        if (unitText == null) {
+            return Optional.of(new Quantity(amount, null, null, matcher.group("rest").trim()));
+        }
+        String normalized = unitText.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        Unit unit = unitOf(normalized);
+        String countWord = unit == null ? singularCountWord(normalized) : null;
+        return Optional.of(new Quantity(amount, unit, countWord, matcher.group("rest").trim()));
+    }
+
+    public static String format(Quantity quantity) {
+        double amount = quantity.amount();
+        StringBuilder sb = new StringBuilder(formatAmount(amount, quantity.unit()));
+        if (quantity.unit() != null) {
+            sb.append(' ').append(quantity.unit().label(amount));
+        } else if (quantity.countWord() != null) {
+            sb.append(' ').append(amount > 1 ? COUNT_PLURALS.getOrDefault(quantity.countWord(), quantity.countWord())
+                    : quantity.countWord());
+        }
+        return sb.append(' ').append(quantity.ingredient()).toString();
+    }
+
+    /** Troca g por kg (e ml por litro) e vice-versa quando a quantidade passa de 1000 ou fica abaixo de 1. */
+    public static Quantity normalizeUnit(Quantity quantity) {
+        Unit unit = quantity.unit();
+        double amount = quantity.amount();
+        if (unit == Unit.GRAM && amount >= 1000) {
+            return quantity.withUnit(amount / 1000, Unit.KILOGRAM);
+        }
+        if (unit == Unit.MILLILITER && amount >= 1000) {
+            return quantity.withUnit(amount / 1000, Unit.LITER);
+        }
+        if (unit == Unit.KILOGRAM && amount < 1) {
+            return quantity.withUnit(amount * 1000, Unit.GRAM);
+        }
+        if (unit == Unit.LITER && amount < 1) {
+            return quantity.withUnit(amount * 1000, Unit.MILLILITER);
+        }
+        return quantity;
+    }
+
+    static String formatAmount(double amount, Unit unit) {
+        if (unit == Unit.GRAM || unit == Unit.MILLILITER || unit == Unit.MILLIGRAM) {
+            if (amount >= 100) {
+                return Long.toString(Math.round(amount / 5) * 5);
+            }
+            if (amount >= 10) {
+                return Long.toString(Math.round(amount));
+            }
+            return trimDecimal(Math.round(amount * 10) / 10.0);
+        }
+        if ((unit == Unit.OUNCE || unit == Unit.FLUID_OUNCE) && amount >= 4) {
+            return Long.toString(Math.round(amount));
+        }
+        if (unit == Unit.KILOGRAM || unit == Unit.LITER) {
+            return trimDecimal(Math.round(amount * 100) / 100.0).replace('.', ',');
+        }
+        return fraction(amount);
+    }
+
+    private static String fraction(double amount) {
+        long quarters = Math.max(1, Math.round(amount * 4));
+        long whole = quarters / 4;
+        String part = switch ((int) (quarters % 4)) {
+            case 1 -> "1/4";
+            case 2 -> "1/2";
+            case 3 -> "3/4";
+            default -> "";
+        };
+        if (whole == 0) {
+            return part;
+        }
+        return part.isEmpty() ? Long.toString(whole) : whole + " " + part;
+    }
+
+    private static String trimDecimal(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static double parseAmount(String text) {
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        Double word = WORDS.get(value);
+        if (word != null) {
+            return word;
+        }
+        double total = 0;
+        char last = value.charAt(value.length() - 1);
+        if (VULGAR_FRACTIONS.containsKey(last)) {
+            total += VULGAR_FRACTIONS.get(last);
+            value = value.substring(0, value.length() - 1).trim();
+            if (value.isEmpty()) {
+                return total;
+            }
+        }
+        String[] parts = value.split("\\s+");
+        for (String part : parts) {
+            int slash = part.indexOf('/');
+            if (slash > 0) {
+                total += Double.parseDouble(part.substring(0, slash)) / Double.parseDouble(part.substring(slash + 1));
+            } else {
+                total += Double.parseDouble(part.replace(',', '.'));
+            }
+        }
+        return total;
+    }
+
+    private static Unit unitOf(String unit) {
+        String folded = TextNormalizer.foldAccents(unit);
+        if (folded.startsWith("colher")) {
+            if (folded.endsWith("sopa")) {
+                return Unit.TABLESPOON;
+            }
+            return folded.endsWith("sobremesa") ? Unit.DESSERT_SPOON : Unit.TEASPOON;
+        }
+        if (folded.startsWith("xicara")) {
+            return Unit.CUP;
+        }
+        if (folded.startsWith("fl")) {
+            return Unit.FLUID_OUNCE;
+        }
+        return switch (folded) {
+            case "mg" -> Unit.MILLIGRAM;
+            case "g", "grama", "gramas" -> Unit.GRAM;
+            case "kg", "quilo", "quilos", "quilograma", "quilogramas" -> Unit.KILOGRAM;
+            case "ml", "mililitro", "mililitros" -> Unit.MILLILITER;
+            case "l", "litro", "litros" -> Unit.LITER;
+            case "oz", "onca", "oncas" -> Unit.OUNCE;
+            case "lb", "lbs", "libra", "libras" -> Unit.POUND;
+            default -> null;
+        };
+    }
+
+    private static String singularCountWord(String unit) {
+        return COUNT_SINGULARS.getOrDefault(TextNormalizer.foldAccents(unit), unit);
+    }
+
+    private static Map<String, String> countSingulars() {
+        Map<String, String> singulars = new HashMap<>();
+        COUNT_PLURALS.forEach((singular, plural) -> {
+            singulars.put(TextNormalizer.foldAccents(singular), singular);
+            singulars.put(TextNormalizer.foldAccents(plural), singular);
+        });
+        return Map.copyOf(singulars);
+    }
+}
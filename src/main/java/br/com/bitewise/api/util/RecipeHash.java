@@ -0,0 +1,32 @@
+package br.com.bitewise.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SHA-256 da lista de ingredientes, ignorando ordem, caixa e espaços extras. É o que o prompt de
+ * modificação usa da receita original, então duas receitas com o mesmo hash geram o mesmo prompt.
+ */
+public final class RecipeHash {
+
+    private RecipeHash() {
+    }
+
+    public static String of(List<String> ingredients) {
+        List<String> lines = (ingredients == null ? List.<String>of() : ingredients).stream()
+                .filter(line -> line != null && !line.isBlank())
+                .map(line -> line.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT))
+                .sorted()
+                .toList();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
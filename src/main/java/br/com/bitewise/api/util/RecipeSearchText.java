@@ -0,0 +1,100 @@
+package br.com.bitewise.api.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Texto de busca das receitas salvas. O documento guardado em {@code recipes.search_text} é o título
+ * normalizado ({@link TextNormalizer#normalize}) na primeira linha e ingredientes, passos e dicas na
+ * segunda, então a busca ignora acentos tanto no PostgreSQL quanto no índice em memória.
+ * <p>
+ * {@link #terms} quebra um texto em termos para o índice em memória: sem palavras vazias e com um
+ * radical leve do português (plural, diminutivo e vogal final, exceto em "-ão"), de modo que
+ * "tomates", "tomatinho" e "tomate" viram o mesmo termo.
+ */
+public final class RecipeSearchText {
+
+    public static final int MAX_LENGTH = 8000;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "do", "da", "dos", "das", "em", "no", "na", "nos", "nas",
+            "um", "uma", "com", "sem", "por", "para", "pra", "ao", "aos", "ou", "que", "se", "ate");
+
+    private RecipeSearchText() {
+    }
+
+    public static String document(String title, List<String> ingredients, List<String> steps, List<String> tips) {
+        StringBuilder body = new StringBuilder();
+        for (List<String> lines : List.of(nullToEmpty(ingredients), nullToEmpty(steps), nullToEmpty(tips))) {
+            for (String line : lines) {
+                String normalized = TextNormalizer.normalize(line);
+                if (!normalized.isEmpty()) {
+                    body.append(body.length() == 0 ? "" : " ").append(normalized);
+                }
+            }
+        }
+        String document = TextNormalizer.normalize(title) + "\n" + body;
+        return document.length() <= MAX_LENGTH ? document : document.substring(0, MAX_LENGTH);
+    }
+
+    /** Título e corpo de um documento montado por {@link #document}. */
+    public static String[] split(String document) {
+        if (document == null) {
+            return new String[]{"", ""};
+        }
+        int newline = document.indexOf('\n');
+        return newline < 0
+                ? new String[]{document, ""}
+                : new String[]{document.substring(0, newline), document.substring(newline + 1)};
+    }
+
+    /** Termos distintos do texto, na ordem em que aparecem. */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            terms.add(stem(word));
+        }
+        return terms;
+    }
+
+    /** Palavras normalizadas do texto, sem as palavras vazias. */
+    public static List<String> words(String text) {
+        String normalized = TextNormalizer.normalize(text);
+        List<String> words = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return words;
+        }
+        for (String word : normalized.split(" ")) {
+            if (!STOPWORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    public static String stem(String word) {
+        String stem = word;
+        if (stem.length() > 3 && stem.endsWith("s")) {
+            stem = stem.endsWith("oes") || stem.endsWith("aes")
+                    ? stem.substring(0, stem.length() - 3) + "ao"
+                    : stem.substring(0, stem.length() - 1);
+        }
+        for (String suffix : new String[]{"zinho", "zinha", "inho", "inha"}) {
+            if (stem.endsWith(suffix) && stem.length() - suffix.length() >= 3) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                break;
+            }
+        }
+        char last = stem.charAt(stem.length() - 1);
+        if (stem.length() > 3 && (last == 'a' || last == 'e' || last == 'o') && !stem.endsWith("ao")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static List<String> nullToEmpty(List<String> lines) {
+        return lines == null ? List.of() : lines;
+    }
+}
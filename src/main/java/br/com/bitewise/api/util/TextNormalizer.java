@@ -0,0 +1,56 @@
+package br.com.bitewise.api.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto livre digitado pelo usuário: remove acentos, passa para minúsculas,
+ * troca pontuação por espaço e colapsa espaços. "Sem Glúten!" e "sem gluten" ficam iguais.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    public static String foldAccents(String text) {
+        if (text == null) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    public static String normalize(String text) {
+        String folded = foldAccents(text).toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * {@link #normalize} com cada palavra num singular aproximado, para casar nomes de alimentos:
+     * "Tomates", "limões" e "Pimentões" viram "tomate", "limao" e "pimentao".
+     */
+    public static String canonicalKey(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return normalized;
+        }
+        String[] words = normalized.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            words[i] = singular(words[i]);
+        }
+        return String.join(" ", words);
+    }
+
+    private static String singular(String word) {
+        if (word.length() <= 3 || !word.endsWith("s")) {
+            return word;
+        }
+        if (word.endsWith("oes") || word.endsWith("aes")) {
+            return word.substring(0, word.length() - 3) + "ao";
+        }
+        return word.substring(0, word.length() - 1);
+    }
+}
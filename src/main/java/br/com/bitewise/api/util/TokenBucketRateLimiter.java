@@ -0,0 +1,136 @@
+package br.com.bitewise.api.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket sem locks, implementado como GCRA: cada bucket guarda apenas o
+ * "theoretical arrival time" (TAT) em um AtomicLong, então consumir tokens é um
+ * único CAS. Um bucket com TAT no passado está cheio e pode ser descartado sem
+ * perda de estado, o que torna a remoção por inatividade trivial.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long capacity;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // Usado quando o mapa está cheio e nenhum bucket pôde ser removido: chaves novas
+    // passam a dividir um único bucket em vez de crescer o mapa sem limite.
+    private final AtomicLong overflowBucket = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucketRateLimiter(long capacity, long refillTokensPerMinute, int maxKeys) {
+        this(capacity, refillTokensPerMinute, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(long capacity, long refillTokensPerMinute, int maxKeys, LongSupplier nanoClock) {
+        if (capacity <= 0 || refillTokensPerMinute <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Capacidade, reposição e número máximo de chaves devem ser positivos.");
+        }
+        this.capacity = capacity;
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillTokensPerMinute;
+        this.burstToleranceNanos = capacity * emissionIntervalNanos;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    public Decision tryAcquire(String key, int cost) {
+        if (cost <= 0) {
+            throw new IllegalArgumentException("O custo deve ser positivo.");
+        }
+        AtomicLong bucket = bucketFor(key);
+        long increment = cost * emissionIntervalNanos;
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            long newTat = base + increment;
+            long debt = newTat - now;
+
+            if (debt > burstToleranceNanos) {
+                return new Decision(false, capacity, remaining(base - now), debt - burstToleranceNanos, base - now);
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return new Decision(true, capacity, remaining(debt), 0L, debt);
+            }
+        }
+    }
+
+    /**
+     * Devolve tokens consumidos por uma chamada que acabou rejeitada por outro limite.
+     */
+    public void refund(String key, int cost) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        long decrement = cost * emissionIntervalNanos;
+        bucket.getAndUpdate(tat -> tat - decrement);
+    }
+
+    /**
+     * Remove buckets já totalmente reabastecidos. Retorna quantos foram removidos.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int removed = 0;
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private AtomicLong bucketFor(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys && evictIdle() == 0 && buckets.size() >= maxKeys) {
+            return overflowBucket;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private long remaining(long debtNanos) {
+        long free = burstToleranceNanos - Math.max(debtNanos, 0L);
+        return Math.max(0L, free / emissionIntervalNanos);
+    }
+
+    public record Decision(boolean allowed, long limit, long remaining, long retryAfterNanos, long resetNanos) {
+
+        public long retryAfterSeconds() {
+            return ceilSeconds(retryAfterNanos);
+        }
+
+        public long resetSeconds() {
+            return ceilSeconds(resetNanos);
+        }
+
+        private static long ceilSeconds(long nanos) {
+            if (nanos <= 0) {
+                return 0L;
+            }
+            return (nanos + 999_999_999L) / 1_000_000_000L;
+        }
+    }
+}
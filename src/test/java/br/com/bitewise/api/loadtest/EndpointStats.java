@@ -0,0 +1,56 @@
+package br.com.bitewise.api.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências (em microssegundos) e contagem de erros de um endpoint durante o teste de carga.
+ */
+class EndpointStats {
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(2), 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long durationNanos, boolean success) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(durationNanos), latencies.getHighestTrackableValue()));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    long count() {
+        return latencies.getTotalCount();
+    }
+
+    double errorRate() {
+        long count = count();
+        return count == 0 ? 0.0 : (double) errors.sum() / count;
+    }
+
+    double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    String toRow(double elapsedSeconds) {
+        return String.format("| %-8s | %7d | %8.1f | %8.1f | %8.1f | %8.1f | %6.2f%% |",
+                name, count(), count() / elapsedSeconds,
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9), errorRate() * 100);
+    }
+
+    static String header() {
+        return "| Endpoint | Reqs    | Req/s    | p50 ms   | p99 ms   | p999 ms  | Erros   |\n"
+                + "|----------|---------|----------|----------|----------|----------|---------|";
+    }
+}
@@ -0,0 +1,287 @@
+package br.com.bitewise.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor HTTP local que imita o generateContent da Gemini, para testes de carga sem
+ * gastar cota. Latência, taxa de erro e tamanho das respostas são configuráveis. Responde
+ * {@code generationConfig.candidateCount} candidatos, exceto nos modelos de {@link #singleCandidateModels},
+ * que recusam o parâmetro com 400 como os modelos reais sem suporte. Também cria {@code cachedContents} e
+ * responde aos generateContent que os usam com {@code cachedContentTokenCount}, e 404 quando o cache não existe.
+ */
+public class GeminiStubServer implements AutoCloseable {
+
+    public enum PayloadSize {
+        SMALL(5, 4, 1), MEDIUM(10, 8, 3), LARGE(25, 20, 8);
+
+        final int ingredients;
+        final int steps;
+        final int tips;
+
+        PayloadSize(int ingredients, int steps, int tips) {
+            this.ingredients = ingredients;
+            this.steps = steps;
+            this.tips = tips;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong cacheCreations = new AtomicLong();
+    // nome do cachedContents -> tokens da instrução guardada
+    private final Map<String, Integer> cachedContents = new ConcurrentHashMap<>();
+    private volatile JsonNode lastRequest;
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile PayloadSize payloadSize = PayloadSize.MEDIUM;
+    private volatile Set<String> singleCandidateModels = Set.of();
+    private volatile boolean rejectCachedContents;
+    private volatile long cacheCreationLatencyMillis;
+    private volatile int rejectStatus;
+    private volatile String rejectMessage;
+
+    public GeminiStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/v1beta/models/", this::handleGenerateContent);
+        server.createContext("/v1beta/cachedContents", this::handleCreateCachedContent);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models";
+    }
+
+    public GeminiStubServer latency(long millis, long jitterMillis) {
+        this.latencyMillis = millis;
+        this.jitterMillis = jitterMillis;
+        return this;
+    }
+
+    public GeminiStubServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public GeminiStubServer payloadSize(PayloadSize payloadSize) {
+        this.payloadSize = payloadSize;
+        return this;
+    }
+
+    public GeminiStubServer singleCandidateModels(String... models) {
+        this.singleCandidateModels = Set.of(models);
+        return this;
+    }
+
+    /** Todo generateContent passa a responder {@code status} com {@code message}; 0 volta ao normal. */
+    public GeminiStubServer rejectRequests(int status, String message) {
+        this.rejectMessage = message;
+        this.rejectStatus = status;
+        return this;
+    }
+
+    /** Criações de cachedContents passam a falhar como as de instruções pequenas demais na Gemini. */
+    public GeminiStubServer rejectCachedContents(boolean reject) {
+        this.rejectCachedContents = reject;
+        return this;
+    }
+
+    /** Demora de cada criação de cachedContents, contada depois de {@link #cacheCreationCount} subir. */
+    public GeminiStubServer cacheCreationLatency(long millis) {
+        this.cacheCreationLatencyMillis = millis;
+        return this;
+    }
+
+    /** Apaga os caches criados, como a expiração do TTL na Gemini. */
+    public void expireCachedContents() {
+        cachedContents.clear();
+    }
+
+    public long cacheCreationCount() {
+        return cacheCreations.get();
+    }
+
+    /** Corpo do último generateContent recebido. */
+    public JsonNode lastRequest() {
+        return lastRequest;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    private void handleGenerateContent(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            if (!"POST".equals(exchange.getRequestMethod()) || !path.endsWith(":generateContent")) {
+                respond(exchange, 404, "{\"error\":{\"code\":404,\"message\":\"Not found\",\"status\":\"NOT_FOUND\"}}");
+                return;
+            }
+            requests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(body);
+            lastRequest = request;
+            sleep(latencyMillis, jitterMillis);
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"The model is overloaded.\",\"status\":\"UNAVAILABLE\"}}");
+                return;
+            }
+            if (rejectStatus > 0) {
+                respond(exchange, rejectStatus, objectMapper.writeValueAsString(Map.of("error", Map.of(
+                        "code", rejectStatus, "message", rejectMessage))));
+                return;
+            }
+            int cachedTokens = 0;
+            if (request.has("cachedContent")) {
+                if (request.has("systemInstruction")) {
+                    respond(exchange, 400, "{\"error\":{\"code\":400,\"message\":\"CachedContent can not be used with "
+                            + "GenerateContent request setting system_instruction.\",\"status\":\"INVALID_ARGUMENT\"}}");
+                    return;
+                }
+                Integer tokens = cachedContents.get(request.path("cachedContent").asText());
+                if (tokens == null) {
+                    respond(exchange, 404, "{\"error\":{\"code\":404,\"message\":\"CachedContent not found "
+                            + "(or permission denied)\",\"status\":\"NOT_FOUND\"}}");
+                    return;
+                }
+                cachedTokens = tokens;
+            }
+            int candidateCount = Math.max(1, request.path("generationConfig").path("candidateCount").asInt(1));
+            String model = path.substring(path.lastIndexOf('/') + 1, path.length() - ":generateContent".length());
+            if (candidateCount > 1 && singleCandidateModels.contains(model)) {
+                respond(exchange, 400, "{\"error\":{\"code\":400,\"message\":\"Multiple candidates is not enabled for models/"
+                        + model + "\",\"status\":\"INVALID_ARGUMENT\"}}");
+                return;
+            }
+            respond(exchange, 200, objectMapper.writeValueAsString(generateContentResponse(candidateCount, cachedTokens)));
+        }
+    }
+
+    private void handleCreateCachedContent(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody().readAllBytes());
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 404, "{\"error\":{\"code\":404,\"message\":\"Not found\",\"status\":\"NOT_FOUND\"}}");
+                return;
+            }
+            cacheCreations.incrementAndGet();
+            sleep(cacheCreationLatencyMillis, 0);
+            if (rejectCachedContents) {
+                respond(exchange, 400, "{\"error\":{\"code\":400,\"message\":\"Cached content is too small.\","
+                        + "\"status\":\"INVALID_ARGUMENT\"}}");
+                return;
+            }
+            String name = "cachedContents/stub-" + cacheCreations.get();
+            int tokens = request.path("systemInstruction").path("parts").path(0).path("text").asText().length() / 4;
+            cachedContents.put(name, tokens);
+            respond(exchange, 200, objectMapper.writeValueAsString(Map.of(
+                    "name", name,
+                    "model", request.path("model").asText(),
+                    "usageMetadata", Map.of("totalTokenCount", tokens))));
+        }
+    }
+
+    private static void sleep(long latencyMillis, long jitterMillis) {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        long delay = Math.max(0, latencyMillis + jitter);
+        if (delay == 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> generateContentResponse(int candidateCount, int cachedTokens) throws IOException {
+        List<Map<String, Object>> candidates = new ArrayList<>(candidateCount);
+        int candidateTokens = 0;
+        for (int index = 0; index < candidateCount; index++) {
+            String text = recipeText(index);
+            candidates.add(Map.of(
+                    "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                    "finishReason", "STOP",
+                    "index", index));
+            candidateTokens += text.length() / 4;
+        }
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("promptTokenCount", 80 + cachedTokens);
+        usage.put("candidatesTokenCount", candidateTokens);
+        usage.put("totalTokenCount", 80 + cachedTokens + candidateTokens);
+        if (cachedTokens > 0) {
+            usage.put("cachedContentTokenCount", cachedTokens);
+        }
+        return Map.of(
+                "candidates", candidates,
+                "usageMetadata", usage,
+                "modelVersion", "stub");
+    }
+
+    private String recipeText(int index) throws IOException {
+        PayloadSize size = payloadSize;
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("title", index == 0 ? "Receita de Teste de Carga" : "Receita de Teste de Carga " + (index + 1));
+        recipe.put("prepTime", "30 minutos");
+        recipe.put("servings", 4);
+        recipe.put("difficulty", "Fácil");
+        recipe.put("ingredients", lines("200 g de ingrediente", size.ingredients));
+        recipe.put("steps", lines("Passo detalhado de preparo com instruções completas para o cozinheiro", size.steps));
+        recipe.put("tips", lines("Dica para melhorar o sabor da receita", size.tips));
+        recipe.put("nutrition", Map.of("calories", 480, "proteinGrams", 30, "fatGrams", 14, "carbsGrams", 55));
+        return objectMapper.writeValueAsString(recipe);
+    }
+
+    private static List<String> lines(String prefix, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            lines.add(prefix + " " + i);
+        }
+        return lines;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
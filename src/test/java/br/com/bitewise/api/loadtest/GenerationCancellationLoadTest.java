@@ -0,0 +1,156 @@
+package br.com.bitewise.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prazo e desconexão ponta a ponta contra um stub lento da Gemini: a chamada de saída precisa ser abortada
+ * bem antes de o stub responder. Roda com -Ploadtest.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:cancellation;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("loadtest")
+class GenerationCancellationLoadTest {
+
+    private static final long STUB_LATENCY_MS = 3000;
+
+    private static GeminiStubServer stub;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private String token;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void geminiStub(DynamicPropertyRegistry registry) throws IOException {
+        stub = new GeminiStubServer().latency(STUB_LATENCY_MS, 0);
+        registry.add("gemini.api.base-url", stub::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void login() throws Exception {
+        String email = "cancel-" + UUID.randomUUID() + "@bitewise.com";
+        send(post("/api/auth/register", Map.of("name", "Cancel", "email", email, "password", "senha123456")).build());
+        HttpResponse<String> login = send(post("/api/auth/login", Map.of("email", email, "password", "senha123456")).build());
+        token = objectMapper.readTree(login.body()).path("token").asText();
+    }
+
+    @Test
+    void clientDeadlineAbortsTheUpstreamCall() throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(post("/api/recipes/generate",
+                Map.of("ingredients", List.of("arroz", "feijão", "cebola")))
+                .header("X-Request-Timeout", "500")
+                .build());
+
+        assertEquals(504, response.statusCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < STUB_LATENCY_MS);
+        assertEquals(1, cancelled("deadline"));
+    }
+
+    @Test
+    void disconnectAbortsTheUpstreamCall() throws Exception {
+        long requestsBefore = stub.requestCount();
+        try (Socket socket = rawGenerate(List.of("batata", "cenoura", "ovo"), null)) {
+            waitUntil(() -> stub.requestCount() > requestsBefore);
+        }
+        long closedAt = System.nanoTime();
+
+        waitUntil(() -> cancelled("disconnect") == 1);
+        assertTrue(Duration.ofNanos(System.nanoTime() - closedAt).toMillis() < STUB_LATENCY_MS);
+    }
+
+    @Test
+    void idempotentRequestsFinishForTheRetry() throws Exception {
+        long requestsBefore = stub.requestCount();
+        String key = UUID.randomUUID().toString();
+        try (Socket socket = rawGenerate(List.of("tomate", "queijo", "macarrão"), key)) {
+            waitUntil(() -> stub.requestCount() > requestsBefore);
+        }
+
+        HttpResponse<String> retry = send(post("/api/recipes/generate",
+                Map.of("ingredients", List.of("tomate", "queijo", "macarrão")))
+                .header("Idempotency-Key", key)
+                .build());
+        assertEquals(200, retry.statusCode());
+        assertEquals("true", retry.headers().firstValue("Idempotent-Replayed").orElse(null));
+        assertEquals(requestsBefore + 1, stub.requestCount());
+    }
+
+    private double cancelled(String reason) {
+        Counter counter = meterRegistry.find("gemini.cancelled").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private Socket rawGenerate(List<String> ingredients, String idempotencyKey) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("ingredients", ingredients));
+        Socket socket = new Socket("127.0.0.1", port);
+        OutputStream out = socket.getOutputStream();
+        out.write(("POST /api/recipes/generate HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + (idempotencyKey == null ? "" : "Idempotency-Key: " + idempotencyKey + "\r\n")
+                + "Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+        return socket;
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condição não atingida em 10s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package br.com.bitewise.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga ponta a ponta: sobe a API com H2 apontando para um stub local da Gemini e
+ * dispara uma mistura de register/login/generate/save/list. Roda apenas com -Ploadtest:
+ *
+ * <pre>mvn -Ploadtest test -Dloadtest.users=32 -Dloadtest.duration-seconds=60 -Dloadtest.stub.latency-ms=1500</pre>
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class RecipeApiLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 16);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 20);
+    private static final String MIX = System.getProperty("loadtest.mix", "register:2,login:8,generate:25,save:20,list:45");
+
+    private static GeminiStubServer stub;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void geminiStub(DynamicPropertyRegistry registry) throws IOException {
+        stub = new GeminiStubServer()
+                .latency(Long.getLong("loadtest.stub.latency-ms", 800), Long.getLong("loadtest.stub.jitter-ms", 300))
+                .errorRate(Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.02")))
+                .payloadSize(GeminiStubServer.PayloadSize.valueOf(System.getProperty("loadtest.stub.payload", "MEDIUM")));
+        registry.add("gemini.api.base-url", stub::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        Map<String, Integer> weights = parseMix(MIX);
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (String endpoint : weights.keySet()) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+        stats.putIfAbsent("register", new EndpointStats("register"));
+        stats.putIfAbsent("login", new EndpointStats("login"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        List<Future<?>> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(executor.submit(() -> {
+                new VirtualUser(stats, weights).run(deadline);
+                return null;
+            }));
+        }
+        for (Future<?> user : users) {
+            user.get();
+        }
+        executor.shutdown();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        String report = report(stats, elapsedSeconds);
+        System.out.println(report);
+        Files.writeString(Path.of("target", "loadtest-report.md"), report);
+
+        for (EndpointStats endpoint : stats.values()) {
+            assertTrue(endpoint.count() > 0, "Nenhuma requisição registrada para " + endpoint.name());
+            if (!endpoint.name().equals("generate")) {
+                assertTrue(endpoint.errorRate() < 0.01, "Taxa de erro alta em " + endpoint.name());
+            }
+        }
+    }
+
+    private String report(Map<String, EndpointStats> stats, double elapsedSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%n## Teste de carga: %d usuários, %.1fs, stub Gemini com %d chamadas (%d erros injetados)%n%n",
+                USERS, elapsedSeconds, stub.requestCount(), stub.injectedErrorCount()));
+        sb.append(EndpointStats.header()).append('\n');
+        for (EndpointStats endpoint : stats.values()) {
+            sb.append(endpoint.toRow(elapsedSeconds)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private class VirtualUser {
+
+        private final Map<String, EndpointStats> stats;
+        private final List<String> operations = new ArrayList<>();
+        private String email;
+        private String token;
+        private JsonNode lastRecipe;
+
+        VirtualUser(Map<String, EndpointStats> stats, Map<String, Integer> weights) {
+            this.stats = stats;
+            weights.forEach((operation, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    operations.add(operation);
+                }
+            });
+        }
+
+        void run(long deadline) throws Exception {
+            register();
+            login();
+            while (System.nanoTime() < deadline) {
+                switch (operations.get(ThreadLocalRandom.current().nextInt(operations.size()))) {
+                    case "register" -> {
+                        register();
+                        login();
+                    }
+                    case "login" -> login();
+                    case "generate" -> generate();
+                    case "save" -> save();
+                    case "list" -> call("list", get("/api/users/me/saved-recipes"));
+                    default -> throw new IllegalArgumentException("Operação desconhecida no mix");
+                }
+            }
+        }
+
+        private void register() throws Exception {
+            email = "load-" + UUID.randomUUID() + "@bitewise.com";
+            call("register", post("/api/auth/register", Map.of("name", "Load", "email", email, "password", "senha123456"), false));
+        }
+
+        private void login() throws Exception {
+            HttpResponse<String> response = call("login", post("/api/auth/login", Map.of("email", email, "password", "senha123456"), false));
+            if (response != null && response.statusCode() == 200) {
+                token = objectMapper.readTree(response.body()).path("token").asText();
+            }
+        }
+
+        private void generate() throws Exception {
+            List<String> ingredients = List.of("frango", "arroz", "tomate", "cebola", "alho", "limão", "batata")
+                    .subList(0, 3 + ThreadLocalRandom.current().nextInt(4));
+            HttpResponse<String> response = call("generate", post("/api/recipes/generate", Map.of("ingredients", ingredients), true));
+            if (response != null && response.statusCode() == 200) {
+                lastRecipe = objectMapper.readTree(response.body());
+            }
+        }
+
+        private void save() throws Exception {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("title", lastRecipe == null ? "Arroz com Frango" : lastRecipe.path("title").asText());
+            body.put("prepTime", "30 minutos");
+            body.put("servings", 4);
+            body.put("difficulty", "Fácil");
+            body.put("ingredients", lastRecipe == null ? List.of("200 g de frango", "1 xícara de arroz") : lastRecipe.path("ingredients"));
+            body.put("steps", lastRecipe == null ? List.of("Cozinhe o arroz", "Junte o frango") : lastRecipe.path("steps"));
+            body.put("tips", List.of("Sirva quente"));
+            call("save", post("/api/recipes/save", body, true));
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+        }
+
+        private HttpRequest post(String path, Object body, boolean authenticated) throws IOException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+            if (authenticated) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder.build();
+        }
+
+        private HttpResponse<String> call(String endpoint, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                stats.get(endpoint).record(System.nanoTime() - start, response.statusCode() < 400);
+                return response;
+            } catch (IOException e) {
+                stats.get(endpoint).record(System.nanoTime() - start, false);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stats.get(endpoint).record(System.nanoTime() - start, false);
+                return null;
+            }
+        }
+    }
+}
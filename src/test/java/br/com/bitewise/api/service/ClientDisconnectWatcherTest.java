@@ -0,0 +1,111 @@
+package br.com.bitewise.api.service;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientDisconnectWatcherTest {
+
+    private final ClientDisconnectWatcher watcher = new ClientDisconnectWatcher(50);
+    private final BlockingQueue<AsyncContext> pending = new LinkedBlockingQueue<>();
+    private final BlockingQueue<ClientDisconnectWatcher.Watch> watches = new LinkedBlockingQueue<>();
+    private final CountDownLatch disconnected = new CountDownLatch(1);
+    private Tomcat tomcat;
+
+    @BeforeEach
+    void startTomcat() throws LifecycleException {
+        tomcat = new Tomcat();
+        tomcat.setPort(0);
+        tomcat.setBaseDir(System.getProperty("java.io.tmpdir"));
+        tomcat.getConnector();
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "slow", new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                // Como o Spring MVC: corpo lido antes de a requisição virar assíncrona
+                request.getInputStream().readAllBytes();
+                AsyncContext async = request.startAsync();
+                async.setTimeout(10_000);
+                watches.add(watcher.watch(request, disconnected::countDown));
+                pending.add(async);
+            }
+        }).setAsyncSupported(true);
+        context.addServletMappingDecoded("/generate", "slow");
+        tomcat.start();
+    }
+
+    @AfterEach
+    void stopTomcat() throws LifecycleException {
+        watcher.shutdown();
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    @Test
+    void noticesWhenTheClientClosesTheConnection() throws Exception {
+        try (Socket socket = post()) {
+            assertTrue(pending.poll(5, TimeUnit.SECONDS) != null);
+            assertFalse(disconnected.await(300, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(disconnected.await(2, TimeUnit.SECONDS));
+        assertEquals(0, watcher.watching());
+    }
+
+    @Test
+    void stopsWatchingOnceTheResponseIsReady() throws Exception {
+        try (Socket socket = post()) {
+            AsyncContext async = pending.poll(5, TimeUnit.SECONDS);
+            ClientDisconnectWatcher.Watch watch = watches.poll(5, TimeUnit.SECONDS);
+            assertEquals(1, watcher.watching());
+
+            watch.close();
+            async.getResponse().setContentType("application/json");
+            async.getResponse().getWriter().write("{}");
+            async.complete();
+
+            String response = new String(readResponse(socket.getInputStream()), StandardCharsets.US_ASCII);
+            assertTrue(response.startsWith("HTTP/1.1 200"));
+        }
+        assertEquals(0, watcher.watching());
+        assertFalse(disconnected.await(300, TimeUnit.MILLISECONDS));
+    }
+
+    private Socket post() throws IOException {
+        Socket socket = new Socket("127.0.0.1", tomcat.getConnector().getLocalPort());
+        socket.setSoTimeout(5000);
+        OutputStream out = socket.getOutputStream();
+        out.write(("POST /generate HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Content-Length: 2\r\n\r\n{}").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private static byte[] readResponse(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        int read = in.read(buffer);
+        return read < 0 ? new byte[0] : Arrays.copyOf(buffer, read);
+    }
+}
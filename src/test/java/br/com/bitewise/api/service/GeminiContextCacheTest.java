@@ -0,0 +1,135 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.loadtest.GeminiStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiContextCacheTest {
+
+    private static final List<String> INGREDIENTS = List.of("500 g de frango", "2 tomates");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeminiMetrics metrics = new GeminiMetrics(registry);
+    private final GeminiStubServer stub = new GeminiStubServer();
+
+    GeminiContextCacheTest() throws IOException {
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void staticInstructionIsCachedOnceAndReused() {
+        GeminiService service = service(new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 0, 30));
+
+        service.modifyRecipe(INGREDIENTS, "sem glúten", null);
+        service.modifyRecipe(INGREDIENTS, "vegana", null);
+
+        assertEquals(1, stub.cacheCreationCount());
+        assertEquals("cachedContents/stub-1", stub.lastRequest().path("cachedContent").asText());
+        assertFalse(stub.lastRequest().has("systemInstruction"));
+        assertTrue(stub.lastRequest().path("contents").path(0).path("parts").path(0).path("text").asText().startsWith("Instrução: 'vegana'"));
+        assertEquals(2, registry.get("gemini.context.cache").tag("result", "hit").counter().count());
+        assertEquals(2, registry.get("gemini.tokens").tag("type", "cached").summary().count());
+    }
+
+    @Test
+    void rejectedOrSmallInstructionsGoInline() {
+        stub.rejectCachedContents(true);
+        GeminiService service = service(new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 0, 30));
+
+        service.modifyRecipe(INGREDIENTS, "sem glúten", null);
+        service.modifyRecipe(INGREDIENTS, "vegana", null);
+
+        // A recusa vale por retry-minutes: não há nova tentativa a cada chamada
+        assertEquals(1, stub.cacheCreationCount());
+        assertTrue(stub.lastRequest().has("systemInstruction"));
+        assertEquals(1, registry.get("gemini.context.cache").tag("result", "failed").counter().count());
+        assertEquals(2, registry.get("gemini.context.cache").tag("result", "inline").counter().count());
+
+        GeminiService small = service(new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 1024, 30));
+        small.modifyRecipe(INGREDIENTS, "sem lactose", null);
+        assertEquals(1, stub.cacheCreationCount());
+    }
+
+    @Test
+    void expiredCacheFallsBackInlineAndIsRecreated() {
+        GeminiService service = service(new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 0, 30));
+        service.modifyRecipe(INGREDIENTS, "sem glúten", null);
+
+        stub.expireCachedContents();
+        service.modifyRecipe(INGREDIENTS, "vegana", null);
+        assertTrue(stub.lastRequest().has("systemInstruction"));
+        assertEquals(1, registry.get("gemini.context.cache").tag("result", "invalidated").counter().count());
+
+        service.modifyRecipe(INGREDIENTS, "sem lactose", null);
+        assertEquals(2, stub.cacheCreationCount());
+        assertEquals("cachedContents/stub-2", stub.lastRequest().path("cachedContent").asText());
+        assertEquals(3, registry.get("gemini.request").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void errorsUnrelatedToTheCacheKeepIt() {
+        GeminiService service = service(new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 0, 30));
+        service.modifyRecipe(INGREDIENTS, "sem glúten", null);
+
+        // 403 de permissão não diz nada sobre o cache: nem invalida nem repete a chamada
+        stub.rejectRequests(403, "Permission denied: API key not valid.");
+        assertThrows(RuntimeException.class, () -> service.modifyRecipe(INGREDIENTS, "vegana", null));
+        assertEquals(2, stub.requestCount());
+
+        stub.rejectRequests(0, null);
+        service.modifyRecipe(INGREDIENTS, "sem lactose", null);
+        assertEquals(1, stub.cacheCreationCount());
+        assertEquals("cachedContents/stub-1", stub.lastRequest().path("cachedContent").asText());
+        assertTrue(registry.find("gemini.context.cache").tag("result", "invalidated").counters().isEmpty());
+    }
+
+    @Test
+    void slowCreationOnlyHoldsCallersOfTheSameKey() throws Exception {
+        stub.cacheCreationLatency(1000);
+        GeminiContextCache cache = new GeminiContextCache(metrics, stub.baseUrl(), "test", true, 60, 10, 30);
+        CompletableFuture<Optional<String>> slow = CompletableFuture.supplyAsync(
+                () -> cache.cachedContent("gemini-pro", "modify", "x".repeat(400)));
+        while (stub.cacheCreationCount() == 0) {
+            Thread.sleep(10);
+        }
+
+        // Instrução curta em outra chave não vai à Gemini e não espera a criação em andamento
+        long start = System.nanoTime();
+        assertTrue(cache.cachedContent("gemini-fast", "generate", "curta").isEmpty());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertFalse(slow.isDone());
+        assertEquals(Optional.of("cachedContents/stub-1"), slow.get(5, TimeUnit.SECONDS));
+    }
+
+    private GeminiService service(GeminiContextCache contextCache) {
+        GeminiService service = new GeminiService(metrics, null, new GenerationBudgets(
+                new GenerationBudgets.Budget(GenerationBudgets.GENERATE, 4096, null, 15, 10, 3),
+                new GenerationBudgets.Budget(GenerationBudgets.MODIFY, 2048, null, 0, 8, 3)),
+                new ModelRouter(new ModelRouter.Tier(ModelRouter.FAST, "gemini-fast", 30000),
+                        new ModelRouter.Tier(ModelRouter.PRO, "gemini-pro", 90000),
+                        new ModelRouter.Policy(true, 4, ModelRouter.PRO, Set.of(), 20000, 0.5, 10, 60000), registry),
+                contextCache, 8, 8);
+        ReflectionTestUtils.setField(service, "baseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(service, "apiKey", "test");
+        ReflectionTestUtils.setField(service, "nutritionSource", "local");
+        return service;
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.bitewise.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeminiMetrics metrics = new GeminiMetrics(registry);
+
+    @Test
+    void recordsCallsByOutcome() {
+        metrics.recordCall("gemini-2.5-pro", "generate", GeminiMetrics.OUTCOME_SUCCESS, TimeUnit.MILLISECONDS.toNanos(1200));
+        metrics.recordCall("gemini-2.5-pro", "generate", GeminiMetrics.OUTCOME_BLOCKED, TimeUnit.MILLISECONDS.toNanos(300));
+
+        assertEquals(1, registry.get("gemini.request").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("gemini.request").tag("outcome", "blocked").timer().count());
+    }
+
+    @Test
+    void recordsTokenUsageFromUsageMetadata() throws Exception {
+        metrics.recordUsage("gemini-2.5-pro", "modify", new ObjectMapper().readTree(
+                "{\"promptTokenCount\":120,\"candidatesTokenCount\":480,\"totalTokenCount\":600}"));
+
+        assertEquals(120, registry.get("gemini.tokens").tag("type", "prompt").summary().totalAmount());
+        assertEquals(480, registry.get("gemini.tokens").tag("endpoint", "modify").tag("type", "candidates").summary().totalAmount());
+        assertNull(registry.find("gemini.tokens").tag("type", "thoughts").summary());
+    }
+}
@@ -0,0 +1,190 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.loadtest.GeminiStubServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiServiceTest {
+
+    private static final List<String> INGREDIENTS = List.of("500 g de frango", "2 tomates");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeminiStubServer stub = new GeminiStubServer();
+    private final GeminiService service;
+
+    GeminiServiceTest() throws IOException {
+        service = service(8, 8);
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void deadlineAbortsASlowCall() {
+        stub.latency(5000, 0);
+        long start = System.nanoTime();
+
+        GeminiCancelledException e = assertThrows(GeminiCancelledException.class, () ->
+                RequestDeadline.after(Duration.ofMillis(300)).run(() -> service.modifyRecipe(INGREDIENTS, "sem glúten", null)));
+
+        assertEquals(RequestDeadline.REASON_DEADLINE, e.getReason());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertEquals(1, registry.get("gemini.cancelled").tag("reason", "deadline").counter().count());
+        assertEquals(1, registry.get("gemini.request").tag("outcome", "cancelled").timer().count());
+    }
+
+    @Test
+    void cancelAbortsTheCallInFlight() throws Exception {
+        stub.latency(5000, 0);
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(30));
+        CompletableFuture<RecipeResponse> call = CompletableFuture.supplyAsync(() ->
+                deadline.run(() -> service.modifyRecipe(INGREDIENTS, "sem glúten", null)));
+        while (stub.requestCount() == 0) {
+            Thread.sleep(10);
+        }
+        long start = System.nanoTime();
+        deadline.cancel(RequestDeadline.REASON_DISCONNECT);
+
+        Exception e = assertThrows(Exception.class, () -> call.get(3, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof GeminiCancelledException);
+        assertEquals(RequestDeadline.REASON_DISCONNECT, ((GeminiCancelledException) e.getCause()).getReason());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, registry.get("gemini.cancelled").tag("reason", "disconnect").counter().count());
+
+        // Cancelado antes de começar: nem chega a chamar
+        assertThrows(GeminiCancelledException.class, () -> deadline.run(() -> service.modifyRecipe(INGREDIENTS, "sem sal", null)));
+        assertEquals(1, stub.requestCount());
+    }
+
+    @Test
+    void callsWithoutDeadlineStillParseAndReportErrors() {
+        RecipeResponse recipe = service.modifyRecipe(INGREDIENTS, "sem glúten", null);
+        assertEquals("Receita de Teste de Carga", recipe.getTitle());
+
+        stub.errorRate(1.0);
+        assertThrows(RuntimeException.class, () -> service.modifyRecipe(INGREDIENTS, "sem glúten", null));
+        assertEquals(1, registry.get("gemini.request").tag("model", "gemini-pro").tag("endpoint", "modify").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("gemini.request").tag("outcome", "http_error").timer().count());
+        assertEquals(1, registry.get("gemini.finish").tag("endpoint", "modify").tag("reason", "STOP").counter().count());
+        assertEquals(2, registry.get("gemini.routing").tag("tier", "pro").tag("reason", "modify").counter().count());
+        assertEquals(80, registry.get("gemini.tokens").tag("endpoint", "modify").tag("type", "prompt").summary().totalAmount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void requestBodyCarriesTheEndpointBudget() {
+        Map<String, Object> generate = (Map<String, Object>) service.buildRequestBody("prompt",
+                new GenerationBudgets.Budget(GenerationBudgets.GENERATE, 4096, 1024, 15, 10, 3)).get("generationConfig");
+        assertEquals(4096, generate.get("maxOutputTokens"));
+        assertEquals(Map.of("thinkingBudget", 1024), generate.get("thinkingConfig"));
+        Map<String, Object> properties = (Map<String, Object>) ((Map<String, Object>) generate.get("responseSchema")).get("properties");
+        assertEquals(15, ((Map<String, Object>) properties.get("ingredients")).get("maxItems"));
+        assertEquals(10, ((Map<String, Object>) properties.get("steps")).get("maxItems"));
+        assertEquals(3, ((Map<String, Object>) properties.get("tips")).get("maxItems"));
+
+        Map<String, Object> modify = (Map<String, Object>) service.buildRequestBody("prompt",
+                new GenerationBudgets.Budget(GenerationBudgets.MODIFY, 2048, null, 0, 8, 3)).get("generationConfig");
+        assertFalse(modify.containsKey("thinkingConfig"));
+        properties = (Map<String, Object>) ((Map<String, Object>) modify.get("responseSchema")).get("properties");
+        assertFalse(((Map<String, Object>) properties.get("ingredients")).containsKey("maxItems"));
+    }
+
+    @Test
+    void variationsComeFromASingleCallWithCandidateCount() {
+        List<RecipeResponse> variations = service.generateVariations(INGREDIENTS, 3, null);
+
+        assertEquals(3, variations.size());
+        assertEquals(3, variations.stream().map(RecipeResponse::getTitle).distinct().count());
+        assertEquals(1, stub.requestCount());
+        assertEquals(3, registry.get("gemini.variations").tag("model", "gemini-fast").tag("mode", "candidates").counter().count());
+    }
+
+    @Test
+    void modelsWithoutCandidateCountGetParallelCalls() {
+        stub.singleCandidateModels("gemini-fast");
+
+        assertEquals(3, service.generateVariations(INGREDIENTS, 3, null).size());
+        assertEquals(4, stub.requestCount());
+        // O modelo fica marcado: a próxima vez já sai em paralelo, sem o 400
+        assertEquals(2, service.generateVariations(INGREDIENTS, 2, null).size());
+        assertEquals(6, stub.requestCount());
+        assertEquals(5, registry.get("gemini.variations").tag("mode", "parallel").counter().count());
+    }
+
+    @Test
+    void otherBadRequestsDoNotDisableCandidateCount() {
+        stub.rejectRequests(400, "Invalid JSON payload received. Unknown name \"foo\"");
+        assertThrows(RuntimeException.class, () -> service.generateVariations(INGREDIENTS, 3, null));
+        assertEquals(1, stub.requestCount());
+
+        stub.rejectRequests(0, null);
+        assertEquals(3, service.generateVariations(INGREDIENTS, 3, null).size());
+        assertEquals(2, stub.requestCount());
+    }
+
+    @Test
+    void candidateCountIsRetriedAfterTheFallbackExpires() {
+        ReflectionTestUtils.setField(service, "singleCandidateRetryMinutes", 0L);
+        stub.singleCandidateModels("gemini-fast");
+        assertEquals(2, service.generateVariations(INGREDIENTS, 2, null).size());
+        assertEquals(3, stub.requestCount());
+
+        // O modelo passou a aceitar: sem o prazo, ficaria em chamadas paralelas para sempre
+        stub.singleCandidateModels();
+        assertEquals(2, service.generateVariations(INGREDIENTS, 2, null).size());
+        assertEquals(4, stub.requestCount());
+    }
+
+    @Test
+    void fullVariationPoolYieldsFewerVariationsInsteadOfWaiting() {
+        GeminiService service = service(1, 0);
+        stub.singleCandidateModels("gemini-fast").latency(200, 0);
+
+        // Uma chamada na thread atual, uma no pool de uma thread; as outras duas são recusadas
+        assertEquals(2, service.generateVariations(INGREDIENTS, 4, null).size());
+        assertEquals(3, stub.requestCount());
+        service.shutdown();
+    }
+
+    @Test
+    void truncatedResponsesAreReportedAsSuch() throws Exception {
+        GeminiResponseException e = assertThrows(GeminiResponseException.class, () -> service.parseRecipe(
+                new ObjectMapper().readTree("{\"candidates\": [{\"finishReason\": \"MAX_TOKENS\", \"content\": {\"parts\": "
+                        + "[{\"text\": \"{\\\"title\\\": \\\"Frango\"}]}}]}")));
+        assertEquals(GeminiMetrics.OUTCOME_TRUNCATED, e.getOutcome());
+    }
+
+    private GeminiService service(int variationConcurrency, int variationQueueCapacity) {
+        GeminiService service = new GeminiService(new GeminiMetrics(registry), null, new GenerationBudgets(
+                new GenerationBudgets.Budget(GenerationBudgets.GENERATE, 4096, 1024, 15, 10, 3),
+                new GenerationBudgets.Budget(GenerationBudgets.MODIFY, 2048, null, 0, 8, 3)),
+                new ModelRouter(new ModelRouter.Tier(ModelRouter.FAST, "gemini-fast", 30000),
+                        new ModelRouter.Tier(ModelRouter.PRO, "gemini-pro", 90000),
+                        new ModelRouter.Policy(true, 4, ModelRouter.PRO, Set.of(), 20000, 0.5, 10, 60000), registry),
+                new GeminiContextCache(new GeminiMetrics(registry), stub.baseUrl(), "test", false, 60, 0, 30),
+                variationConcurrency, variationQueueCapacity);
+        ReflectionTestUtils.setField(service, "baseUrl", stub.baseUrl());
+        ReflectionTestUtils.setField(service, "apiKey", "test");
+        ReflectionTestUtils.setField(service, "nutritionSource", "local");
+        return service;
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.RecipeResponse;
+import br.com.bitewise.api.model.GeneratedRecipe;
+import br.com.bitewise.api.repository.GeneratedRecipeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(CacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GeneratedRecipeStoreTest {
+
+    private static final String MODEL = "gemini-2.5-pro";
+    private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+    @Autowired
+    private GeneratedRecipeRepository repository;
+
+    @Test
+    void sharesCompressedGenerationsBetweenInstances() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GeneratedRecipeStore writer = store(registry, NOW);
+        writer.save("a1", MODEL, recipe("Frango Assado"), new ObjectMapper().readTree(
+                "{\"promptTokenCount\": 120, \"candidatesTokenCount\": 480, \"totalTokenCount\": 900}"));
+
+        GeneratedRecipe row = repository.findByPromptHashAndModel("a1", MODEL).orElseThrow();
+        assertEquals(0x1f, row.getPayload()[0] & 0xff);
+        assertEquals(0x8b, row.getPayload()[1] & 0xff);
+        assertEquals(900, row.getTotalTokens());
+        assertEquals(NOW.plus(Duration.ofHours(24)), row.getExpiresAt());
+
+        GeneratedRecipeStore restarted = store(registry, NOW.plusSeconds(60));
+        RecipeResponse first = restarted.find("a1", MODEL).orElseThrow();
+        first.setTitle("Alterado pelo chamador");
+        assertEquals("Frango Assado", restarted.find("a1", MODEL).orElseThrow().getTitle());
+        assertTrue(restarted.find("a1", "outro-modelo").isEmpty());
+
+        assertEquals(1, registry.get("generation.store").tag("result", "database").counter().count());
+        assertEquals(1, registry.get("generation.store").tag("result", "local").counter().count());
+        assertEquals(1, registry.get("generation.store").tag("result", "miss").counter().count());
+        assertEquals(1800, registry.get("generation.store.saved").counter().count());
+    }
+
+    @Test
+    void expiredGenerationsAreIgnoredRenewedAndPurged() {
+        GeneratedRecipeStore store = store(new SimpleMeterRegistry(), NOW);
+        store.save("b1", MODEL, recipe("Omelete"), null);
+        store.save("b2", MODEL, recipe("Purê"), null);
+
+        GeneratedRecipeStore later = store(new SimpleMeterRegistry(), NOW.plus(Duration.ofHours(25)));
+        assertTrue(later.find("b1", MODEL).isEmpty());
+        later.save("b1", MODEL, recipe("Omelete de Queijo"), null);
+        assertEquals("Omelete de Queijo", later.find("b1", MODEL).orElseThrow().getTitle());
+
+        later.purgeExpired();
+        assertTrue(repository.findByPromptHashAndModel("b2", MODEL).isEmpty());
+        assertEquals(1, repository.findAll().stream().filter(row -> row.getPromptHash().startsWith("b")).count());
+    }
+
+    @Test
+    void promptHashIgnoresMapOrder() {
+        GeneratedRecipeStore store = store(new SimpleMeterRegistry(), NOW);
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("contents", List.of(Map.of("parts", List.of(Map.of("text", "frango, arroz")))));
+        first.put("generationConfig", Map.of("temperature", 0.7, "responseMimeType", "application/json"));
+        Map<String, Object> second = new HashMap<>();
+        second.put("generationConfig", new LinkedHashMap<>(Map.of("responseMimeType", "application/json", "temperature", 0.7)));
+        second.put("contents", List.of(Map.of("parts", List.of(Map.of("text", "frango, arroz")))));
+
+        assertEquals(store.promptHash(first), store.promptHash(second));
+        assertEquals(64, store.promptHash(first).length());
+        second.put("contents", List.of(Map.of("parts", List.of(Map.of("text", "frango, feijão")))));
+        assertNotEquals(store.promptHash(first), store.promptHash(second));
+    }
+
+    private GeneratedRecipeStore store(SimpleMeterRegistry registry, Instant now) {
+        return new GeneratedRecipeStore(repository, registry, true, Duration.ofHours(24), 100,
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static RecipeResponse recipe(String title) {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle(title);
+        recipe.setPrepTime("30 minutos");
+        recipe.setServings(2);
+        recipe.setDifficulty("Fácil");
+        recipe.setIngredients(List.of("2 ovos", "50 g de queijo"));
+        recipe.setSteps(List.of("Bata os ovos.", "Leve à frigideira."));
+        recipe.setTips(List.of());
+        return recipe;
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GenerationPrewarmerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Sao_Paulo");
+    // 04:00 em São Paulo, dentro da janela 3h-6h
+    private static final Instant OFF_PEAK = Instant.parse("2026-03-10T07:00:00Z");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+    private final TrendingCombinations trending = new TrendingCombinations(registry, 10, 1024, 3);
+    private final GenerationReuseCache reuseCache = new GenerationReuseCache(dictionary, registry, true, 0.8, 100, 60);
+    private static final ModelRouter.Tier FAST = new ModelRouter.Tier(ModelRouter.FAST, "gemini-fast", 20000);
+    private static final ModelRouter.Tier PRO = new ModelRouter.Tier(ModelRouter.PRO, "gemini-pro", 90000);
+
+    private final GeminiService geminiService = mock(GeminiService.class);
+    private ModelRouter modelRouter = router(Set.of());
+    private final NutritionService nutritionService = new NutritionService(registry, "local", 100);
+
+    @Test
+    void warmsTopCombinationsWithinTheUpstreamBudget() {
+        repeat(List.of("arroz", "frango", "tomate"), 9);
+        repeat(List.of("farinha de trigo", "leite", "ovo"), 7);
+        repeat(List.of("batata", "cebola", "queijo"), 5);
+        repeat(List.of("abacate", "limão", "mel"), 1);
+        when(geminiService.hasStoredRecipe(eq(List.of("farinha de trigo", "leite", "ovo")), any())).thenReturn(true);
+        when(geminiService.generateRecipe(any(), any(ModelRouter.Route.class))).thenAnswer(invocation -> recipe());
+
+        prewarmer(OFF_PEAK, 1, 10).run();
+
+        // Uma chamada à IA por execução; a combinação já gravada não gasta orçamento
+        assertTrue(reuseCache.contains(List.of("arroz", "frango", "tomate")));
+        assertTrue(reuseCache.contains(List.of("farinha de trigo", "leite", "ovo")));
+        assertFalse(reuseCache.contains(List.of("batata", "cebola", "queijo")));
+        assertEquals(1, registry.get("generation.prewarm").tag("source", "upstream").counter().count());
+        assertEquals(1, registry.get("generation.prewarm").tag("source", "store").counter().count());
+        verify(geminiService, never()).generateRecipe(eq(List.of("abacate", "limão", "mel")), any(ModelRouter.Route.class));
+    }
+
+    @Test
+    void staysIdleOutsideTheWindowAndStopsAtTheDailyBudget() {
+        repeat(List.of("arroz", "frango", "tomate"), 9);
+        repeat(List.of("batata", "cebola", "queijo"), 5);
+        when(geminiService.generateRecipe(any(), any(ModelRouter.Route.class))).thenAnswer(invocation -> recipe());
+
+        prewarmer(OFF_PEAK.plusSeconds(6 * 3600), 5, 10).run();
+        verify(geminiService, never()).generateRecipe(any(), any(ModelRouter.Route.class));
+
+        GenerationPrewarmer prewarmer = prewarmer(OFF_PEAK, 5, 1);
+        prewarmer.run();
+        prewarmer.run();
+        verify(geminiService, times(1)).generateRecipe(any(), any(ModelRouter.Route.class));
+    }
+
+    @Test
+    void warmsEveryTierTheRequestCouldBeRoutedTo() {
+        modelRouter = router(Set.of("chef@bitewise.com"));
+        List<String> ingredients = List.of("arroz", "frango", "tomate");
+        repeat(ingredients, 9);
+        when(geminiService.hasStoredRecipe(ingredients, FAST)).thenReturn(true);
+        when(geminiService.generateRecipe(any(), any(ModelRouter.Route.class))).thenAnswer(invocation -> recipe());
+
+        prewarmer(OFF_PEAK, 5, 10).run();
+
+        // Usuários comuns caem no fast (já gravado) e os pro-users no pro, que gasta orçamento
+        verify(geminiService).generateRecipe(ingredients, new ModelRouter.Route(FAST, ModelRouter.REASON_PREWARM));
+        verify(geminiService).generateRecipe(ingredients, new ModelRouter.Route(PRO, ModelRouter.REASON_PREWARM));
+        assertEquals(1, registry.get("generation.prewarm").tag("source", "store").counter().count());
+        assertEquals(1, registry.get("generation.prewarm").tag("source", "upstream").counter().count());
+    }
+
+    private GenerationPrewarmer prewarmer(Instant now, int perRun, int dailyBudget) {
+        return new GenerationPrewarmer(trending, geminiService, modelRouter, nutritionService, reuseCache, registry, true,
+                Clock.fixed(now, ZONE), 3, 6, 10, 3, perRun, dailyBudget);
+    }
+
+    private ModelRouter router(Set<String> proUsers) {
+        return new ModelRouter(FAST, PRO, new ModelRouter.Policy(true, 4, ModelRouter.PRO, proUsers, 20000, 0.5, 10, 60000),
+                new SimpleMeterRegistry());
+    }
+
+    private void repeat(List<String> ingredients, int times) {
+        for (int i = 0; i < times; i++) {
+            trending.record(ingredients);
+        }
+    }
+
+    private static RecipeResponse recipe() {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle("Receita");
+        recipe.setIngredients(List.of("1 xícara de arroz"));
+        recipe.setSteps(List.of("Cozinhe."));
+        recipe.setTips(List.of());
+        return recipe;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.RecipeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenerationReuseCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+
+    @Test
+    void reusesGenerationsForSetsThatOnlyDifferInStaples() {
+        GenerationReuseCache cache = new GenerationReuseCache(dictionary, registry, true, 0.8, 100, 60);
+        cache.put(List.of("arroz", "frango", "tomate"), recipe("Frango com Arroz"));
+
+        RecipeResponse reused = cache.find(List.of("arroz", "frango", "sal", "tomate")).orElseThrow();
+
+        assertEquals("Frango com Arroz", reused.getTitle());
+        assertTrue(reused.isReused());
+        assertTrue(cache.find(List.of("arroz", "cebola", "frango", "tomate")).isEmpty());
+        assertTrue(cache.find(List.of("chocolate", "farinha de trigo", "ovo")).isEmpty());
+        assertEquals(1, registry.get("generation.reuse").tag("result", "hit").counter().count());
+        assertEquals(2, registry.get("generation.reuse").tag("result", "miss").counter().count());
+        assertEquals(3, registry.get("generation.reuse.similarity").summary().count());
+    }
+
+    @Test
+    void thresholdAndSwitchControlReuse() {
+        GenerationReuseCache loose = new GenerationReuseCache(dictionary, registry, true, 0.7, 100, 60);
+        RecipeResponse stored = recipe("Frango com Arroz");
+        loose.put(List.of("arroz", "frango", "tomate"), stored);
+        assertTrue(loose.find(List.of("arroz", "cebola", "frango", "tomate")).isPresent());
+        assertFalse(stored.isReused());
+
+        GenerationReuseCache disabled = new GenerationReuseCache(dictionary, registry, false, 0.8, 100, 60);
+        disabled.put(List.of("arroz", "frango", "tomate"), recipe("Frango com Arroz"));
+        assertEquals(0, disabled.size());
+        assertTrue(disabled.find(List.of("arroz", "frango", "tomate")).isEmpty());
+    }
+
+    private static RecipeResponse recipe(String title) {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle(title);
+        recipe.setIngredients(List.of("2 xícaras de arroz"));
+        recipe.setSteps(List.of("Cozinhe."));
+        recipe.setTips(List.of());
+        return recipe;
+    }
+}
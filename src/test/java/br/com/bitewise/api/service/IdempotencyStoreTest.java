@@ -0,0 +1,151 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.GenerateRecipeRequest;
+import br.com.bitewise.api.dto.MessageResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IdempotencyStore store = new IdempotencyStore(registry, true, 100, 60, 5);
+
+    @Test
+    void concurrentDuplicateAttachesToTheRunningExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GenerateRecipeRequest request = request("arroz", "frango", "tomate");
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("ana@bitewise.com", "generate", "k1", request, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok(new MessageResponse("gerada"));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> retry = CompletableFuture.supplyAsync(() ->
+                store.execute("ana@bitewise.com", "generate", "k1", request("arroz", "frango", "tomate"), () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok(new MessageResponse("outra"));
+                }));
+        while (registry.find("idempotency.requests").tag("result", "joined").counter() == null) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        ResponseEntity<?> original = first.get(5, TimeUnit.SECONDS);
+        ResponseEntity<?> joined = retry.get(5, TimeUnit.SECONDS);
+        assertEquals(1, calls.get());
+        assertSame(original.getBody(), joined.getBody());
+        assertNull(original.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", joined.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+
+        ResponseEntity<?> replayed = store.execute("ana@bitewise.com", "generate", "k1", request, () -> {
+            throw new AssertionError("não deveria executar de novo");
+        });
+        assertSame(original.getBody(), replayed.getBody());
+        assertEquals(1, registry.get("idempotency.requests").tag("result", "executed").counter().count());
+        assertEquals(1, registry.get("idempotency.requests").tag("result", "joined").counter().count());
+        assertEquals(1, registry.get("idempotency.requests").tag("result", "replayed").counter().count());
+    }
+
+    @Test
+    void joinedDuplicateWaitsOnlyUntilItsOwnDeadline() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GenerateRecipeRequest request = request("arroz", "frango", "tomate");
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("ana@bitewise.com", "generate", "k4", request, () -> {
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok(new MessageResponse("gerada"));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        ResponseEntity<?> joined = RequestDeadline.after(Duration.ofMillis(200)).run(() ->
+                store.execute("ana@bitewise.com", "generate", "k4", request, () -> {
+                    throw new AssertionError("não deveria executar de novo");
+                }));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertEquals(504, joined.getStatusCode().value());
+        assertTrue(elapsedMillis < 2000, "esperou " + elapsedMillis + " ms");
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatusCode().value());
+    }
+
+    @Test
+    void keysAreScopedAndBoundToTheRequestBody() {
+        AtomicInteger calls = new AtomicInteger();
+        GenerateRecipeRequest request = request("arroz", "frango", "tomate");
+        store.execute("ana@bitewise.com", "generate", "k2", request, () -> ok(calls));
+
+        ResponseEntity<?> conflict = store.execute("ana@bitewise.com", "generate", "k2",
+                request("arroz", "feijão", "tomate"), () -> ok(calls));
+        assertEquals(422, conflict.getStatusCode().value());
+
+        store.execute("bia@bitewise.com", "generate", "k2", request, () -> ok(calls));
+        store.execute("ana@bitewise.com", "modify", "k2", request, () -> ok(calls));
+        store.execute("ana@bitewise.com", "generate", null, request, () -> ok(calls));
+        assertEquals(4, calls.get());
+        assertEquals(400, store.execute("ana@bitewise.com", "generate", " ", request, () -> ok(calls))
+                .getStatusCode().value());
+        assertEquals(1, registry.get("idempotency.requests").tag("result", "conflict").counter().count());
+    }
+
+    @Test
+    void failuresAreNotKept() {
+        AtomicInteger calls = new AtomicInteger();
+        GenerateRecipeRequest request = request("arroz", "frango", "tomate");
+
+        assertThrows(IllegalStateException.class, () -> store.execute("ana@bitewise.com", "save", "k3", request, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("banco fora do ar");
+        }));
+        ResponseEntity<?> error = store.execute("ana@bitewise.com", "save", "k3", request, () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(500).body(new MessageResponse("Erro"));
+        });
+        assertEquals(500, error.getStatusCode().value());
+        ResponseEntity<?> retried = store.execute("ana@bitewise.com", "save", "k3", request, () -> ok(calls));
+
+        assertEquals(200, retried.getStatusCode().value());
+        assertEquals(3, calls.get());
+    }
+
+    private static ResponseEntity<?> ok(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return ResponseEntity.ok(new MessageResponse("ok"));
+    }
+
+    private static GenerateRecipeRequest request(String... ingredients) {
+        GenerateRecipeRequest request = new GenerateRecipeRequest();
+        request.setIngredients(List.of(ingredients));
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
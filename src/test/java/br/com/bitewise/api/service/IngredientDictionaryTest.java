@@ -0,0 +1,86 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.service.IngredientDictionary.Match;
+import br.com.bitewise.api.service.IngredientDictionary.Normalization;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngredientDictionaryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngredientDictionary dictionary = new IngredientDictionary(registry, false);
+
+    @Test
+    void suggestsNamesIgnoringAccentsAndMatchingInnerWords() {
+        assertEquals(List.of("limão"), dictionary.suggest("LIMA", 10));
+        assertTrue(dictionary.suggest("fran", 10).containsAll(List.of("frango", "peito de frango")));
+        assertEquals("frango", dictionary.suggest("fran", 10).get(0));
+        assertEquals(List.of("mandioca"), dictionary.suggest("macax", 10));
+        assertEquals(List.of("pimentão"), dictionary.suggest("pimentões", 10));
+        assertEquals(3, dictionary.suggest("ca", 3).size());
+        assertEquals(List.of(), dictionary.suggest("  ", 10));
+    }
+
+    @Test
+    void resolvesSynonymsPluralsAndTypos() {
+        assertResolution("Tomates", "tomate", Match.EXACT);
+        assertResolution("macaxeira", "mandioca", Match.SYNONYM);
+        assertResolution("Mussarela", "mozarela", Match.SYNONYM);
+        assertResolution("frnago", "frnago", Match.CORRECTED);
+        assertResolution("beringela", "berinjela", Match.SYNONYM);
+        assertResolution("brocolli", "brocolli", Match.CORRECTED);
+        assertEquals("brócolis", dictionary.lookup("brocolli").suggestion());
+        assertResolution("tucupi", "tucupi", Match.UNKNOWN);
+        assertResolution("!!!", null, Match.INVALID);
+        assertResolution("12345", null, Match.INVALID);
+    }
+
+    @Test
+    void keepsRealWordsNearAnEntryAsTyped() {
+        assertEquals("milho", dictionary.lookup("molho").suggestion());
+        assertEquals("cacau em pó", dictionary.lookup("cação").suggestion());
+
+        Normalization normalization = dictionary.normalize(List.of("molho", "cação", "arroz"));
+        assertEquals(List.of("arroz", "cação", "molho"), normalization.ingredients());
+        assertEquals("milho", normalization.suggestions().get("molho"));
+
+        IngredientDictionary strict = new IngredientDictionary(new SimpleMeterRegistry(), true);
+        assertEquals(List.of("frnago"), strict.normalize(List.of("arroz", "frnago", "feijão")).rejected());
+    }
+
+    @Test
+    void normalizesListForPrompt() {
+        Normalization normalization = dictionary.normalize(List.of("Tomates", "tomate", "aipim", "Frango", " Tucupi "));
+
+        assertEquals(List.of("frango", "mandioca", "tomate", "tucupi"), normalization.ingredients());
+        assertTrue(normalization.rejected().isEmpty());
+        assertEquals(3, registry.get("ingredients.resolved").tag("result", "exact").counter().count());
+    }
+
+    @Test
+    void rejectsJunkAndUnknownWhenStrict() {
+        IngredientDictionary strict = new IngredientDictionary(new SimpleMeterRegistry(), true);
+
+        assertEquals(List.of("???"), dictionary.normalize(List.of("arroz", "???", "feijão")).rejected());
+        assertEquals(List.of("tucupi"), strict.normalize(List.of("arroz", "tucupi", "feijão")).rejected());
+    }
+
+    @Test
+    void buildsIngredientSetWithoutStaples() {
+        assertEquals(Set.of("peito de frango", "tomate", "tamara"), dictionary.ingredientSet(List.of(
+                "500 g de peito de frango", "3 tomates maduros", "1 xícara de tâmaras", "Sal a gosto",
+                "Azeite para regar", "")));
+    }
+
+    private void assertResolution(String input, String name, Match match) {
+        IngredientDictionary.Resolution resolution = dictionary.resolve(input);
+        assertEquals(match, resolution.match(), input);
+        assertEquals(name, resolution.name(), input);
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.NutritionFacts;
+import br.com.bitewise.api.dto.RecipeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalModificationEngineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LocalModificationEngine engine = new LocalModificationEngine(new IngredientDictionary(registry, false), registry);
+
+    @Test
+    void scalesToTargetServings() {
+        RecipeResponse scaled = engine.apply(recipe(), "Ajuste a receita para 8 pessoas").orElseThrow();
+
+        assertEquals(8, scaled.getServings());
+        assertEquals(List.of("1 kg de peito de frango", "2 xícaras de arroz", "Suco de 2 limões",
+                "4 dentes de alho", "sal a gosto"), scaled.getIngredients());
+    }
+
+    @Test
+    void halvesAndDoubles() {
+        assertEquals("1/2 xícara de arroz", engine.apply(recipe(), "metade").orElseThrow().getIngredients().get(1));
+        assertEquals("1 kg de peito de frango", engine.apply(recipe(), "dobrar a receita").orElseThrow().getIngredients().get(0));
+    }
+
+    @Test
+    void convertsUnitsAndTemperatures() {
+        RecipeResponse imperial = engine.apply(recipe(), "converter para medidas imperiais").orElseThrow();
+
+        assertEquals("18 oz de peito de frango", imperial.getIngredients().get(0));
+        assertEquals("Asse a 355 °F por 30 minutos.", imperial.getSteps().get(1));
+        assertEquals(recipe().getNutrition(), imperial.getNutrition());
+    }
+
+    @Test
+    void swapsIngredientEverywhere() {
+        RecipeResponse swapped = engine.apply(recipe(), "Troque o frango por tofu").orElseThrow();
+
+        assertEquals("Tofu ao Limão", swapped.getTitle());
+        assertEquals("500 g de peito de tofu", swapped.getIngredients().get(0));
+        assertEquals("Tempere o tofu com sal e pimenta.", swapped.getSteps().get(0));
+        assertNull(swapped.getNutrition());
+    }
+
+    @Test
+    void removesSeasoningFromIngredientsAndSteps() {
+        RecipeResponse recipe = recipe();
+        recipe.setIngredients(List.of("500 g de frango", "pimenta-do-reino a gosto", "sal a gosto"));
+
+        RecipeResponse withoutPepper = engine.apply(recipe, "sem pimenta").orElseThrow();
+
+        assertEquals(List.of("500 g de frango", "sal a gosto"), withoutPepper.getIngredients());
+        assertEquals("Tempere o frango com sal.", withoutPepper.getSteps().get(0));
+    }
+
+    @Test
+    void fallsBackWhenRemovalWouldBreakAStep() {
+        RecipeResponse recipe = recipe();
+        recipe.setSteps(List.of("Tempere o frango com sal.", "Asse a 180 °C por 30 minutos."));
+
+        assertTrue(engine.apply(recipe, "sem sal").isEmpty());
+        assertTrue(engine.apply(recipe(), "sem sal").isEmpty());
+
+        recipe.setSteps(List.of("Tempere o frango com alho e sal.", "Asse a 180 °C por 30 minutos."));
+        RecipeResponse withoutSalt = engine.apply(recipe, "sem sal").orElseThrow();
+        assertEquals("Tempere o frango com alho.", withoutSalt.getSteps().get(0));
+        assertEquals(4, withoutSalt.getIngredients().size());
+    }
+
+    @Test
+    void fallsBackWhenInstructionIsNotFullyUnderstood() {
+        assertTrue(engine.apply(recipe(), "deixe vegana").isEmpty());
+        assertTrue(engine.apply(recipe(), "sem glúten").isEmpty());
+        assertTrue(engine.apply(recipe(), "para 8 pessoas e mais picante").isEmpty());
+        assertTrue(engine.apply(recipe(), "troque o frango por tofu e deixe picante").isEmpty());
+        assertTrue(engine.apply(recipe(), "troque o camarão por tofu").isEmpty());
+    }
+
+    @Test
+    void sendsSwapsToUnknownTermsToTheModel() {
+        assertTrue(engine.apply(recipe(), "troque o frango por uma proteína vegetal").isEmpty());
+        assertTrue(engine.apply(recipe(), "substitua o arroz por algo mais leve").isEmpty());
+        assertTrue(engine.apply(recipe(), "use algo mais leve no lugar do arroz").isEmpty());
+    }
+
+    @Test
+    void reportsHitRatio() {
+        engine.apply(recipe(), "para 2 porções");
+        engine.apply(recipe(), "deixe vegana");
+
+        assertEquals(0.5, registry.get("recipe.modify.fastpath.ratio").gauge().value());
+        assertEquals(1, registry.get("recipe.modify.fastpath").tag("type", "scale").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("recipe.modify.fastpath").tag("type", "none").tag("result", "miss").counter().count());
+    }
+
+    private static RecipeResponse recipe() {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle("Frango ao Limão");
+        recipe.setServings(4);
+        recipe.setIngredients(List.of("500 g de peito de frango", "1 xícara de arroz", "Suco de 2 limões",
+                "2 dentes de alho", "sal a gosto"));
+        recipe.setSteps(List.of("Tempere o frango com sal e pimenta.", "Asse a 180 °C por 30 minutos."));
+        NutritionFacts nutrition = new NutritionFacts();
+        nutrition.setCalories(420.0);
+        recipe.setNutrition(nutrition);
+        return recipe;
+    }
+}
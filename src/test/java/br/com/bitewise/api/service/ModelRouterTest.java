@@ -0,0 +1,77 @@
+package br.com.bitewise.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModelRouterTest {
+
+    private static final ModelRouter.Tier FAST = new ModelRouter.Tier(ModelRouter.FAST, "gemini-fast", 20000);
+    private static final ModelRouter.Tier PRO = new ModelRouter.Tier(ModelRouter.PRO, "gemini-pro", 90000);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void routesByIngredientsEndpointAndUser() {
+        ModelRouter router = router(new ModelRouter.Policy(true, 4, ModelRouter.PRO,
+                Set.of("chef@bitewise.com"), 20000, 0.5, 5, 60000));
+
+        assertEquals(new ModelRouter.Route(FAST, ModelRouter.REASON_SIMPLE), router.route(GenerationBudgets.GENERATE, 3, null));
+        assertEquals(new ModelRouter.Route(PRO, ModelRouter.REASON_COMPLEX), router.route(GenerationBudgets.GENERATE, 5, "ana@bitewise.com"));
+        assertEquals(new ModelRouter.Route(PRO, ModelRouter.REASON_MODIFY), router.route(GenerationBudgets.MODIFY, 2, "ana@bitewise.com"));
+        assertEquals(new ModelRouter.Route(PRO, ModelRouter.REASON_USER), router.route(GenerationBudgets.GENERATE, 3, "Chef@Bitewise.com"));
+
+        ModelRouter disabled = router(new ModelRouter.Policy(false, 4, ModelRouter.FAST, Set.of(), 20000, 0.5, 5, 60000));
+        assertEquals(new ModelRouter.Route(PRO, ModelRouter.REASON_DISABLED), disabled.route(GenerationBudgets.GENERATE, 3, null));
+
+        // O pré-aquecimento cobre os níveis que route() escolheria para qualquer usuário
+        assertEquals(List.of(FAST, PRO), router.generationTiers(3));
+        assertEquals(List.of(PRO), router.generationTiers(5));
+        assertEquals(List.of(PRO), disabled.generationTiers(3));
+        assertEquals(List.of(FAST), router(new ModelRouter.Policy(true, 4, ModelRouter.PRO, Set.of(), 20000, 0.5, 5, 60000))
+                .generationTiers(3));
+    }
+
+    @Test
+    void slowOrFailingProSendsEverythingToFastUntilCooldown() {
+        ModelRouter router = router(new ModelRouter.Policy(true, 4, ModelRouter.PRO, Set.of(), 20000, 0.5, 5, 60000));
+        for (int i = 0; i < 4; i++) {
+            router.record(PRO, GeminiMetrics.OUTCOME_SUCCESS, TimeUnit.SECONDS.toNanos(40));
+        }
+        // Poucas amostras ainda não decidem
+        assertEquals(PRO, router.route(GenerationBudgets.GENERATE, 8, null).tier());
+
+        router.record(PRO, GeminiMetrics.OUTCOME_SUCCESS, TimeUnit.SECONDS.toNanos(40));
+        assertEquals(40000, registry.get("gemini.routing.latency").tag("tier", "pro").gauge().value());
+        assertEquals(new ModelRouter.Route(FAST, ModelRouter.REASON_DEGRADED), router.route(GenerationBudgets.GENERATE, 8, null));
+        assertEquals(new ModelRouter.Route(FAST, ModelRouter.REASON_DEGRADED), router.route(GenerationBudgets.MODIFY, 2, null));
+        assertEquals(0, registry.get("gemini.routing.latency").tag("tier", "pro").gauge().value());
+    }
+
+    @Test
+    void errorRateDegradesButCancellationsAreIgnored() {
+        ModelRouter router = router(new ModelRouter.Policy(true, 4, ModelRouter.PRO, Set.of(), 20000, 0.5, 5, 0));
+        for (int i = 0; i < 10; i++) {
+            router.record(PRO, GeminiMetrics.OUTCOME_CANCELLED, TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(PRO, router.route(GenerationBudgets.GENERATE, 8, null).tier());
+
+        for (int i = 0; i < 5; i++) {
+            router.record(PRO, GeminiMetrics.OUTCOME_HTTP_ERROR, TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertEquals(1.0, registry.get("gemini.routing.error.rate").tag("tier", "pro").gauge().value());
+        assertEquals(0, registry.get("gemini.routing.latency").tag("tier", "pro").gauge().value());
+        // Sem cooldown o pro volta na mesma hora, com as médias zeradas
+        assertEquals(PRO, router.route(GenerationBudgets.GENERATE, 8, null).tier());
+        assertEquals(0, registry.get("gemini.routing.error.rate").tag("tier", "pro").gauge().value());
+    }
+
+    private ModelRouter router(ModelRouter.Policy policy) {
+        return new ModelRouter(FAST, PRO, policy, registry);
+    }
+}
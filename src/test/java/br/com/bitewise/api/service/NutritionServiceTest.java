@@ -0,0 +1,98 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.NutritionFacts;
+import br.com.bitewise.api.dto.RecipeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NutritionServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final NutritionService service = new NutritionService(registry, "local", 100);
+
+    @Test
+    void computesPerServingFromIngredientLines() {
+        NutritionFacts facts = service.compute(recipe(2)).orElseThrow();
+
+        // 200 g de frango + 1 xícara (192 g) de arroz + 2 ovos + 1 colher de sopa (13,8 g) de azeite, em 2 porções.
+        assertEquals(595.0, facts.getCalories());
+        assertEquals(34.9, facts.getProteinGrams());
+        assertEquals(14.6, facts.getFatGrams());
+        assertEquals(76.4, facts.getCarbsGrams());
+        assertEquals(1.0, facts.getCoverage());
+        assertEquals(1, count("unquantified"));
+    }
+
+    @Test
+    void reportsCoverageWhenSomeLinesAreNotInTheTable() {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setServings(2);
+        recipe.setIngredients(List.of("200 g de peito de frango", "300 g de cação", "1 xícara de pó de pirlimpimpim",
+                "Sal a gosto"));
+
+        NutritionFacts facts = service.compute(recipe).orElseThrow();
+
+        assertEquals(0.33, facts.getCoverage());
+    }
+
+    @Test
+    void cachesTotalsByIngredientsAndDividesByServings() {
+        NutritionFacts two = service.compute(recipe(2)).orElseThrow();
+        NutritionFacts four = service.compute(recipe(4)).orElseThrow();
+
+        assertEquals(Math.round(two.getCalories() / 2), four.getCalories());
+        assertEquals(4, count("matched"));
+    }
+
+    @Test
+    void localModeReplacesModelNutrition() {
+        RecipeResponse recipe = recipe(2);
+        NutritionFacts fromModel = new NutritionFacts();
+        fromModel.setCalories(999.0);
+        recipe.setNutrition(fromModel);
+
+        assertSame(recipe, service.apply(recipe));
+        assertEquals(595.0, recipe.getNutrition().getCalories());
+    }
+
+    @Test
+    void geminiModeOnlyFillsMissingNutrition() {
+        NutritionService fillOnly = new NutritionService(new SimpleMeterRegistry(), "gemini", 100);
+        RecipeResponse withModelValues = recipe(2);
+        NutritionFacts fromModel = new NutritionFacts();
+        fromModel.setCalories(999.0);
+        withModelValues.setNutrition(fromModel);
+
+        assertEquals(999.0, fillOnly.apply(withModelValues).getNutrition().getCalories());
+        assertEquals(595.0, fillOnly.apply(recipe(2)).getNutrition().getCalories());
+    }
+
+    @Test
+    void leavesNutritionEmptyWhenNothingIsRecognized() {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setServings(2);
+        recipe.setIngredients(List.of("Sal a gosto", "1 xícara de pó de pirlimpimpim"));
+
+        assertTrue(service.compute(recipe).isEmpty());
+        assertEquals(1, count("unmatched"));
+    }
+
+    private double count(String result) {
+        return registry.get("nutrition.ingredients").tag("result", result).counter().count();
+    }
+
+    private static RecipeResponse recipe(int servings) {
+        RecipeResponse recipe = new RecipeResponse();
+        recipe.setTitle("Arroz com Frango");
+        recipe.setServings(servings);
+        recipe.setIngredients(List.of("200 g de peito de frango", "1 xícara de arroz", "2 ovos",
+                "1 colher de sopa de azeite de oliva", "Sal a gosto"));
+        return recipe;
+    }
+}
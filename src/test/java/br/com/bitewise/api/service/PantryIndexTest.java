@@ -0,0 +1,115 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.PantryMatchItem;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({PantryIndex.class, IngredientDictionary.class, SavedRecipeService.class, RecipeSimilarityIndex.class,
+        CacheConfig.class, PantryIndexTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PantryIndexTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private PantryIndex pantryIndex;
+
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SavedRecipeRepository savedRecipeRepository;
+
+    @Test
+    void ranksSavedRecipesByCoverage() {
+        String email = user("pantry@bitewise.com");
+        Recipe stroganoff = savedRecipeService.save(email, recipe("Strogonoff de Frango",
+                "500 g de peito de frango", "1 caixa de creme de leite", "2 colheres de sopa de ketchup", "Sal a gosto"));
+        Recipe rice = savedRecipeService.save(email, recipe("Arroz com Frango",
+                "200 g de frango", "1 xícara de arroz", "1 cebola picada", "Sal a gosto"));
+        savedRecipeService.save(email, recipe("Salada", "1 alface", "2 tomates", "Azeite a gosto"));
+
+        List<PantryMatchItem> matches = pantryIndex.search(email, List.of("Frango", "arroz", "cebolas"), 10, true);
+
+        assertEquals(2, matches.size());
+        assertEquals(rice.getId(), matches.get(0).getRecipeId());
+        assertEquals(1.0, matches.get(0).getCoverage());
+        assertEquals(stroganoff.getId(), matches.get(1).getRecipeId());
+        assertEquals(2, matches.get(1).getMatched());
+        assertEquals(List.of("creme de leite", "2 colheres de sopa de ketchup"), matches.get(1).getMissing());
+    }
+
+    @Test
+    void staplesCountOnlyWhenAssumed() {
+        String email = user("staples@bitewise.com");
+        savedRecipeService.save(email, recipe("Arroz", "1 xícara de arroz", "Sal a gosto", "1 colher de óleo"));
+
+        assertEquals(1.0, pantryIndex.search(email, List.of("arroz"), 10, true).get(0).getCoverage());
+        assertEquals(0.333, pantryIndex.search(email, List.of("arroz"), 10, false).get(0).getCoverage());
+        assertTrue(pantryIndex.search(email, List.of("sal"), 10, true).isEmpty());
+    }
+
+    @Test
+    void indexFollowsSavesAndDeletesAfterFirstSearch() {
+        String email = user("events@bitewise.com");
+        savedRecipeService.save(email, recipe("Omelete", "3 ovos", "50 g de queijo parmesão"));
+        assertEquals(1, pantryIndex.search(email, List.of("ovo", "queijo"), 10, true).size());
+
+        Recipe tortilla = savedRecipeService.save(email, recipe("Tortilha", "4 ovos", "2 batatas"));
+        assertEquals(2, pantryIndex.search(email, List.of("ovo"), 10, true).size());
+
+        Long linkId = savedRecipeRepository.findAll().stream()
+                .filter(link -> link.getRecipe().getId().equals(tortilla.getId()))
+                .findFirst().orElseThrow().getId();
+        savedRecipeService.delete(email, linkId);
+
+        List<PantryMatchItem> remaining = pantryIndex.search(email, List.of("ovo"), 10, true);
+        assertEquals(List.of("Omelete"), remaining.stream().map(PantryMatchItem::getTitle).toList());
+    }
+
+    private String user(String email) {
+        userRepository.save(new User("Teste", email, "x"));
+        return email;
+    }
+
+    private static SaveRecipeRequest recipe(String title, String... ingredients) {
+        SaveRecipeRequest request = new SaveRecipeRequest();
+        request.setTitle(title);
+        request.setPrepTime("30 minutos");
+        request.setServings(2);
+        request.setDifficulty("Fácil");
+        request.setIngredients(List.of(ingredients));
+        request.setSteps(List.of("Prepare."));
+        request.setTips(List.of());
+        return request;
+    }
+}
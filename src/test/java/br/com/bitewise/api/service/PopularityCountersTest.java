@@ -0,0 +1,207 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.PopularIngredientItem;
+import br.com.bitewise.api.dto.PopularRecipeItem;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.dto.TrendingRecipesResponse;
+import br.com.bitewise.api.event.RecipeSavedEvent;
+import br.com.bitewise.api.event.RecipeUnsavedEvent;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({PopularityCounters.class, IngredientDictionary.class, SavedRecipeService.class, RecipeSimilarityIndex.class,
+        CacheConfig.class, PopularityCountersTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PopularityCountersTest {
+
+    private static final Instant NOW = Instant.parse("2026-05-04T15:00:00Z");
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private PopularityCounters popularityCounters;
+
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SavedRecipeRepository savedRecipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clean() {
+        // Descarta o que os outros testes deixaram pendente no bean compartilhado
+        popularityCounters.flush();
+        jdbcTemplate.update("delete from recipe_popularity");
+        jdbcTemplate.update("delete from ingredient_popularity");
+    }
+
+    @Test
+    void flushesSavesAndRemovalsInBatchesAndServesTheSnapshot() {
+        String ana = user("pop-ana@bitewise.com");
+        String bia = user("pop-bia@bitewise.com");
+        Recipe first = savedRecipeService.save(ana, recipe("Frango com Arroz", "500 g de frango", "2 xícaras de arroz", "Sal"));
+        savedRecipeService.save(bia, recipe("Frango com Arroz", "500 g de frango", "2 xícaras de arroz", "Sal"));
+        savedRecipeService.save(bia, recipe("Bolo Secreto", "3 ovos", "2 xícaras de farinha de trigo"));
+
+        // Nada vai ao banco até o flush
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from recipe_popularity", Long.class));
+        popularityCounters.flush();
+
+        TrendingRecipesResponse response = popularityCounters.trending(10);
+        assertEquals(List.of("Frango com Arroz"), response.getMostSaved().stream().map(PopularRecipeItem::getTitle).toList());
+        assertEquals(2, response.getMostSaved().get(0).getSaves());
+        assertEquals(first.getContentHash(), response.getTrending().get(0).getContentHash());
+        assertEquals(2, ingredient(response, "frango").getSaves());
+        assertTrue(response.getIngredients().stream().noneMatch(item -> item.getName().equals("sal")));
+
+        Long linkId = savedRecipeRepository.findAll().stream()
+                .filter(link -> link.getRecipe().getId().equals(first.getId()))
+                .findFirst().orElseThrow().getId();
+        savedRecipeService.delete(ana, linkId);
+        popularityCounters.flush();
+
+        response = popularityCounters.trending(10);
+        assertTrue(response.getMostSaved().isEmpty());
+        assertEquals(1, ingredient(response, "frango").getSaves());
+        assertEquals(1, popularityCounters.trending(1).getIngredients().size());
+    }
+
+    @Test
+    void concurrentSavesAreNotLostAndRecentCountsRollOverByDay() throws Exception {
+        PopularityCounters today = counters(NOW);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 4000; i++) {
+            executor.submit(() -> today.onRecipeSaved(new RecipeSavedEvent("x@bitewise.com", 1L, "Omelete", "Fácil",
+                    List.of("3 ovos", "50 g de queijo"), null, "hash-omelete")));
+            if (i % 500 == 0) {
+                executor.submit(today::flush);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        today.flush();
+
+        PopularRecipeItem omelete = today.trending(10).getMostSaved().get(0);
+        assertEquals(4000, omelete.getSaves());
+        assertEquals(4000, omelete.getRecentSaves());
+
+        PopularityCounters nextDay = counters(NOW.plusSeconds(24 * 3600));
+        nextDay.onRecipeSaved(new RecipeSavedEvent("x@bitewise.com", 2L, "Omelete", "Fácil", List.of("3 ovos"), null, "hash-omelete"));
+        nextDay.flush();
+        assertEquals(4001, nextDay.trending(10).getTrending().get(0).getRecentSaves());
+
+        PopularityCounters later = counters(NOW.plusSeconds(3 * 24 * 3600));
+        later.load();
+        assertTrue(later.trending(10).getTrending().isEmpty());
+        assertEquals(4001, later.trending(10).getMostSaved().get(0).getSaves());
+    }
+
+    @Test
+    void removalOnANewDayDoesNotMakeRecentCountsNegative() {
+        PopularityCounters today = counters(NOW);
+        for (long id = 1; id <= 3; id++) {
+            today.onRecipeSaved(new RecipeSavedEvent("x@bitewise.com", id, "Omelete", "Fácil", List.of("3 ovos"), null,
+                    "hash-omelete"));
+        }
+        today.flush();
+
+        PopularityCounters nextDay = counters(NOW.plusSeconds(24 * 3600));
+        nextDay.onRecipeUnsaved(new RecipeUnsavedEvent("x@bitewise.com", 1L, "hash-omelete", List.of("3 ovos")));
+        nextDay.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select recent_count from recipe_popularity where content_hash = 'hash-omelete'", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select recent_count from ingredient_popularity where ingredient = 'ovo'", Long.class));
+        PopularRecipeItem omelete = nextDay.trending(10).getTrending().get(0);
+        assertEquals(2, omelete.getSaves());
+        assertEquals(3, omelete.getRecentSaves());
+    }
+
+    @Test
+    void seedsEmptyTablesFromSavedRecipes() {
+        String email = user("pop-seed@bitewise.com");
+        String other = user("pop-seed-other@bitewise.com");
+        savedRecipeService.save(email, recipe("Purê", "1 kg de batata", "1 xícara de leite"));
+        savedRecipeService.save(other, recipe("Purê", "1 kg de batata", "1 xícara de leite"));
+        clean();
+
+        counters(NOW).load();
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select save_count from ingredient_popularity where ingredient = 'batata'", Long.class));
+        assertTrue(jdbcTemplate.queryForObject("select max(save_count) from recipe_popularity", Long.class) >= 2);
+    }
+
+    private PopularityCounters counters(Instant now) {
+        return new PopularityCounters(jdbcTemplate, transactionManager, dictionary, new SimpleMeterRegistry(),
+                Clock.fixed(now, ZoneOffset.UTC), 2, 50);
+    }
+
+    private static PopularIngredientItem ingredient(TrendingRecipesResponse response, String name) {
+        return response.getIngredients().stream().filter(item -> item.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private String user(String email) {
+        userRepository.save(new User("Teste", email, "x"));
+        return email;
+    }
+
+    private static SaveRecipeRequest recipe(String title, String... ingredients) {
+        SaveRecipeRequest request = new SaveRecipeRequest();
+        request.setTitle(title);
+        request.setPrepTime("30 minutos");
+        request.setServings(2);
+        request.setDifficulty("Fácil");
+        request.setIngredients(List.of(ingredients));
+        request.setSteps(List.of("Prepare."));
+        request.setTips(List.of());
+        return request;
+    }
+}
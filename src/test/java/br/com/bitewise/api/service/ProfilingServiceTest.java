@@ -0,0 +1,66 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.profiling.RepositoryCallEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfilingServiceTest {
+
+    private final ProfilingService profilingService = new ProfilingService("Admin@BiteWise.com, ops@bitewise.com", 60);
+
+    @Test
+    void recognizesConfiguredAdminsCaseInsensitively() {
+        assertTrue(profilingService.isAdmin("admin@bitewise.com"));
+        assertTrue(profilingService.isAdmin("ops@bitewise.com"));
+        assertFalse(profilingService.isAdmin("user@bitewise.com"));
+        assertFalse(profilingService.isAdmin(null));
+    }
+
+    @Test
+    void clampsDurationToConfiguredMaximum() {
+        assertEquals(60, profilingService.clampDuration(600));
+        assertEquals(1, profilingService.clampDuration(0));
+    }
+
+    @Test
+    void recordsCustomEventsIntoJfrFile() throws Exception {
+        Thread emitter = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                RepositoryCallEvent event = new RepositoryCallEvent();
+                event.begin();
+                event.repository = "RecipeRepository";
+                event.method = "findById";
+                event.commit();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        emitter.start();
+
+        Path recording = profilingService.record(1, "default");
+        try {
+            boolean found = RecordingFile.readAllEvents(recording).stream()
+                    .anyMatch(e -> e.getEventType().getName().equals("br.com.bitewise.RepositoryCall"));
+            assertTrue(found);
+        } finally {
+            emitter.interrupt();
+            Files.deleteIfExists(recording);
+        }
+    }
+
+    @Test
+    void rejectsUnknownSettings() {
+        assertThrows(IllegalArgumentException.class, () -> profilingService.record(1, "custom"));
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.ModifyRecipeRequest;
+import br.com.bitewise.api.dto.RecipeDetailResponse;
+import br.com.bitewise.api.dto.RecipeResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeModificationServiceTest {
+
+    private static final List<String> INGREDIENTS = List.of("200 g de frango", "1 xícara de arroz");
+
+    private final GeminiService geminiService = mock(GeminiService.class);
+    private final SavedRecipeService savedRecipeService = mock(SavedRecipeService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecipeModificationService service = new RecipeModificationService(
+            geminiService, savedRecipeService, new LocalModificationEngine(new IngredientDictionary(registry, false), registry),
+            new NutritionService(registry, "local", 100), registry, 100, 60);
+
+    @Test
+    void repeatedInstructionOnSameRecipeSkipsGemini() {
+        RecipeResponse vegan = new RecipeResponse();
+        vegan.setIngredients(new ArrayList<>(List.of("200 g de tofu", "1 xícara de arroz")));
+        when(savedRecipeService.findOwnedRecipe("ana@bitewise.com", 1L)).thenReturn(Optional.of(saved()));
+        when(geminiService.modifyRecipe(any(), anyString(), any())).thenReturn(vegan);
+
+        RecipeResponse first = service.modify("ana@bitewise.com", byId(1L, "Sem Glúten!"));
+        first.setReused(true);
+        first.getIngredients().clear();
+        RecipeResponse second = service.modify("ana@bitewise.com", byJson(
+                "{\"title\":\"Outro\",\"ingredients\":[\"1 xícara de arroz\",\"200 g de  Frango\"]}", "sem gluten"));
+
+        // Cada resposta é uma cópia: o que um chamador altera não vaza para o próximo
+        assertNotSame(first, second);
+        assertEquals(List.of("200 g de tofu", "1 xícara de arroz"), second.getIngredients());
+        assertFalse(second.isReused());
+        verify(geminiService, times(1)).modifyRecipe(INGREDIENTS, "Sem Glúten!", "ana@bitewise.com");
+    }
+
+    @Test
+    void differentInstructionCallsGemini() {
+        when(savedRecipeService.findOwnedRecipe("ana@bitewise.com", 1L)).thenReturn(Optional.of(saved()));
+        when(geminiService.modifyRecipe(any(), anyString(), any())).thenReturn(new RecipeResponse());
+
+        service.modify("ana@bitewise.com", byId(1L, "vegana"));
+        service.modify("ana@bitewise.com", byId(1L, "sem lactose"));
+
+        verify(geminiService, times(2)).modifyRecipe(any(), anyString(), any());
+    }
+
+    @Test
+    void rejectsMissingOrForeignRecipe() {
+        when(savedRecipeService.findOwnedRecipe("ana@bitewise.com", 2L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> service.modify("ana@bitewise.com", byId(2L, "vegana")));
+        assertThrows(IllegalArgumentException.class, () -> service.modify("ana@bitewise.com", new ModifyRecipeRequest()));
+        assertThrows(IllegalArgumentException.class, () -> service.modify("ana@bitewise.com", byJson("{oops", "vegana")));
+    }
+
+    @Test
+    void mechanicalInstructionIsAppliedLocally() {
+        when(savedRecipeService.findOwnedRecipe("ana@bitewise.com", 1L)).thenReturn(Optional.of(saved()));
+
+        RecipeResponse doubled = service.modify("ana@bitewise.com", byId(1L, "Para 4 porções"));
+
+        assertEquals(List.of("400 g de frango", "2 xícaras de arroz"), doubled.getIngredients());
+        assertEquals(4, doubled.getServings());
+        assertNotNull(doubled.getNutrition());
+        verify(geminiService, never()).modifyRecipe(any(), anyString(), any());
+    }
+
+    @Test
+    void cacheKeyIgnoresAccentsCaseAndIngredientOrder() {
+        assertEquals(
+                RecipeModificationService.cacheKey(INGREDIENTS, "Versão VEGANA"),
+                RecipeModificationService.cacheKey(List.of("1 xícara de arroz", "200 g de frango"), "versao vegana"));
+    }
+
+    private static RecipeDetailResponse saved() {
+        RecipeDetailResponse recipe = new RecipeDetailResponse();
+        recipe.setId(1L);
+        recipe.setTitle("Arroz com Frango");
+        recipe.setServings(2);
+        recipe.setIngredients(INGREDIENTS);
+        recipe.setSteps(List.of("Cozinhe o arroz.", "Junte o frango."));
+        return recipe;
+    }
+
+    private static ModifyRecipeRequest byId(Long id, String instruction) {
+        ModifyRecipeRequest request = new ModifyRecipeRequest();
+        request.setRecipeId(id);
+        request.setModificationInstruction(instruction);
+        return request;
+    }
+
+    private static ModifyRecipeRequest byJson(String json, String instruction) {
+        ModifyRecipeRequest request = new ModifyRecipeRequest();
+        request.setOriginalRecipeJson(json);
+        request.setModificationInstruction(instruction);
+        return request;
+    }
+}
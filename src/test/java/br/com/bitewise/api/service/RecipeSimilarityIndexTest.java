@@ -0,0 +1,135 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.dto.SimilarRecipeItem;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.util.MinHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({RecipeSimilarityIndex.class, IngredientDictionary.class, SavedRecipeService.class, CacheConfig.class,
+        RecipeSimilarityIndexTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeSimilarityIndexTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private RecipeSimilarityIndex similarityIndex;
+
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private IngredientDictionary dictionary;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SavedRecipeRepository savedRecipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ranksOwnRecipesBySharedIngredientsIgnoringStaples() {
+        String email = user("similar@bitewise.com");
+        String other = user("similar-other@bitewise.com");
+        Recipe base = savedRecipeService.save(email, recipe("Frango com Arroz",
+                "500 g de frango", "2 xícaras de arroz", "1 cebola", "3 dentes de alho", "2 tomates", "Sal a gosto"));
+        Recipe close = savedRecipeService.save(email, recipe("Galinhada",
+                "1 kg de frango", "2 xícaras de arroz", "1 cebola picada", "2 dentes de alho", "1 cenoura", "Óleo"));
+        Recipe cake = savedRecipeService.save(email, recipe("Bolo de Chocolate",
+                "2 xícaras de farinha de trigo", "1 xícara de chocolate em pó", "3 ovos", "1 xícara de leite", "Sal"));
+        savedRecipeService.save(other, recipe("Frango com Arroz",
+                "500 g de frango", "2 xícaras de arroz", "1 cebola", "3 dentes de alho", "2 tomates"));
+
+        List<SimilarRecipeItem> similar = similarityIndex.similar(email, base.getId(), 10).orElseThrow();
+
+        assertEquals(List.of(close.getId()), similar.stream().map(SimilarRecipeItem::getRecipeId).toList());
+        assertTrue(similar.get(0).getSimilarity() > 0.4);
+        assertTrue(similarityIndex.similar(email, cake.getId(), 10).orElseThrow().isEmpty());
+        assertTrue(similarityIndex.similar(other, base.getId(), 10).isEmpty());
+    }
+
+    @Test
+    void storesSignaturesAndRebuildsFromTheDatabase() {
+        String email = user("rebuild@bitewise.com");
+        Recipe first = savedRecipeService.save(email, recipe("Omelete", "3 ovos", "50 g de queijo", "1 tomate"));
+        Recipe second = savedRecipeService.save(email, recipe("Fritada", "4 ovos", "100 g de queijo", "1 tomate", "1 batata"));
+
+        assertEquals(MinHash.SIZE * Integer.BYTES, recipeRepository.findById(first.getId()).orElseThrow().getMinhash().length);
+
+        jdbcTemplate.update("update recipes set minhash = null where id = ?", second.getId());
+        similarityIndex.backfill();
+
+        RecipeSimilarityIndex rebuilt = new RecipeSimilarityIndex(dictionary, userRepository, recipeRepository,
+                savedRecipeRepository, new SimpleMeterRegistry(), 0.2, 1);
+        rebuilt.rebuild();
+        assertEquals(List.of(second.getId()), rebuilt.similar(email, first.getId(), 10).orElseThrow().stream()
+                .map(SimilarRecipeItem::getRecipeId).toList());
+    }
+
+    @Test
+    void deletedRecipesLeaveTheIndex() {
+        String email = user("delete-similar@bitewise.com");
+        Recipe first = savedRecipeService.save(email, recipe("Purê", "1 kg de batata", "1 xícara de leite", "2 colheres de manteiga"));
+        Recipe second = savedRecipeService.save(email, recipe("Batata Gratinada", "1 kg de batata", "1 xícara de leite",
+                "100 g de queijo"));
+        assertEquals(1, similarityIndex.similar(email, first.getId(), 10).orElseThrow().size());
+
+        Long linkId = savedRecipeRepository.findAll().stream()
+                .filter(link -> link.getRecipe().getId().equals(second.getId()))
+                .findFirst().orElseThrow().getId();
+        savedRecipeService.delete(email, linkId);
+
+        assertTrue(similarityIndex.similar(email, first.getId(), 10).orElseThrow().isEmpty());
+    }
+
+    private String user(String email) {
+        userRepository.save(new User("Teste", email, "x"));
+        return email;
+    }
+
+    private static SaveRecipeRequest recipe(String title, String... ingredients) {
+        SaveRecipeRequest request = new SaveRecipeRequest();
+        request.setTitle(title);
+        request.setPrepTime("30 minutos");
+        request.setServings(2);
+        request.setDifficulty("Fácil");
+        request.setIngredients(List.of(ingredients));
+        request.setSteps(List.of("Prepare."));
+        request.setTips(List.of());
+        return request;
+    }
+}
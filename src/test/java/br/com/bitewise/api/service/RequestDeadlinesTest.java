@@ -0,0 +1,63 @@
+package br.com.bitewise.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestDeadlinesTest {
+
+    private final ClientDisconnectWatcher watcher = new ClientDisconnectWatcher(50);
+    private final RequestDeadlines deadlines = new RequestDeadlines(watcher, 90000, 1, 1, 3);
+
+    @AfterEach
+    void shutdown() {
+        deadlines.shutdown();
+        watcher.shutdown();
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncTaskExecutor executor = deadlines.submit(new MockHttpServletRequest(), false,
+                () -> ResponseEntity.ok().build()).getExecutor();
+        try {
+            // Uma thread ocupada e uma tarefa na fila: a próxima é recusada em vez de esperar
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> { });
+            assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+        } finally {
+            release.countDown();
+        }
+
+        ResponseEntity<?> saturated = deadlines.saturatedResponse();
+        assertEquals(503, saturated.getStatusCode().value());
+        assertEquals("3", saturated.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void headerTimeoutIsCappedByTheMaximum() {
+        assertEquals(Duration.ofMillis(500), deadlines.timeout("500"));
+        assertEquals(Duration.ofMillis(90000), deadlines.timeout("120000"));
+        assertEquals(Duration.ofMillis(90000), deadlines.timeout("abc"));
+        assertEquals(Duration.ofMillis(90000), deadlines.timeout(null));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
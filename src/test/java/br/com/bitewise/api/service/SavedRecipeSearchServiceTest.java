@@ -0,0 +1,143 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.dto.SavedRecipeSearchItem;
+import br.com.bitewise.api.dto.SavedRecipeSearchResponse;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({SavedRecipeSearchService.class, RecipeTextIndex.class, SavedRecipeService.class, RecipeSimilarityIndex.class,
+        IngredientDictionary.class, CacheConfig.class, SavedRecipeSearchServiceTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SavedRecipeSearchServiceTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private SavedRecipeSearchService searchService;
+
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SavedRecipeRepository savedRecipeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void matchesPrefixesAccentsAndPluralsRankingTitleFirst() {
+        String email = user("search@bitewise.com");
+        Recipe lemon = savedRecipeService.save(email, recipe("Frango ao Limão",
+                List.of("500 g de peito de frango", "2 limões"), List.of("Tempere e asse.")));
+        Recipe rice = savedRecipeService.save(email, recipe("Arroz Simples",
+                List.of("1 xícara de arroz", "100 g de frango desfiado"), List.of("Refogue e cozinhe.")));
+        Recipe cake = savedRecipeService.save(email, recipe("Bolo de Cenoura",
+                List.of("3 cenouras", "3 ovos"), List.of("Bata no liquidificador e asse.")));
+
+        assertFalse(searchService.usesPostgres());
+        assertEquals(List.of(lemon.getId(), rice.getId()), ids(searchService.search(email, "FRANG", 0, 10)));
+        assertEquals(List.of(lemon.getId()), ids(searchService.search(email, "limao", 0, 10)));
+        assertEquals(List.of(lemon.getId()), ids(searchService.search(email, "Limões frango", 0, 10)));
+        assertEquals(List.of(cake.getId()), ids(searchService.search(email, "liquidificador", 0, 10)));
+        assertEquals(List.of(cake.getId()), ids(searchService.search(email, "cenoura", 0, 10)));
+        assertTrue(ids(searchService.search(email, "frango chocolate", 0, 10)).isEmpty());
+        assertTrue(ids(searchService.search(email, "de com", 0, 10)).isEmpty());
+        assertTrue(ids(searchService.search(user("other@bitewise.com"), "frango", 0, 10)).isEmpty());
+    }
+
+    @Test
+    void paginatesWithoutRepeatingResults() {
+        String email = user("pages@bitewise.com");
+        for (int i = 0; i < 5; i++) {
+            savedRecipeService.save(email, recipe("Omelete " + i, List.of("2 ovos"), List.of("Bata os ovos.")));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (int page = 0; page < 3; page++) {
+            SavedRecipeSearchResponse response = searchService.search(email, "ovos", page, 2);
+            assertEquals(page < 2, response.isHasNext());
+            seen.addAll(ids(response));
+        }
+        assertEquals(5, seen.size());
+        assertTrue(searchService.search(email, "ovos", SavedRecipeSearchService.MAX_RESULTS, 1).getItems().isEmpty());
+    }
+
+    @Test
+    void followsSavesAndDeletesAndBackfillsOldRecipes() {
+        String email = user("events-search@bitewise.com");
+        savedRecipeService.save(email, recipe("Salada", List.of("1 alface"), List.of("Lave as folhas.")));
+        assertTrue(ids(searchService.search(email, "tomate", 0, 10)).isEmpty());
+
+        Recipe tomato = savedRecipeService.save(email, recipe("Molho", List.of("4 tomates"), List.of("Cozinhe.")));
+        assertEquals(List.of(tomato.getId()), ids(searchService.search(email, "tomate", 0, 10)));
+
+        Long linkId = savedRecipeRepository.findAll().stream()
+                .filter(link -> link.getRecipe().getId().equals(tomato.getId()))
+                .findFirst().orElseThrow().getId();
+        savedRecipeService.delete(email, linkId);
+        assertTrue(ids(searchService.search(email, "tomate", 0, 10)).isEmpty());
+
+        jdbcTemplate.update("update recipes set search_text = null");
+        searchService.backfill();
+        recipeRepository.findAll().forEach(recipe -> assertNotNull(recipe.getSearchText()));
+    }
+
+    private String user(String email) {
+        userRepository.save(new User("Teste", email, "x"));
+        return email;
+    }
+
+    private static List<Long> ids(SavedRecipeSearchResponse response) {
+        return response.getItems().stream().map(SavedRecipeSearchItem::getRecipeId).toList();
+    }
+
+    private static SaveRecipeRequest recipe(String title, List<String> ingredients, List<String> steps) {
+        SaveRecipeRequest request = new SaveRecipeRequest();
+        request.setTitle(title);
+        request.setPrepTime("30 minutos");
+        request.setServings(2);
+        request.setDifficulty("Fácil");
+        request.setIngredients(ingredients);
+        request.setSteps(steps);
+        request.setTips(List.of());
+        return request;
+    }
+}
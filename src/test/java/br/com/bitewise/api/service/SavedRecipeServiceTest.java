@@ -0,0 +1,138 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.config.CacheConfig;
+import br.com.bitewise.api.dto.RecipeDetailResponse;
+import br.com.bitewise.api.dto.SaveRecipeRequest;
+import br.com.bitewise.api.model.Recipe;
+import br.com.bitewise.api.model.SavedRecipe;
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.RecipeRepository;
+import br.com.bitewise.api.repository.SavedRecipeRepository;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.util.MinHash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({SavedRecipeService.class, RecipeSimilarityIndex.class, IngredientDictionary.class, CacheConfig.class,
+        SavedRecipeServiceTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SavedRecipeServiceTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private SavedRecipeService savedRecipeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private SavedRecipeRepository savedRecipeRepository;
+
+    @Autowired
+    private RecipeSimilarityIndex similarityIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void saveWritesMinhashWithTheInsert() {
+        userRepository.save(new User("Teste", "minhash@bitewise.com", "x"));
+        SaveRecipeRequest request = new SaveRecipeRequest();
+        request.setTitle("Arroz com Frango");
+        request.setPrepTime("30 minutos");
+        request.setServings(2);
+        request.setDifficulty("Fácil");
+        request.setIngredients(List.of("200 g de frango", "1 xícara de arroz"));
+        request.setSteps(List.of("Cozinhe o arroz.", "Junte o frango."));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long updates = statistics.getEntityUpdateCount();
+
+        Recipe saved = savedRecipeService.save("minhash@bitewise.com", request);
+
+        assertEquals(updates, statistics.getEntityUpdateCount());
+        assertArrayEquals(MinHash.toBytes(similarityIndex.signature(request.getIngredients())),
+                recipeRepository.findById(saved.getId()).orElseThrow().getMinhash());
+    }
+
+    @Test
+    void repeatViewsAreServedWithoutSql() {
+        SavedRecipe link = save("repeat@bitewise.com");
+        Long recipeId = link.getRecipe().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        RecipeDetailResponse first = savedRecipeService.findOwnedRecipe("repeat@bitewise.com", recipeId).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+        RecipeDetailResponse second = savedRecipeService.findOwnedRecipe("repeat@bitewise.com", recipeId).orElseThrow();
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(first, second);
+        assertEquals(List.of("200 g de frango", "1 xícara de arroz"), second.getIngredients());
+    }
+
+    @Test
+    void otherUsersCannotSeeTheRecipe() {
+        SavedRecipe link = save("owner@bitewise.com");
+        userRepository.save(new User("Outro", "other@bitewise.com", "x"));
+
+        assertTrue(savedRecipeService.findOwnedRecipe("other@bitewise.com", link.getRecipe().getId()).isEmpty());
+    }
+
+    @Test
+    void deleteEvictsTheCachedRecipe() {
+        SavedRecipe link = save("delete@bitewise.com");
+        Long recipeId = link.getRecipe().getId();
+        savedRecipeService.findOwnedRecipe("delete@bitewise.com", recipeId).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Recipe.class, recipeId));
+
+        savedRecipeService.delete("delete@bitewise.com", link.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(Recipe.class, recipeId));
+        assertFalse(recipeRepository.existsById(recipeId));
+        assertTrue(savedRecipeService.findOwnedRecipe("delete@bitewise.com", recipeId).isEmpty());
+    }
+
+    private SavedRecipe save(String email) {
+        User user = userRepository.save(new User("Teste", email, "x"));
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Arroz com Frango");
+        recipe.setPrepTime("30 minutos");
+        recipe.setServings(2);
+        recipe.setDifficulty("Fácil");
+        recipe.setIngredients(List.of("200 g de frango", "1 xícara de arroz"));
+        recipe.setSteps(List.of("Cozinhe o arroz.", "Junte o frango."));
+        recipe.setTips(List.of());
+        SavedRecipe link = new SavedRecipe();
+        link.setUser(user);
+        link.setRecipe(recipeRepository.save(recipe));
+        return savedRecipeRepository.save(link);
+    }
+}
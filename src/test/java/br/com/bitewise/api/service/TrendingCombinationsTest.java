@@ -0,0 +1,69 @@
+package br.com.bitewise.api.service;
+
+import br.com.bitewise.api.dto.TrendingCombinationItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingCombinationsTest {
+
+    @Test
+    void keepsTheMostRequestedCombinationsInABoundedTopK() {
+        TrendingCombinations trending = new TrendingCombinations(new SimpleMeterRegistry(), 3, 1024, 3);
+        repeat(trending, List.of("arroz", "frango", "tomate"), 20);
+        repeat(trending, List.of("farinha de trigo", "leite", "ovo"), 10);
+        for (int i = 0; i < 200; i++) {
+            trending.record(List.of("ingrediente " + i, "leite", "ovo"));
+        }
+        repeat(trending, List.of("batata", "cebola", "queijo"), 5);
+
+        List<TrendingCombinationItem> top = trending.top(10);
+
+        assertEquals(3, top.size());
+        assertEquals(List.of("arroz", "frango", "tomate"), top.get(0).getIngredients());
+        assertEquals(20, top.get(0).getCount());
+        assertEquals(List.of("farinha de trigo", "leite", "ovo"), top.get(1).getIngredients());
+        assertEquals(List.of("batata", "cebola", "queijo"), top.get(2).getIngredients());
+        assertEquals(1, trending.top(1).size());
+    }
+
+    @Test
+    void decayHalvesCountsAndDropsOneOffs() {
+        TrendingCombinations trending = new TrendingCombinations(new SimpleMeterRegistry(), 10, 1024, 3);
+        repeat(trending, List.of("arroz", "feijão", "linguiça"), 8);
+        trending.record(List.of("abacate", "limão", "mel"));
+
+        trending.decay();
+
+        List<TrendingCombinationItem> top = trending.top(10);
+        assertEquals(1, top.size());
+        assertEquals(4, top.get(0).getCount());
+        trending.record(List.of("arroz", "feijão", "linguiça"));
+        assertEquals(5, trending.top(10).get(0).getCount());
+        assertTrue(trending.top(10).stream().noneMatch(item -> item.getIngredients().contains("mel")));
+    }
+
+    @Test
+    void publicListOnlyShowsCombinationsRequestedSeveralTimes() {
+        TrendingCombinations trending = new TrendingCombinations(new SimpleMeterRegistry(), 10, 1024, 3);
+        repeat(trending, List.of("arroz", "frango", "tomate"), 3);
+        repeat(trending, List.of("abacate", "limão", "mel"), 2);
+        trending.record(List.of("banana", "canela", "ovo"));
+
+        List<TrendingCombinationItem> popular = trending.popular(10);
+
+        assertEquals(1, popular.size());
+        assertEquals(List.of("arroz", "frango", "tomate"), popular.get(0).getIngredients());
+        assertEquals(3, trending.top(10).size());
+    }
+
+    private static void repeat(TrendingCombinations trending, List<String> ingredients, int times) {
+        for (int i = 0; i < times; i++) {
+            trending.record(ingredients);
+        }
+    }
+}
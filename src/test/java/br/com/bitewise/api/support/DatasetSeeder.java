@@ -0,0 +1,454 @@
+package br.com.bitewise.api.support;
+
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.util.MinHash;
+import br.com.bitewise.api.util.RecipeHash;
+import br.com.bitewise.api.util.RecipeSearchText;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Popula users, recipes (com ingredientes, passos e dicas) e saved_recipes em volume de produção
+ * para benchmarks e testes de persistência. O conteúdo depende só da {@link Spec}: a mesma seed
+ * gera sempre os mesmos dados. No PostgreSQL usa COPY; nos demais bancos, JDBC batch.
+ *
+ * <p>O schema precisa existir (criado pelo Hibernate). Os ids continuam a partir do maior id
+ * existente e as colunas identity são reposicionadas no final, então a aplicação pode continuar
+ * inserindo normalmente depois do seed.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=br.com.bitewise.api.support.DatasetSeeder \
+ *   -Dexec.args="--url=jdbc:postgresql://localhost:5432/bitewise --username=postgres --password=postgres --users=1000000 --recipes=2000000"
+ * </pre>
+ */
+public class DatasetSeeder {
+
+    /** Senha de todos os usuários gerados. O hash é calculado uma única vez. */
+    public static final String PASSWORD = "senha123456";
+
+    private static final Instant EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0).toInstant(ZoneOffset.UTC);
+    private static final long SPAN_SECONDS = TimeUnit.DAYS.toSeconds(540);
+    private static final int COPY_BUFFER_CHARS = 4 * 1024 * 1024;
+
+    private static final String[] FIRST_NAMES = {"Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela",
+            "Henrique", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia", "Tiago"};
+    private static final String[] LAST_NAMES = {"Silva", "Souza", "Oliveira", "Santos", "Lima", "Pereira", "Costa",
+            "Almeida", "Ferreira", "Rodrigues", "Gomes", "Martins", "Araújo", "Barbosa"};
+    private static final String[] DISHES = {"Risoto", "Torta", "Escondidinho", "Salada", "Ensopado", "Omelete",
+            "Macarrão", "Farofa", "Moqueca", "Sopa", "Bowl", "Panqueca", "Refogado", "Assado", "Wrap"};
+    private static final String[] STYLES = {"cremoso", "da vovó", "rápido", "light", "apimentado", "caseiro",
+            "de forno", "na airfryer", "com ervas", "ao molho"};
+    private static final String[] INGREDIENTS = {"frango", "arroz", "feijão", "tomate", "cebola", "alho", "batata",
+            "cenoura", "abobrinha", "berinjela", "brócolis", "espinafre", "ovo", "leite", "queijo muçarela",
+            "queijo parmesão", "creme de leite", "manteiga", "azeite", "farinha de trigo", "carne moída", "linguiça",
+            "bacon", "camarão", "tilápia", "salmão", "grão-de-bico", "lentilha", "milho", "ervilha", "pimentão",
+            "cogumelo", "limão", "coentro", "salsinha", "cebolinha", "gengibre", "mandioca", "leite de coco",
+            "iogurte natural", "aveia", "banana", "maçã", "mel", "açúcar", "sal", "pimenta-do-reino", "páprica",
+            "orégano", "macarrão"};
+    private static final String[] QUANTITIES = {"200 g de ", "500 g de ", "1 xícara de ", "2 xícaras de ",
+            "1 colher de sopa de ", "2 colheres de sopa de ", "1 colher de chá de ", "3 unidades de ",
+            "1 unidade de ", "meia xícara de ", "1 pitada de ", "a gosto de "};
+    private static final String[] VERBS = {"Aqueça", "Refogue", "Misture", "Corte", "Tempere", "Cozinhe", "Asse",
+            "Bata", "Reserve", "Acrescente", "Escorra", "Grelhe", "Sirva"};
+    private static final String[] STEP_TAILS = {"em fogo médio por 5 minutos.", "até dourar.",
+            "em uma tigela grande.", "em cubos pequenos.", "com sal e pimenta a gosto.", "até ficar macio.",
+            "em forno preaquecido a 180 °C por 25 minutos.", "até obter uma mistura homogênea.",
+            "mexendo sempre para não grudar.", "e ajuste o tempero."};
+    private static final String[] TIPS = {"Sirva quente.", "Pode ser congelado por até 3 meses.",
+            "Troque o frango por tofu para uma versão vegetariana.", "Finalize com ervas frescas.",
+            "Use uma panela de fundo grosso.", "Deixe descansar 10 minutos antes de servir.",
+            "Fica ainda melhor no dia seguinte.", "Ajuste o sal no final."};
+    private static final String[] DIFFICULTIES = {"Fácil", "Fácil", "Médio", "Médio", "Difícil"};
+
+    /**
+     * Tamanho do dataset. {@code savedPerUser} é a média de receitas salvas por usuário
+     * (distribuição exponencial, com receitas populares escolhidas com mais frequência).
+     */
+    public record Spec(long seed, int users, int recipes, double savedPerUser, int batchSize) {
+
+        public Spec {
+            if (users < 0 || recipes < 0 || savedPerUser < 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Parâmetros de seed inválidos");
+            }
+        }
+
+        public static Spec of(long seed, int users, int recipes, double savedPerUser) {
+            return new Spec(seed, users, recipes, savedPerUser, 1000);
+        }
+    }
+
+    /** Quantidades inseridas, o primeiro id de cada tabela e o tempo total. */
+    public record Result(long firstUserId, long firstRecipeId, long users, long recipes, long savedRecipes,
+                         long collectionRows, long elapsedMillis) {
+
+        public String userEmail(long index) {
+            return DatasetSeeder.userEmail(firstUserId + index);
+        }
+    }
+
+    private final DataSource dataSource;
+    private final String passwordHash;
+    private final IngredientDictionary dictionary = new IngredientDictionary(new SimpleMeterRegistry(), false);
+
+    public DatasetSeeder(DataSource dataSource) {
+        this(dataSource, new BCryptPasswordEncoder().encode(PASSWORD));
+    }
+
+    public DatasetSeeder(DataSource dataSource, String passwordHash) {
+        this.dataSource = dataSource;
+        this.passwordHash = passwordHash;
+    }
+
+    public static String userEmail(long userId) {
+        return "user" + userId + "@seed.bitewise.com";
+    }
+
+    public Result seed(Spec spec) throws SQLException {
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(spec.seed());
+        SplittableRandom userRandom = root.split();
+        SplittableRandom recipeRandom = root.split();
+        SplittableRandom savedRandom = root.split();
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long firstUserId = nextId(connection, "users");
+                long firstRecipeId = nextId(connection, "recipes");
+                long firstSavedId = nextId(connection, "saved_recipes");
+
+                insertUsers(connection, spec, userRandom, firstUserId);
+                long collectionRows = insertRecipes(connection, spec, recipeRandom, firstRecipeId);
+                long savedRecipes = insertSavedRecipes(connection, spec, savedRandom, firstUserId, firstRecipeId, firstSavedId);
+
+                restartIdentity(connection, "users", firstUserId + spec.users());
+                restartIdentity(connection, "recipes", firstRecipeId + spec.recipes());
+                restartIdentity(connection, "saved_recipes", firstSavedId + savedRecipes);
+                connection.commit();
+
+                return new Result(firstUserId, firstRecipeId, spec.users(), spec.recipes(), savedRecipes,
+                        collectionRows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void insertUsers(Connection connection, Spec spec, SplittableRandom random, long firstId) throws SQLException {
+        try (RowWriter users = writer(connection, spec, "users", "id", "name", "email", "password", "created_at")) {
+            for (int i = 0; i < spec.users(); i++) {
+                long id = firstId + i;
+                String name = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+                users.row(id, name, userEmail(id), passwordHash,
+                        LocalDateTime.ofInstant(randomInstant(random), ZoneOffset.UTC));
+            }
+        }
+    }
+
+    private long insertRecipes(Connection connection, Spec spec, SplittableRandom random, long firstId) throws SQLException {
+        long collectionRows = 0;
+        try (RowWriter recipes = writer(connection, spec, "recipes", "id", "title", "prep_time", "servings", "difficulty",
+                "search_text", "content_hash", "minhash");
+             RowWriter ingredients = writer(connection, spec, "recipe_ingredients", "recipe_id", "ingredients").after(recipes);
+             RowWriter steps = writer(connection, spec, "recipe_steps", "recipe_id", "steps").after(recipes);
+             RowWriter tips = writer(connection, spec, "recipe_tips", "recipe_id", "tips").after(recipes)) {
+            for (int i = 0; i < spec.recipes(); i++) {
+                long id = firstId + i;
+                String mainIngredient = pick(random, INGREDIENTS);
+                String title = pick(random, DISHES) + " de " + mainIngredient + " " + pick(random, STYLES);
+                String prepTime = (10 + 5 * random.nextInt(22)) + " minutos";
+                int servings = 1 + random.nextInt(8);
+                String difficulty = pick(random, DIFFICULTIES);
+
+                int ingredientCount = triangular(random, 5, 16);
+                List<String> ingredientLines = new ArrayList<>(ingredientCount);
+                ingredientLines.add(pick(random, QUANTITIES) + mainIngredient);
+                for (int j = 1; j < ingredientCount; j++) {
+                    ingredientLines.add(pick(random, QUANTITIES) + pick(random, INGREDIENTS));
+                }
+                int stepCount = triangular(random, 4, 12);
+                List<String> stepLines = new ArrayList<>(stepCount);
+                for (int j = 0; j < stepCount; j++) {
+                    stepLines.add(pick(random, VERBS) + " " + pick(random, INGREDIENTS) + " " + pick(random, STEP_TAILS));
+                }
+                int tipCount = random.nextInt(5);
+                List<String> tipLines = new ArrayList<>(tipCount);
+                for (int j = 0; j < tipCount; j++) {
+                    tipLines.add(pick(random, TIPS));
+                }
+
+                recipes.row(id, title, prepTime, servings, difficulty,
+                        RecipeSearchText.document(title, ingredientLines, stepLines, tipLines),
+                        RecipeHash.of(ingredientLines),
+                        MinHash.toBytes(MinHash.signature(dictionary.ingredientSet(ingredientLines))));
+                for (String line : ingredientLines) {
+                    ingredients.row(id, line);
+                }
+                for (String line : stepLines) {
+                    steps.row(id, line);
+                }
+                for (String line : tipLines) {
+                    tips.row(id, line);
+                }
+                collectionRows += ingredientCount + stepCount + tipCount;
+            }
+        }
+        return collectionRows;
+    }
+
+    private long insertSavedRecipes(Connection connection, Spec spec, SplittableRandom random,
+                                    long firstUserId, long firstRecipeId, long firstId) throws SQLException {
+        if (spec.recipes() == 0) {
+            return 0;
+        }
+        long id = firstId;
+        Set<Integer> chosen = new HashSet<>();
+        try (RowWriter saved = writer(connection, spec, "saved_recipes", "id", "user_id", "recipe_id", "saved_at")) {
+            for (int i = 0; i < spec.users(); i++) {
+                int count = (int) Math.min(spec.recipes(), -spec.savedPerUser() * Math.log(1 - random.nextDouble()));
+                chosen.clear();
+                while (chosen.size() < count) {
+                    // u² concentra as escolhas nos ids mais baixos: algumas receitas são salvas por muita gente.
+                    double u = random.nextDouble();
+                    int recipe = (int) (spec.recipes() * u * u);
+                    if (chosen.add(recipe)) {
+                        saved.row(id++, firstUserId + i, firstRecipeId + recipe, randomInstant(random));
+                    }
+                }
+            }
+        }
+        return id - firstId;
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void restartIdentity(Connection connection, String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table " + table + " alter column id restart with " + next);
+        }
+    }
+
+    private static Instant randomInstant(SplittableRandom random) {
+        return EPOCH.plusSeconds(random.nextLong(SPAN_SECONDS));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int triangular(SplittableRandom random, int min, int max) {
+        int half = (max - min) / 2;
+        return min + random.nextInt(half + 1) + random.nextInt(max - min - half + 1);
+    }
+
+    private static RowWriter writer(Connection connection, Spec spec, String table, String... columns) throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new CopyWriter(connection, table, columns);
+        }
+        return new BatchWriter(connection, spec.batchSize(), table, columns);
+    }
+
+    /**
+     * Destino das linhas de uma tabela. Um writer filho ({@link #after}) descarrega o pai antes
+     * de si mesmo, para que as chaves estrangeiras já existam quando o lote chegar ao banco.
+     */
+    private abstract static class RowWriter implements AutoCloseable {
+
+        private RowWriter parent;
+
+        RowWriter after(RowWriter parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        abstract void row(Object... values) throws SQLException;
+
+        abstract boolean hasPending();
+
+        abstract void write() throws SQLException;
+
+        final void flush() throws SQLException {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (hasPending()) {
+                write();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+        }
+    }
+
+    private static final class BatchWriter extends RowWriter {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+
+        BatchWriter(Connection connection, int batchSize, String table, String... columns) throws SQLException {
+            this.connection = connection;
+            this.batchSize = batchSize;
+            String placeholders = String.join(",", Collections.nCopies(columns.length, "?"));
+            this.statement = connection.prepareStatement(
+                    "insert into " + table + " (" + String.join(",", columns) + ") values (" + placeholders + ")");
+        }
+
+        @Override
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value instanceof Instant instant) {
+                    statement.setTimestamp(i + 1, Timestamp.from(instant));
+                } else if (value instanceof LocalDateTime dateTime) {
+                    statement.setTimestamp(i + 1, Timestamp.valueOf(dateTime));
+                } else {
+                    statement.setObject(i + 1, value);
+                }
+            }
+            statement.addBatch();
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+
+        @Override
+        boolean hasPending() {
+            return pending > 0;
+        }
+
+        @Override
+        void write() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                super.close();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+
+    private static final class CopyWriter extends RowWriter {
+
+        private final Connection connection;
+        private final CopyManager copyManager;
+        private final String sql;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+
+        CopyWriter(Connection connection, String table, String... columns) throws SQLException {
+            this.connection = connection;
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            this.sql = "COPY " + table + " (" + String.join(",", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        }
+
+        @Override
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof String text) {
+                    buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value instanceof byte[] bytes) {
+                    buffer.append("\\x").append(HexFormat.of().formatHex(bytes));
+                } else if (value != null) {
+                    buffer.append(value);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER_CHARS) {
+                flush();
+            }
+        }
+
+        @Override
+        boolean hasPending() {
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        void write() throws SQLException {
+            try {
+                copyManager.copyIn(sql, new StringReader(buffer.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Falha no COPY: " + sql, e);
+            }
+            connection.commit();
+            buffer.setLength(0);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(parts[0], parts.length > 1 ? parts[1] : "");
+        }
+        if (!options.containsKey("url")) {
+            System.err.println("Uso: DatasetSeeder --url=<jdbc> [--username= --password= --seed=42 --users=100000 "
+                    + "--recipes=200000 --saved-per-user=8 --batch-size=1000]");
+            System.exit(1);
+        }
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                options.get("url"), options.getOrDefault("username", ""), options.getOrDefault("password", ""));
+        Spec spec = new Spec(
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("users", "100000")),
+                Integer.parseInt(options.getOrDefault("recipes", "200000")),
+                Double.parseDouble(options.getOrDefault("saved-per-user", "8")),
+                Integer.parseInt(options.getOrDefault("batch-size", "1000")));
+
+        Result result = new DatasetSeeder(dataSource).seed(spec);
+        System.out.printf("Seed %d: %d usuários, %d receitas (%d linhas de ingredientes/passos/dicas), "
+                        + "%d receitas salvas em %d ms%n", spec.seed(), result.users(), result.recipes(),
+                result.collectionRows(), result.savedRecipes(), result.elapsedMillis());
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.bitewise.api.support;
+
+import br.com.bitewise.api.model.User;
+import br.com.bitewise.api.repository.UserRepository;
+import br.com.bitewise.api.service.IngredientDictionary;
+import br.com.bitewise.api.util.MinHash;
+import br.com.bitewise.api.util.RecipeHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// O seeder escreve direto via JDBC, por fora do cache de segundo nível.
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatasetSeederTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void seedsRowsMatchingTheEntityMapping() throws Exception {
+        DatasetSeeder.Result result = new DatasetSeeder(dataSource).seed(DatasetSeeder.Spec.of(7, 50, 200, 4));
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        assertEquals(50, result.users());
+        assertEquals(result.savedRecipes(), jdbc.queryForObject(
+                "select count(*) from saved_recipes where user_id between ? and ?",
+                Long.class, result.firstUserId(), result.firstUserId() + 49));
+
+        List<Integer> ingredientCounts = jdbc.queryForList(
+                "select count(*) from recipe_ingredients where recipe_id between ? and ? group by recipe_id",
+                Integer.class, result.firstRecipeId(), result.firstRecipeId() + 199);
+        assertEquals(200, ingredientCounts.size());
+        assertTrue(ingredientCounts.stream().allMatch(count -> count >= 5 && count <= 16));
+
+        // Colunas derivadas preenchidas como o @PrePersist da entidade faria
+        List<String> ingredients = jdbc.queryForList(
+                "select ingredients from recipe_ingredients where recipe_id = ?", String.class, result.firstRecipeId());
+        assertEquals(RecipeHash.of(ingredients), jdbc.queryForObject(
+                "select content_hash from recipes where id = ?", String.class, result.firstRecipeId()));
+        int[] signature = MinHash.signature(new IngredientDictionary(new SimpleMeterRegistry(), false).ingredientSet(ingredients));
+        assertArrayEquals(MinHash.toBytes(signature), jdbc.queryForObject(
+                "select minhash from recipes where id = ?", byte[].class, result.firstRecipeId()));
+
+        User user = userRepository.findByEmail(result.userEmail(0)).orElseThrow();
+        assertTrue(new BCryptPasswordEncoder().matches(DatasetSeeder.PASSWORD, user.getPassword()));
+
+        // A aplicação continua inserindo depois do seed sem colidir com os ids gerados.
+        User created = userRepository.save(new User("Novo", "novo@bitewise.com", "x"));
+        assertEquals(result.firstUserId() + result.users(), created.getId());
+    }
+
+    @Test
+    void sameSeedProducesSameData() throws Exception {
+        DatasetSeeder seeder = new DatasetSeeder(dataSource, "hash");
+        DatasetSeeder.Result first = seeder.seed(DatasetSeeder.Spec.of(42, 20, 40, 3));
+        DatasetSeeder.Result second = seeder.seed(DatasetSeeder.Spec.of(42, 20, 40, 3));
+
+        assertEquals(first.savedRecipes(), second.savedRecipes());
+        assertEquals(first.collectionRows(), second.collectionRows());
+        assertEquals(recipesFrom(first.firstRecipeId()), recipesFrom(second.firstRecipeId()));
+    }
+
+    private List<Map<String, Object>> recipesFrom(long firstId) {
+        return new JdbcTemplate(dataSource).queryForList(
+                "select r.title, r.servings, r.difficulty, (select count(*) from recipe_steps s where s.recipe_id = r.id) steps "
+                        + "from recipes r where r.id between ? and ? order by r.id", firstId, firstId + 39);
+    }
+}
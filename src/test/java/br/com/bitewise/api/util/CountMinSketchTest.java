@@ -0,0 +1,39 @@
+package br.com.bitewise.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUnderestimatesAndStaysCloseForHeavyHitters() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("rara " + i);
+        }
+        for (int i = 0; i < 300; i++) {
+            sketch.add("arroz, frango, tomate");
+        }
+
+        int estimate = sketch.estimate("arroz, frango, tomate");
+        assertTrue(estimate >= 300);
+        assertTrue(estimate < 300 + 5000 / 256 * 2, "estimativa " + estimate);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sketch.estimate("rara " + i) >= 1);
+        }
+    }
+
+    @Test
+    void halvingAgesTheCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("ovo, queijo, tomate");
+        }
+        sketch.halve();
+        assertEquals(5, sketch.estimate("ovo, queijo, tomate"));
+        assertEquals(6, sketch.add("ovo, queijo, tomate"));
+        assertEquals(0, sketch.estimate("nunca vista"));
+    }
+}
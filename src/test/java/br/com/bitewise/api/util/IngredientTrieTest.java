@@ -0,0 +1,44 @@
+package br.com.bitewise.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IngredientTrieTest {
+
+    private final IngredientTrie trie = IngredientTrie.builder()
+            .add("arroz", 0, 5, true)
+            .add("arroz integral", 1, 14, true)
+            .add("alho", 2, 4, true)
+            .add("alho poro", 3, 9, true)
+            .add("integral", 1, 100, false)
+            .add("abacate", 4, 7, true)
+            .build();
+
+    @Test
+    void exactOnlyAnswersForExactKeys() {
+        assertEquals(0, trie.exact("arroz"));
+        assertEquals(3, trie.exact("alho poro"));
+        assertEquals(-1, trie.exact("arr"));
+        assertEquals(-1, trie.exact("integral"));
+    }
+
+    @Test
+    void suggestsByRankWithinPrefix() {
+        assertArrayEquals(new int[]{2, 0, 4, 3, 1}, trie.suggest("a", 10));
+        assertArrayEquals(new int[]{2, 3}, trie.suggest("alh", 10));
+        assertArrayEquals(new int[]{0}, trie.suggest("ar", 1));
+        assertArrayEquals(new int[]{1}, trie.suggest("int", 10));
+        assertArrayEquals(new int[0], trie.suggest("x", 10));
+    }
+
+    @Test
+    void findsClosestKeyWithinEditDistance() {
+        assertEquals(0, trie.closest("aroz", 1));
+        assertEquals(4, trie.closest("abacatw", 1));
+        assertEquals(2, trie.closest("ahlo", 1));
+        assertEquals(1, trie.closest("arroz integarl", 2));
+        assertEquals(-1, trie.closest("abobora", 1));
+    }
+}
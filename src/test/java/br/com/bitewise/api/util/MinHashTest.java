@@ -0,0 +1,35 @@
+package br.com.bitewise.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MinHashTest {
+
+    @Test
+    void estimatesJaccardSimilarity() {
+        Set<String> a = new HashSet<>();
+        Set<String> b = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            a.add("ingrediente " + i);
+            b.add("ingrediente " + (i + 50));
+        }
+        // Jaccard = 50 / 150
+        double estimate = MinHash.similarity(MinHash.signature(a), 0, MinHash.signature(b), 0);
+        assertEquals(1.0 / 3, estimate, 0.15);
+        assertEquals(1.0, MinHash.similarity(MinHash.signature(a), 0, MinHash.signature(new HashSet<>(a)), 0));
+    }
+
+    @Test
+    void roundTripsThroughBytesAndKeepsEmptySetsEmpty() {
+        int[] signature = MinHash.signature(List.of("frango", "arroz"));
+        assertEquals(MinHash.SIZE, signature.length);
+        assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+        assertEquals(0, MinHash.signature(List.of()).length);
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.bitewise.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NutrientTableTest {
+
+    private final NutrientTable table = NutrientTable.fromClasspath("nutrition/ingredients.csv");
+
+    @Test
+    void loadsBundledTable() {
+        assertTrue(table.size() > 100);
+        int rice = table.match("arroz");
+        assertEquals(358f, table.per100g(rice, NutrientTable.KCAL));
+        assertEquals(78.8f, table.per100g(rice, NutrientTable.CARBS));
+        assertEquals(0.8f, table.gramsPerMl(rice));
+        assertEquals(50f, table.unitGrams(table.match("ovos")));
+    }
+
+    @Test
+    void matchesLongestNameFromTheLeft() {
+        assertMatch("de farinha de trigo peneirada", "farinha de trigo");
+        assertMatch("de leite de coco", "leite de coco");
+        assertMatch("de queijo parmesão ralado", "queijo parmesão");
+        assertMatch("de Queijo Muçarela", "queijo");
+        assertMatch("de couve-flor em floretes", "couve-flor");
+        assertMatch("de azeite extra virgem", "azeite");
+    }
+
+    @Test
+    void ignoresAccentsAndPlurals() {
+        assertMatch("tomates maduros", "tomate");
+        assertMatch("limões", "limão");
+        assertMatch("pimentões vermelhos", "pimentão");
+        assertMatch("de file de frango", "peito de frango");
+        assertMatch("de grão-de-bico cozido", "grão de bico");
+    }
+
+    @Test
+    void returnsMinusOneForUnknownFood() {
+        assertEquals(-1, table.match("de pó de pirlimpimpim"));
+        assertEquals(-1, table.match(""));
+    }
+
+    private void assertMatch(String text, String expected) {
+        int row = table.match(text);
+        assertTrue(row >= 0, "sem correspondência para " + text);
+        assertEquals(expected, table.name(row));
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.bitewise.api.util;
+
+import br.com.bitewise.api.util.QuantityParser.Quantity;
+import br.com.bitewise.api.util.QuantityParser.Unit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantityParserTest {
+
+    @Test
+    void parsesCommonQuantityFormats() {
+        assertQuantity("200 g de peito de frango", 200, Unit.GRAM, "de peito de frango");
+        assertQuantity("200g de frango", 200, Unit.GRAM, "de frango");
+        assertQuantity("1 1/2 xícara de arroz", 1.5, Unit.CUP, "de arroz");
+        assertQuantity("½ xícara de leite", 0.5, Unit.CUP, "de leite");
+        assertQuantity("meia colher de sopa de sal", 0.5, Unit.TABLESPOON, "de sal");
+        assertQuantity("2 colheres de chá de fermento", 2, Unit.TEASPOON, "de fermento");
+        assertQuantity("1,5 kg de batata", 1.5, Unit.KILOGRAM, "de batata");
+        assertQuantity("3 ovos", 3, null, "ovos");
+        assertQuantity("1 limão", 1, null, "limão");
+    }
+
+    @Test
+    void keepsCountWords() {
+        Quantity garlic = QuantityParser.parse("1 dente de alho").orElseThrow();
+        assertNull(garlic.unit());
+        assertEquals("dente", garlic.countWord());
+        assertEquals("3 dentes de alho", QuantityParser.format(garlic.withAmount(3)));
+    }
+
+    @Test
+    void ignoresLinesWithoutQuantity() {
+        assertTrue(QuantityParser.parse("sal a gosto").isEmpty());
+        assertTrue(QuantityParser.parse("Azeite para regar").isEmpty());
+    }
+
+    @Test
+    void formatsWithReadableFractionsAndRounding() {
+        Quantity rice = QuantityParser.parse("1 xícara de arroz").orElseThrow();
+        assertEquals("1 1/2 xícaras de arroz", QuantityParser.format(rice.withAmount(1.5)));
+        assertEquals("1/4 xícara de arroz", QuantityParser.format(rice.withAmount(0.26)));
+        Quantity chicken = QuantityParser.parse("500 g de frango").orElseThrow();
+        assertEquals("335 g de frango", QuantityParser.format(chicken.withAmount(333.3)));
+    }
+
+    private static void assertQuantity(String line, double amount, Unit unit, String ingredient) {
+        Quantity quantity = QuantityParser.parse(line).orElseThrow(() -> new AssertionError(line));
+        assertEquals(amount, quantity.amount(), 1e-9, line);
+        assertEquals(unit, quantity.unit(), line);
+        assertEquals(ingredient, quantity.ingredient(), line);
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.bitewise.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeSearchTextTest {
+
+    @Test
+    void buildsNormalizedDocumentWithTitleOnFirstLine() {
+        String document = RecipeSearchText.document("Frango ao Limão",
+                List.of("500 g de peito de frango", "2 limões"), List.of("Asse por 40 min."), null);
+
+        assertEquals("frango ao limao\n500 g de peito de frango 2 limoes asse por 40 min", document);
+        assertArrayEquals(new String[]{"frango ao limao", "500 g de peito de frango 2 limoes asse por 40 min"},
+                RecipeSearchText.split(document));
+        assertTrue(RecipeSearchText.document("Sopa", List.of("x".repeat(20_000)), null, null).length()
+                <= RecipeSearchText.MAX_LENGTH);
+    }
+
+    @Test
+    void stemsPluralsDiminutivesAndFinalVowel() {
+        assertEquals("tomat", RecipeSearchText.stem("tomates"));
+        assertEquals("tomat", RecipeSearchText.stem("tomatinho"));
+        assertEquals("limao", RecipeSearchText.stem("limoes"));
+        assertEquals("ovo", RecipeSearchText.stem("ovos"));
+        assertEquals(Set.of("frang", "limao"), RecipeSearchText.terms("Frango com limão"));
+    }
+}
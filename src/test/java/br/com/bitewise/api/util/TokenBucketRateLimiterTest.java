@@ -0,0 +1,73 @@
+package br.com.bitewise.api.util;
+
+import br.com.bitewise.api.util.TokenBucketRateLimiter.Decision;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void rejectsWhenBurstIsExhaustedAndRefillsOverTime() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4, 60, 10, clock::get);
+
+        assertTrue(limiter.tryAcquire("a", 2).allowed());
+        Decision second = limiter.tryAcquire("a", 2);
+        assertTrue(second.allowed());
+        assertEquals(0, second.remaining());
+
+        Decision rejected = limiter.tryAcquire("a", 1);
+        assertFalse(rejected.allowed());
+        assertEquals(1, rejected.retryAfterSeconds());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire("a", 1).allowed());
+    }
+
+    @Test
+    void costWeightsConsumeMoreTokens() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 60, 10, clock::get);
+
+        assertEquals(2, limiter.tryAcquire("a", 3).remaining());
+        assertFalse(limiter.tryAcquire("a", 3).allowed());
+        assertTrue(limiter.tryAcquire("b", 3).allowed());
+    }
+
+    @Test
+    void evictsOnlyFullyRefilledBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 60, 10, clock::get);
+        limiter.tryAcquire("a", 1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        limiter.tryAcquire("b", 1);
+
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void boundedMapFallsBackToSharedBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 2, clock::get);
+        limiter.tryAcquire("a", 1);
+        limiter.tryAcquire("b", 1);
+
+        assertTrue(limiter.tryAcquire("c", 2).allowed());
+        assertFalse(limiter.tryAcquire("d", 1).allowed());
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void refundReturnsTokens() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 60, 10, clock::get);
+        limiter.tryAcquire("a", 2);
+        limiter.refund("a", 1);
+
+        assertTrue(limiter.tryAcquire("a", 1).allowed());
+    }
+}